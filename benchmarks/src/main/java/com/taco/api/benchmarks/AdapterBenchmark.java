@@ -0,0 +1,132 @@
+package com.taco.api.benchmarks;
+
+import com.taco.api.economy.memory.MemoryEconomy;
+import com.taco.api.economy.vault.TacoEconomyAdapter;
+import com.taco.api.economy.vault.VaultEconomyAdapter;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Reads and writes through the Vault adapters, on top of a {@link MemoryEconomy} so only the adapters are measured.
+ * <p>
+ * The {@code vault} benchmarks call a {@link VaultEconomyAdapter}, the path of a Vault plugin on a Taco economy.
+ * The {@code taco} benchmarks call a {@link TacoEconomyAdapter} wrapped around that adapter, the path of a Taco
+ * plugin on a Vault economy, including the hand-off to the adapter's pool. Players are proxies answering
+ * {@link OfflinePlayer#getUniqueId()} and {@link OfflinePlayer#getName()}, as there is no server to look them up.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdapterBenchmark {
+    @Param({"shared", "perThread"})
+    public String accounts;
+
+    MemoryEconomy economy;
+    VaultEconomyAdapter vault;
+    TacoEconomyAdapter taco;
+    OfflinePlayer sharedPlayer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        economy = new MemoryEconomy("benchmark", 2, 0);
+        vault = new VaultEconomyAdapter(economy, Logger.getLogger("benchmark"));
+        taco = new TacoEconomyAdapter(vault);
+        sharedPlayer = createPlayer(this);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taco.close();
+    }
+
+    /**
+     * The player a thread works on.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        OfflinePlayer player;
+
+        @Setup(Level.Trial)
+        public void setup(AdapterBenchmark benchmark) {
+            player = benchmark.accounts.equals("shared") ? benchmark.sharedPlayer : createPlayer(benchmark);
+        }
+    }
+
+    @Benchmark
+    public double vaultGetBalance(Player player) {
+        return vault.getBalance(player.player);
+    }
+
+    @Benchmark
+    public EconomyResponse vaultDeposit(Player player) {
+        return vault.depositPlayer(player.player, 0.01);
+    }
+
+    @Benchmark
+    public EconomyResponse vaultWithdraw(Player player) {
+        return vault.withdrawPlayer(player.player, 0.01);
+    }
+
+    @Benchmark
+    public double tacoGetBalance(Player player) {
+        return taco.getBalance(player.player).join();
+    }
+
+    @Benchmark
+    public EconomyResponse tacoSend(Player player) {
+        return taco.send(player.player, 0.01).join();
+    }
+
+    @Benchmark
+    public EconomyResponse tacoTake(Player player) {
+        return taco.take(player.player, 0.01).join();
+    }
+
+    static OfflinePlayer createPlayer(AdapterBenchmark benchmark) {
+        UUID playerId = UUID.randomUUID();
+        String name = "player" + Long.toHexString(playerId.getLeastSignificantBits());
+        benchmark.economy.createAccount(playerId).join();
+        benchmark.economy.sendMinor(playerId, MemoryEconomyBenchmark.FUNDS).join();
+        benchmark.vault.rememberName(name, playerId);
+        return (OfflinePlayer) Proxy.newProxyInstance(OfflinePlayer.class.getClassLoader(),
+                new Class<?>[]{OfflinePlayer.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUniqueId":
+                            return playerId;
+                        case "getName":
+                        case "toString":
+                            return name;
+                        case "hashCode":
+                            return playerId.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,47 @@
+package com.taco.api.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Runs the benchmarks once per thread count from 1 to 64, with the allocation profiler, so contention and
+ * allocation per operation come out of a single run.
+ * <p>
+ * Takes the usual JMH arguments, for example {@code java -jar target/benchmarks.jar MemoryEconomy}. Passing
+ * {@code -t} runs that thread count only.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class EconomyBenchmarks {
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    private EconomyBenchmarks() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        boolean profiled = false;
+        for (ProfilerConfig profiler : options.getProfilers()) {
+            profiled |= profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName());
+        }
+
+        if (options.getThreads().hasValue()) {
+            new Runner(withGc(new OptionsBuilder().parent(options), profiled).build()).run();
+            return;
+        }
+        for (int threads : THREADS) {
+            new Runner(withGc(new OptionsBuilder().parent(options).threads(threads), profiled).build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder withGc(ChainedOptionsBuilder builder, boolean profiled) {
+        return profiled ? builder : builder.addProfiler(GCProfiler.class);
+    }
+}
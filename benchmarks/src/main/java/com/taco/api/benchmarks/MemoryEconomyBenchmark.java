@@ -0,0 +1,123 @@
+package com.taco.api.benchmarks;
+
+import com.taco.api.economy.TransactionCallback;
+import com.taco.api.economy.memory.MemoryEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes of a {@link MemoryEconomy}, the cost of the API itself without any storage behind it.
+ * <p>
+ * With {@code accounts=shared} every thread uses the same account, with {@code accounts=perThread} each thread has
+ * its own, so running both at several thread counts separates contention on one account from the cost of the map.
+ * The callback benchmarks show the allocation-free path next to the future one.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoryEconomyBenchmark {
+    /**
+     * Enough to take one cent per call for the whole run.
+     */
+    static final long FUNDS = Long.MAX_VALUE / 4;
+
+    @Param({"shared", "perThread"})
+    public String accounts;
+
+    @Param({"10000"})
+    public int accountCount;
+
+    MemoryEconomy economy;
+    UUID sharedId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        economy = new MemoryEconomy("benchmark", 2, 0);
+        for (int i = 0; i < accountCount; i++) {
+            UUID playerId = UUID.randomUUID();
+            economy.createAccount(playerId).join();
+            economy.sendMinor(playerId, i).join();
+        }
+        sharedId = UUID.randomUUID();
+        economy.createAccount(sharedId).join();
+        economy.sendMinor(sharedId, FUNDS).join();
+    }
+
+    /**
+     * The account a thread works on, which also receives the callback writes.
+     */
+    @State(Scope.Thread)
+    public static class Player implements TransactionCallback {
+        UUID playerId;
+        long balance;
+
+        @Setup(Level.Trial)
+        public void setup(MemoryEconomyBenchmark benchmark) {
+            if (benchmark.accounts.equals("shared")) {
+                playerId = benchmark.sharedId;
+                return;
+            }
+            playerId = UUID.randomUUID();
+            benchmark.economy.createAccount(playerId).join();
+            benchmark.economy.sendMinor(playerId, FUNDS).join();
+        }
+
+        @Override
+        public void complete(Reason reason, long balance) {
+            this.balance = balance;
+        }
+    }
+
+    @Benchmark
+    public double getBalance(Player player) {
+        return economy.getBalance(player.playerId).join();
+    }
+
+    @Benchmark
+    public long getBalanceMinor(Player player) {
+        return economy.getBalanceMinor(player.playerId).join();
+    }
+
+    @Benchmark
+    public EconomyResponse send(Player player) {
+        return economy.send(player.playerId, 0.01).join();
+    }
+
+    @Benchmark
+    public EconomyResponse take(Player player) {
+        return economy.take(player.playerId, 0.01).join();
+    }
+
+    @Benchmark
+    public long sendCallback(Player player) {
+        economy.sendMinor(player.playerId, 1, player);
+        return player.balance;
+    }
+
+    @Benchmark
+    public long takeCallback(Player player) {
+        economy.takeMinor(player.playerId, 1, player);
+        return player.balance;
+    }
+}
@@ -0,0 +1,798 @@
+package com.taco.api.chat;
+
+import com.taco.api.metrics.CallMetrics;
+import com.taco.api.metrics.MetricsRegistry;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Records the call count, error count and latency of every method of any {@link Chat}.
+ * <p>
+ * Every method is forwarded to the wrapped chat as it is called, so methods it overrides keep working, and
+ * overloads are recorded together under the method's name. Read the numbers through {@link #getMetrics()}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class MetricsChat extends Chat {
+    private final Chat delegate;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final CallMetrics getPlayerPrefix = metrics.get("getPlayerPrefix");
+    private final CallMetrics setPlayerPrefix = metrics.get("setPlayerPrefix");
+    private final CallMetrics getPlayerSuffix = metrics.get("getPlayerSuffix");
+    private final CallMetrics setPlayerSuffix = metrics.get("setPlayerSuffix");
+    private final CallMetrics getGroupPrefix = metrics.get("getGroupPrefix");
+    private final CallMetrics getGroupSuffix = metrics.get("getGroupSuffix");
+    private final CallMetrics setGroupSuffix = metrics.get("setGroupSuffix");
+    private final CallMetrics getPlayerInfoInteger = metrics.get("getPlayerInfoInteger");
+    private final CallMetrics setPlayerInfoInteger = metrics.get("setPlayerInfoInteger");
+    private final CallMetrics getGroupInfoInteger = metrics.get("getGroupInfoInteger");
+    private final CallMetrics setGroupInfoInteger = metrics.get("setGroupInfoInteger");
+    private final CallMetrics getPlayerInfoDouble = metrics.get("getPlayerInfoDouble");
+    private final CallMetrics setPlayerInfoDouble = metrics.get("setPlayerInfoDouble");
+    private final CallMetrics getGroupInfoDouble = metrics.get("getGroupInfoDouble");
+    private final CallMetrics setGroupInfoDouble = metrics.get("setGroupInfoDouble");
+    private final CallMetrics getPlayerInfoBoolean = metrics.get("getPlayerInfoBoolean");
+    private final CallMetrics setPlayerInfoBoolean = metrics.get("setPlayerInfoBoolean");
+    private final CallMetrics getGroupInfoBoolean = metrics.get("getGroupInfoBoolean");
+    private final CallMetrics setGroupInfoBoolean = metrics.get("setGroupInfoBoolean");
+    private final CallMetrics getPlayerInfoString = metrics.get("getPlayerInfoString");
+    private final CallMetrics setPlayerInfoString = metrics.get("setPlayerInfoString");
+    private final CallMetrics getGroupInfoString = metrics.get("getGroupInfoString");
+    private final CallMetrics setGroupInfoString = metrics.get("setGroupInfoString");
+    private final CallMetrics playerInGroup = metrics.get("playerInGroup");
+    private final CallMetrics getPlayerGroups = metrics.get("getPlayerGroups");
+    private final CallMetrics getPrimaryGroup = metrics.get("getPrimaryGroup");
+    private final CallMetrics getGroups = metrics.get("getGroups");
+
+    /**
+     * Creates a chat recording the calls to another.
+     *
+     * @param delegate the chat to record calls to
+     */
+    public MetricsChat(Chat delegate) {
+        // the group lookups that would use the permissions are forwarded to the delegate as well
+        super(null);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the recorded metrics.
+     *
+     * @return the metrics, one entry per method
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public String getPlayerPrefix(World world, UUID player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerPrefix(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerPrefix(World world, OfflinePlayer player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerPrefix(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerPrefix(Player player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerPrefix(player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerPrefix(World world, UUID player, String prefix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerPrefix(world, player, prefix);
+            failed = false;
+        } finally {
+            setPlayerPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerPrefix(World world, OfflinePlayer player, String prefix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerPrefix(world, player, prefix);
+            failed = false;
+        } finally {
+            setPlayerPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerPrefix(Player player, String prefix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerPrefix(player, prefix);
+            failed = false;
+        } finally {
+            setPlayerPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerSuffix(World world, UUID player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerSuffix(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerSuffix(World world, OfflinePlayer player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerSuffix(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerSuffix(Player player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerSuffix(player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerSuffix(World world, UUID player, String suffix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerSuffix(world, player, suffix);
+            failed = false;
+        } finally {
+            setPlayerSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerSuffix(World world, OfflinePlayer player, String suffix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerSuffix(world, player, suffix);
+            failed = false;
+        } finally {
+            setPlayerSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerSuffix(Player player, String suffix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerSuffix(player, suffix);
+            failed = false;
+        } finally {
+            setPlayerSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getGroupPrefix(World world, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getGroupPrefix(world, group);
+            failed = false;
+            return result;
+        } finally {
+            getGroupPrefix.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getGroupSuffix(World world, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getGroupSuffix(world, group);
+            failed = false;
+            return result;
+        } finally {
+            getGroupSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setGroupSuffix(World world, String group, String suffix) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setGroupSuffix(world, group, suffix);
+            failed = false;
+        } finally {
+            setGroupSuffix.record(start, failed);
+        }
+    }
+
+    @Override
+    public int getPlayerInfoInteger(World world, OfflinePlayer player, String node, int defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            int result = delegate.getPlayerInfoInteger(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public int getPlayerInfoInteger(World world, UUID player, String node, int defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            int result = delegate.getPlayerInfoInteger(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public int getPlayerInfoInteger(Player player, String node, int defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            int result = delegate.getPlayerInfoInteger(player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoInteger(World world, OfflinePlayer player, String node, int value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoInteger(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoInteger(World world, UUID player, String node, int value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoInteger(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoInteger(Player player, String node, int value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoInteger(player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public int getGroupInfoInteger(World world, String group, String node, int defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            int result = delegate.getGroupInfoInteger(world, group, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getGroupInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setGroupInfoInteger(World world, String group, String node, int value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setGroupInfoInteger(world, group, node, value);
+            failed = false;
+        } finally {
+            setGroupInfoInteger.record(start, failed);
+        }
+    }
+
+    @Override
+    public double getPlayerInfoDouble(World world, UUID playerId, String node, double defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            double result = delegate.getPlayerInfoDouble(world, playerId, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public double getPlayerInfoDouble(World world, OfflinePlayer player, String node, double defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            double result = delegate.getPlayerInfoDouble(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public double getPlayerInfoDouble(Player player, String node, double defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            double result = delegate.getPlayerInfoDouble(player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoDouble(World world, UUID player, String node, double value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoDouble(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoDouble(World world, OfflinePlayer player, String node, double value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoDouble(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoDouble(Player player, String node, double value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoDouble(player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public double getGroupInfoDouble(World world, String group, String node, double defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            double result = delegate.getGroupInfoDouble(world, group, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getGroupInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setGroupInfoDouble(World world, String group, String node, double value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setGroupInfoDouble(world, group, node, value);
+            failed = false;
+        } finally {
+            setGroupInfoDouble.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean getPlayerInfoBoolean(World world, OfflinePlayer player, String node, boolean defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.getPlayerInfoBoolean(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean getPlayerInfoBoolean(World world, UUID player, String node, boolean defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.getPlayerInfoBoolean(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean getPlayerInfoBoolean(Player player, String node, boolean defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.getPlayerInfoBoolean(player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoBoolean(World world, OfflinePlayer player, String node, boolean value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoBoolean(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoBoolean(World world, UUID player, String node, boolean value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoBoolean(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoBoolean(Player player, String node, boolean value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoBoolean(player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean getGroupInfoBoolean(World world, String group, String node, boolean defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.getGroupInfoBoolean(world, group, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getGroupInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setGroupInfoBoolean(World world, String group, String node, boolean value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setGroupInfoBoolean(world, group, node, value);
+            failed = false;
+        } finally {
+            setGroupInfoBoolean.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerInfoString(World world, OfflinePlayer player, String node, String defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerInfoString(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerInfoString(World world, UUID player, String node, String defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerInfoString(world, player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPlayerInfoString(Player player, String node, String defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPlayerInfoString(player, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoString(World world, OfflinePlayer player, String node, String value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoString(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoString(World world, UUID player, String node, String value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoString(world, player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setPlayerInfoString(Player player, String node, String value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setPlayerInfoString(player, node, value);
+            failed = false;
+        } finally {
+            setPlayerInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getGroupInfoString(World world, String group, String node, String defaultValue) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getGroupInfoString(world, group, node, defaultValue);
+            failed = false;
+            return result;
+        } finally {
+            getGroupInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public void setGroupInfoString(World world, String group, String node, String value) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.setGroupInfoString(world, group, node, value);
+            failed = false;
+        } finally {
+            setGroupInfoString.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerInGroup(World world, OfflinePlayer player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerInGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerInGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerInGroup(World world, UUID player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerInGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerInGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerInGroup(Player player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerInGroup(player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerInGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(World world, OfflinePlayer player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(World world, UUID player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(World world, Player player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(Player player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPrimaryGroup(World world, OfflinePlayer player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPrimaryGroup(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPrimaryGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPrimaryGroup(World world, UUID player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPrimaryGroup(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPrimaryGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getGroups() {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getGroups();
+            failed = false;
+            return result;
+        } finally {
+            getGroups.record(start, failed);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.taco.api.concurrent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs asynchronous operations one account at a time, in the order they were submitted.
+ * <p>
+ * Every account has a mailbox, which is just the completion of its most recently submitted operation: a new
+ * operation starts once the previous one's future has completed. Operations on different accounts never wait for
+ * each other. An operation submitted to an idle mailbox starts on the calling thread, a queued one starts on the
+ * given executor once its turn comes, or on the thread completing the previous operation if the executor rejects
+ * it. Mailboxes are removed as soon as they drain.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class AccountMailboxes {
+    private final Map<UUID, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final Object pairLock = new Object();
+    private final Executor executor;
+
+    /**
+     * Creates mailboxes that start queued operations on {@link TacoExecutors#get()}.
+     */
+    public AccountMailboxes() {
+        this(TacoExecutors.get());
+    }
+
+    /**
+     * Creates mailboxes.
+     *
+     * @param executor the executor queued operations are started on
+     */
+    public AccountMailboxes(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs an operation once every operation submitted earlier for the account has completed.
+     *
+     * @param account the account
+     * @param operation the operation, started at most once
+     * @param <T> the result type
+     * @return a future completing with the result of the operation
+     */
+    public <T> CompletableFuture<T> submit(UUID account, Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> done = result.handle((value, error) -> null);
+        CompletableFuture<Void> previous = enqueue(account, done);
+        start(previous, operation, result);
+        return result;
+    }
+
+    /**
+     * Runs an operation once every operation submitted earlier for either account has completed,
+     * for operations such as transfers that touch two accounts.
+     *
+     * @param first one account
+     * @param second the other account
+     * @param operation the operation, started at most once
+     * @param <T> the result type
+     * @return a future completing with the result of the operation
+     */
+    public <T> CompletableFuture<T> submit(UUID first, UUID second, Supplier<CompletableFuture<T>> operation) {
+        if (first.equals(second)) {
+            return submit(first, operation);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> done = result.handle((value, error) -> null);
+        CompletableFuture<Void> firstPrevious;
+        CompletableFuture<Void> secondPrevious;
+        // Two-account operations must enter both mailboxes atomically, or two of them could wait on each other.
+        synchronized (pairLock) {
+            firstPrevious = enqueue(first, done);
+            secondPrevious = enqueue(second, done);
+        }
+
+        CompletableFuture<Void> previous;
+        if (firstPrevious == null) {
+            previous = secondPrevious;
+        } else if (secondPrevious == null) {
+            previous = firstPrevious;
+        } else {
+            previous = CompletableFuture.allOf(firstPrevious, secondPrevious);
+        }
+        start(previous, operation, result);
+        return result;
+    }
+
+    /**
+     * Gets the number of accounts with an operation in flight.
+     *
+     * @return the number of active mailboxes
+     */
+    public int getActiveMailboxes() {
+        return tails.size();
+    }
+
+    private CompletableFuture<Void> enqueue(UUID account, CompletableFuture<Void> done) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] previous = new CompletableFuture[1];
+        tails.compute(account, (key, tail) -> {
+            previous[0] = tail;
+            return done;
+        });
+        done.whenComplete((ignored, error) -> tails.remove(account, done));
+        return previous[0];
+    }
+
+    private <T> void start(CompletableFuture<Void> previous, Supplier<CompletableFuture<T>> operation,
+                           CompletableFuture<T> result) {
+        if (previous == null || previous.isDone()) {
+            run(operation, result);
+        } else {
+            previous.whenComplete((ignored, error) -> {
+                try {
+                    executor.execute(() -> run(operation, result));
+                } catch (RejectedExecutionException e) {
+                    // the operation must still run, or every later one in the mailbox would wait forever
+                    run(operation, result);
+                }
+            });
+        }
+    }
+
+    private static <T> void run(Supplier<CompletableFuture<T>> operation, CompletableFuture<T> result) {
+        try {
+            operation.get().whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
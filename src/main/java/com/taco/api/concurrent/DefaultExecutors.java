@@ -0,0 +1,33 @@
+package com.taco.api.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor used when no {@link ExecutorProvider} is installed.
+ * <p>
+ * Before Java 21 this is a pool of up to 64 daemon threads that time out when idle, separate from the common fork-join pool so blocking I/O
+ * cannot starve parallel streams and other {@code CompletableFuture} work. The multi-release jar replaces this class
+ * on Java 21 and newer with one that uses virtual threads.
+ */
+final class DefaultExecutors {
+    private static final int MAXIMUM_THREADS = 64;
+
+    private DefaultExecutors() {
+    }
+
+    static Executor create() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAXIMUM_THREADS, MAXIMUM_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Taco Worker #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
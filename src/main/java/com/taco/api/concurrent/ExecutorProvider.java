@@ -0,0 +1,23 @@
+package com.taco.api.concurrent;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Supplies the executor TacoAPI providers run their blocking work on.
+ * <p>
+ * Implementations are found through {@link java.util.ServiceLoader}, by listing them in
+ * {@code META-INF/services/com.taco.api.concurrent.ExecutorProvider}, or can be installed with
+ * {@link TacoExecutors#setProvider(ExecutorProvider)}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface ExecutorProvider {
+    /**
+     * Creates the executor. This is called once, the first time an executor is needed.
+     *
+     * @return the executor
+     */
+    Executor createExecutor();
+}
@@ -0,0 +1,149 @@
+package com.taco.api.concurrent;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Brings the results of TacoAPI futures back to the main thread with one repeating task instead of one scheduler
+ * task per future.
+ * <p>
+ * Callbacks are queued as their futures complete and drained once per tick, until the queue is empty or the tick's
+ * time budget is spent; whatever is left carries over to the next tick, so a burst of results cannot stall the
+ * server. The bridge is also an {@link Executor}, so {@code future.thenAcceptAsync(action, bridge)} runs the action
+ * on the main thread.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class MainThreadBridge implements Executor {
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final long budgetNanos;
+    private volatile Logger logger = Logger.getLogger(MainThreadBridge.class.getName());
+    private BukkitTask task;
+
+    /**
+     * Creates a bridge.
+     *
+     * @param budget the longest the bridge may spend running callbacks in one tick
+     * @param unit the unit of budget
+     */
+    public MainThreadBridge(long budget, TimeUnit unit) {
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Starts draining the queue every tick.
+     *
+     * @param plugin the plugin owning the repeating task
+     */
+    public synchronized void start(Plugin plugin) {
+        if (task != null) {
+            throw new IllegalStateException("Bridge already started");
+        }
+        logger = plugin.getLogger();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    /**
+     * Stops the repeating task and runs every callback still queued, ignoring the budget.
+     * Call this from the plugin's onDisable, on the main thread.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        drain(Long.MAX_VALUE);
+    }
+
+    /**
+     * Queues a task to run on the main thread during a later drain.
+     *
+     * @param command the task
+     */
+    @Override
+    public void execute(Runnable command) {
+        queue.add(command);
+        backlog.incrementAndGet();
+    }
+
+    /**
+     * Runs the action on the main thread once the future completes.
+     *
+     * @param future the future
+     * @param action the action, given the result or the failure
+     * @param <T> the result type
+     */
+    public <T> void whenComplete(CompletableFuture<T> future, BiConsumer<? super T, ? super Throwable> action) {
+        future.whenComplete((result, error) -> execute(() -> action.accept(result, error)));
+    }
+
+    /**
+     * Runs the action on the main thread once the future completes successfully.
+     * A failed future is logged instead.
+     *
+     * @param future the future
+     * @param action the action, given the result
+     * @param <T> the result type
+     */
+    public <T> void thenAccept(CompletableFuture<T> future, Consumer<? super T> action) {
+        whenComplete(future, (result, error) -> {
+            if (error != null) {
+                logger.log(Level.WARNING, "Taco future failed before reaching the main thread", error);
+            } else {
+                action.accept(result);
+            }
+        });
+    }
+
+    /**
+     * Runs queued callbacks until the queue is empty or the budget is spent. At least one callback runs
+     * whenever the queue is not empty, so the queue always makes progress.
+     *
+     * @return the number of callbacks run
+     */
+    public int drain() {
+        return drain(budgetNanos);
+    }
+
+    /**
+     * Gets the number of callbacks waiting for the main thread.
+     *
+     * @return the backlog
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    private int drain(long budget) {
+        long deadline = System.nanoTime() + budget;
+        int ran = 0;
+        Runnable next;
+        while ((next = queue.poll()) != null) {
+            backlog.decrementAndGet();
+            try {
+                next.run();
+            } catch (Throwable e) {
+                logger.log(Level.SEVERE, "Exception in a Taco main thread callback", e);
+            }
+            ran++;
+            if (budget != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+        return ran;
+    }
+}
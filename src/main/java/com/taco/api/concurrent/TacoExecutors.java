@@ -0,0 +1,87 @@
+package com.taco.api.concurrent;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The executor TacoAPI providers should run blocking work on, instead of {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ * <p>
+ * The executor comes from, in order: a provider installed with {@link #setProvider(ExecutorProvider)}, the first
+ * {@link ExecutorProvider} found by {@link ServiceLoader}, or the default, which uses virtual threads on Java 21 and
+ * newer and a bounded pool of daemon threads before that.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class TacoExecutors {
+    private static volatile ExecutorProvider provider;
+    private static volatile Executor executor;
+
+    private TacoExecutors() {
+    }
+
+    /**
+     * Gets the shared executor, creating it on first use.
+     *
+     * @return the executor
+     */
+    public static Executor get() {
+        Executor current = executor;
+        if (current != null) {
+            return current;
+        }
+        synchronized (TacoExecutors.class) {
+            if (executor == null) {
+                executor = resolveProvider().createExecutor();
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Installs the provider of the shared executor. This must be called before the executor is first used,
+     * typically while the providing plugin loads.
+     *
+     * @param executorProvider the provider
+     * @throws IllegalStateException if the executor has already been created
+     */
+    public static synchronized void setProvider(ExecutorProvider executorProvider) {
+        if (executor != null) {
+            throw new IllegalStateException("The Taco executor has already been created");
+        }
+        provider = executorProvider;
+    }
+
+    /**
+     * Runs a blocking supplier on the shared executor.
+     *
+     * @param supplier the work to run
+     * @param <T> the result type
+     * @return a future completing with the result of the supplier
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, get());
+    }
+
+    /**
+     * Runs a blocking task on the shared executor.
+     *
+     * @param runnable the work to run
+     * @return a future completing once the task has run
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        return CompletableFuture.runAsync(runnable, get());
+    }
+
+    private static ExecutorProvider resolveProvider() {
+        if (provider != null) {
+            return provider;
+        }
+        Iterator<ExecutorProvider> found = ServiceLoader.load(ExecutorProvider.class,
+                TacoExecutors.class.getClassLoader()).iterator();
+        return found.hasNext() ? found.next() : DefaultExecutors::create;
+    }
+}
@@ -0,0 +1,20 @@
+package com.taco.api.economy;
+
+import java.util.UUID;
+
+/**
+ * Receives a player and their balance without boxing the balance.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface BalanceConsumer {
+    /**
+     * Accepts a balance.
+     *
+     * @param playerId the owner of the balance
+     * @param balance the balance
+     */
+    void accept(UUID playerId, double balance);
+}
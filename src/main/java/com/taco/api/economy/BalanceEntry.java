@@ -0,0 +1,60 @@
+package com.taco.api.economy;
+
+import java.util.UUID;
+
+/**
+ * A player's position on the balance leaderboard, as returned by {@link Economy#getTopBalances(int, int)}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class BalanceEntry {
+    private final UUID playerId;
+    private final double balance;
+    private final int rank;
+
+    /**
+     * Creates an entry.
+     *
+     * @param playerId the player
+     * @param balance the balance of the player
+     * @param rank the rank of the player, 1 being the richest
+     */
+    public BalanceEntry(UUID playerId, double balance, int rank) {
+        this.playerId = playerId;
+        this.balance = balance;
+        this.rank = rank;
+    }
+
+    /**
+     * Gets the player.
+     *
+     * @return the player
+     */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Gets the balance of the player.
+     *
+     * @return the balance
+     */
+    public double getBalance() {
+        return balance;
+    }
+
+    /**
+     * Gets the rank of the player, 1 being the richest.
+     *
+     * @return the rank
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceEntry{#" + rank + ' ' + playerId + ", balance=" + balance + '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.taco.api.economy;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers balance changes to {@link BalanceListener}s, for economies implementing
+ * {@link Economy#subscribe(BalanceListener)}.
+ * <p>
+ * Events are delivered on the thread that publishes them, usually the thread that changed the balance, so listeners
+ * must be quick and thread-safe; wrap slow or main-thread listeners in a {@link CoalescingBalanceListener}.
+ * A listener that throws is logged and does not stop delivery to the others.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class BalanceEvents {
+    private static final Logger LOGGER = Logger.getLogger(BalanceEvents.class.getName());
+
+    private final List<BalanceListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener the listener
+     * @return the subscription, to unregister the listener
+     */
+    public BalanceSubscription subscribe(BalanceListener listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Gets whether any listener is registered, so publishers can skip looking up balances nobody listens for.
+     *
+     * @return true if there is at least one listener
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Delivers a balance change to every listener.
+     *
+     * @param playerId the player
+     * @param balance the new balance
+     */
+    public void publish(UUID playerId, double balance) {
+        for (BalanceListener listener : listeners) {
+            try {
+                listener.onBalanceChange(playerId, balance);
+            } catch (Throwable e) {
+                LOGGER.log(Level.SEVERE, "Exception in a Taco balance listener", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.taco.api.economy;
+
+import java.util.UUID;
+
+/**
+ * Computes the new balance of an account in a bulk operation, see {@link Economy#applyToAll(BalanceFunction)}.
+ * <p>
+ * Functions run in parallel on many accounts at once, so they must be thread-safe and must not call back into
+ * the economy. Backends that update balances with a single statement can only push down a
+ * {@link LinearBalanceFunction}, any other function is applied account by account.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface BalanceFunction {
+    /**
+     * Computes the new balance of an account.
+     *
+     * @param playerId the account
+     * @param balance the current balance in minor units
+     * @return the new balance in minor units, the current one to leave the account unchanged;
+     * negative balances are stored as 0
+     */
+    long apply(UUID playerId, long balance);
+}
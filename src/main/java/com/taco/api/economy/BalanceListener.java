@@ -0,0 +1,20 @@
+package com.taco.api.economy;
+
+import java.util.UUID;
+
+/**
+ * Listens for balance changes, see {@link Economy#subscribe(BalanceListener)}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface BalanceListener {
+    /**
+     * Called after the balance of a player changed.
+     *
+     * @param playerId the player
+     * @param balance the new balance
+     */
+    void onBalanceChange(UUID playerId, double balance);
+}
@@ -0,0 +1,15 @@
+package com.taco.api.economy;
+
+/**
+ * A registered {@link BalanceListener}, see {@link Economy#subscribe(BalanceListener)}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface BalanceSubscription {
+    /**
+     * Stops delivering events to the listener. Calling this more than once does nothing.
+     */
+    void unsubscribe();
+}
@@ -0,0 +1,204 @@
+package com.taco.api.economy;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * An immutable batch of balances keyed by player, as returned by {@link Economy#getBalances(java.util.Collection)}.
+ * <p>
+ * Balances are kept in primitive arrays with an open-addressed index, so reading a batch does not box
+ * a {@link Double} per player.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class Balances {
+    /**
+     * A batch holding no balances.
+     */
+    public static final Balances EMPTY = new Builder(0).build();
+
+    private final UUID[] ids;
+    private final double[] balances;
+    private final int[] index;
+    private final int size;
+
+    private Balances(UUID[] ids, double[] balances, int[] index, int size) {
+        this.ids = ids;
+        this.balances = balances;
+        this.index = index;
+        this.size = size;
+    }
+
+    /**
+     * Creates a builder for a batch.
+     *
+     * @param expectedSize the number of balances expected, used to size the arrays
+     * @return the builder
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Gets the number of balances in this batch.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether this batch has no balances.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the batch has a balance for the player.
+     *
+     * @param playerId the player
+     * @return true if a balance is present
+     */
+    public boolean contains(UUID playerId) {
+        return indexOf(ids, index, playerId) >= 0;
+    }
+
+    /**
+     * Gets the balance of the player.
+     *
+     * @param playerId the player
+     * @param defaultValue the value returned when the player is not in this batch
+     * @return the balance, or defaultValue
+     */
+    public double get(UUID playerId, double defaultValue) {
+        int position = indexOf(ids, index, playerId);
+        return position < 0 ? defaultValue : balances[position];
+    }
+
+    /**
+     * Gets the player at a position, in insertion order.
+     *
+     * @param position the position, from 0 to {@link #size()} exclusive
+     * @return the player
+     */
+    public UUID getId(int position) {
+        if (position >= size) throw new IndexOutOfBoundsException(String.valueOf(position));
+        return ids[position];
+    }
+
+    /**
+     * Gets the balance at a position, in insertion order.
+     *
+     * @param position the position, from 0 to {@link #size()} exclusive
+     * @return the balance
+     */
+    public double getBalance(int position) {
+        if (position >= size) throw new IndexOutOfBoundsException(String.valueOf(position));
+        return balances[position];
+    }
+
+    /**
+     * Passes every balance to the consumer, in insertion order.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(BalanceConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(ids[i], balances[i]);
+        }
+    }
+
+    private static int indexOf(UUID[] ids, int[] index, UUID playerId) {
+        int mask = index.length - 1;
+        for (int slot = mix(playerId) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (position < 0) return -1;
+            if (ids[position].equals(playerId)) return position;
+        }
+    }
+
+    private static int mix(UUID playerId) {
+        long bits = playerId.getMostSignificantBits() ^ playerId.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSize(int expected) {
+        int size = 4;
+        while (size < expected * 2) size <<= 1;
+        return size;
+    }
+
+    /**
+     * Collects balances into a {@link Balances} batch. Builders are not thread safe.
+     */
+    public static final class Builder {
+        private UUID[] ids;
+        private double[] balances;
+        private int[] index;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            this.ids = new UUID[capacity];
+            this.balances = new double[capacity];
+            this.index = new int[tableSize(capacity)];
+        }
+
+        /**
+         * Sets the balance of a player, replacing any balance already added for them.
+         *
+         * @param playerId the player
+         * @param balance the balance
+         * @return this builder
+         */
+        public Builder put(UUID playerId, double balance) {
+            int position = indexOf(ids, index, playerId);
+            if (position >= 0) {
+                balances[position] = balance;
+                return this;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                balances = Arrays.copyOf(balances, size * 2);
+            }
+            if ((size + 1) * 2 > index.length) {
+                rehash(index.length * 2);
+            }
+            ids[size] = playerId;
+            balances[size] = balance;
+            insert(index, playerId, size);
+            size++;
+            return this;
+        }
+
+        /**
+         * Builds the batch. The builder must not be used afterwards.
+         *
+         * @return the balances
+         */
+        public Balances build() {
+            return new Balances(ids, balances, index, size);
+        }
+
+        private void rehash(int tableSize) {
+            int[] table = new int[tableSize];
+            for (int i = 0; i < size; i++) {
+                insert(table, ids[i], i);
+            }
+            index = table;
+        }
+
+        private static void insert(int[] table, UUID playerId, int position) {
+            int mask = table.length - 1;
+            int slot = mix(playerId) & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = position + 1;
+        }
+    }
+}
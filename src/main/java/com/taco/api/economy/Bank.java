@@ -12,4 +12,78 @@ public interface Bank {
     String getName();
 
     void setName(String name);
+
+    /**
+     * Gets the player who owns this bank.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return the owner, or null if the implementation does not track owners
+     */
+    default UUID getOwnerId() {
+        return null;
+    }
+
+    /**
+     * Atomically adds an amount to the balance.
+     * <p>
+     * The default implementation synchronizes on this bank, so it is only atomic towards the other default
+     * methods; implementations should override these methods with a lock-free version.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param delta the amount to add, negative to subtract
+     * @return the new balance
+     */
+    default double addAndGet(double delta) {
+        synchronized (this) {
+            double balance = getBalance() + delta;
+            setBalance(balance);
+            return balance;
+        }
+    }
+
+    /**
+     * Atomically sets the balance if it currently equals the expected balance.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param expected the balance the bank must have
+     * @param update the new balance
+     * @return true if the balance was updated
+     * @see #addAndGet(double)
+     */
+    default boolean compareAndSet(double expected, double update) {
+        synchronized (this) {
+            if (getBalance() != expected) {
+                return false;
+            }
+            setBalance(update);
+            return true;
+        }
+    }
+
+    /**
+     * Atomically withdraws an amount if the balance covers it.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param amount the amount to withdraw
+     * @return true if the amount was withdrawn, false if the balance was too low
+     * @throws IllegalArgumentException if the amount is negative
+     * @see #addAndGet(double)
+     */
+    default boolean withdrawIfAtLeast(double amount) {
+        if (!(amount >= 0)) {
+            throw new IllegalArgumentException("Amount must be a positive number: " + amount);
+        }
+        synchronized (this) {
+            double balance = getBalance();
+            if (balance < amount) {
+                return false;
+            }
+            setBalance(balance - amount);
+            return true;
+        }
+    }
 }
\ No newline at end of file
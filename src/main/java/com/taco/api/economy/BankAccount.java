@@ -3,9 +3,13 @@ package com.taco.api.economy;
 import net.milkbowl.vault.economy.EconomyResponse;
 import org.bukkit.OfflinePlayer;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * The main interface for a bank account, use this if you want bank support for your plugin.
@@ -18,20 +22,75 @@ public interface BankAccount {
 
     CompletableFuture<Bank> createBank(UUID playerId, String bankName);
 
+    /**
+     * Looks up whether the player has a bank and its balance in a single call.
+     * <p>
+     * The default implementation chains {@link #bankHasAccount(UUID)} and {@link #bankBalance(UUID)},
+     * providers should override it to answer from one backend round trip.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player to look up
+     * @return a future completing with the funds check
+     */
+    default CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        return bankHasAccount(playerId).thenCompose(hasAccount -> hasAccount
+                ? bankBalance(playerId).thenApply(FundsCheck::of)
+                : CompletableFuture.completedFuture(FundsCheck.NO_ACCOUNT));
+    }
+
+    /**
+     * Looks up whether the player has a bank and its balance in a single call.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player to look up
+     * @return a future completing with the funds check
+     * @see #checkBankFunds(UUID)
+     */
+    default CompletableFuture<FundsCheck> checkBankFunds(OfflinePlayer player) {
+        return checkBankFunds(player.getUniqueId());
+    }
+
+    /**
+     * Gets the last known bank funds of the player without touching the backend.
+     * <p>
+     * Providers that keep banks in memory should override this, the default has no cache.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player to look up
+     * @return the cached funds check, or null if nothing is cached
+     */
+    default FundsCheck getCachedBankFunds(UUID playerId) {
+        return null;
+    }
+
+    /**
+     * Checks whether the player has a bank holding at least the given amount, without blocking.
+     * <p>
+     * This answers from {@link #getCachedBankFunds(UUID)} only and never calls the backend, if nothing is cached
+     * it returns false.
+     *
+     * @param playerId the player to check
+     * @param amount the amount to check for
+     * @return true if the bank is known to afford the amount
+     */
     default boolean bankHasEnough(UUID playerId, double amount) {
-        final boolean[] isTrue = new boolean[1];
-        bankHasAccount(playerId).thenAccept(hasAccount ->
-                bankBalance(playerId).thenAccept(balance ->
-                        isTrue[0] = hasAccount && (balance >= amount)));
-        return isTrue[0];
+        FundsCheck funds = getCachedBankFunds(playerId);
+        return funds != null && funds.has(amount);
     }
 
+    /**
+     * Checks whether the player has a bank holding at least the given amount, without blocking.
+     *
+     * @param player the player to check
+     * @param amount the amount to check for
+     * @return true if the bank is known to afford the amount
+     * @see #bankHasEnough(UUID, double)
+     */
     default boolean bankHasEnough(OfflinePlayer player, double amount) {
-        final boolean[] isTrue = new boolean[1];
-        bankHasAccount(player).thenAccept(hasAccount ->
-                bankBalance(player).thenAccept(balance ->
-                        isTrue[0] = hasAccount && (balance >= amount)));
-        return isTrue[0];
+        return bankHasEnough(player.getUniqueId(), amount);
     }
 
     CompletableFuture<Boolean> bankHasAccount(UUID playerId);
@@ -51,4 +110,97 @@ public interface BankAccount {
     CompletableFuture<Double> bankBalance(OfflinePlayer playerId);
 
     Set<Bank> getBanks();
+
+    /**
+     * Looks up a bank by its unique id.
+     * <p>
+     * The default implementation scans {@link #getBanks()}, providers with many banks should override this
+     * and the other bank queries with indexed lookups.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param bankId the {@link Bank#getUniqueId()} of the bank
+     * @return a future completing with the bank, or with null if there is none
+     */
+    default CompletableFuture<Bank> getBank(UUID bankId) {
+        for (Bank bank : getBanks()) {
+            if (bank.getUniqueId().equals(bankId)) {
+                return CompletableFuture.completedFuture(bank);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Looks up a bank by its name, ignoring case.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param name the name of the bank
+     * @return a future completing with the bank, or with null if there is none
+     * @see #getBank(UUID)
+     */
+    default CompletableFuture<Bank> getBankByName(String name) {
+        for (Bank bank : getBanks()) {
+            if (bank.getName().equalsIgnoreCase(name)) {
+                return CompletableFuture.completedFuture(bank);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Gets the banks owned by a player.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param ownerId the owner
+     * @return a future completing with the banks, empty if the player owns none or owners are not tracked
+     * @see #getBank(UUID)
+     */
+    default CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        List<Bank> owned = new ArrayList<>();
+        for (Bank bank : getBanks()) {
+            if (ownerId.equals(bank.getOwnerId())) {
+                owned.add(bank);
+            }
+        }
+        return CompletableFuture.completedFuture(owned);
+    }
+
+    /**
+     * Gets a page of banks ordered by {@link Bank#getUniqueId()}.
+     * <p>
+     * Pages are keyed by the last bank of the previous page rather than by position, so banks created or
+     * removed meanwhile never make a page skip or repeat a bank.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param after the unique id of the last bank of the previous page, or null for the first page
+     * @param limit the maximum number of banks to return
+     * @return a future completing with the banks, empty once every bank was returned
+     * @see #getBank(UUID)
+     */
+    default CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        List<Bank> page = new ArrayList<>();
+        for (Bank bank : getBanks()) {
+            if (after == null || bank.getUniqueId().compareTo(after) > 0) {
+                page.add(bank);
+            }
+        }
+        page.sort(Comparator.comparing(Bank::getUniqueId));
+        return CompletableFuture.completedFuture(page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page);
+    }
+
+    /**
+     * Runs an action for every bank without copying them into a set first.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param action the action
+     * @see #getBank(UUID)
+     */
+    default void forEachBank(Consumer<? super Bank> action) {
+        getBanks().forEach(action);
+    }
 }
@@ -0,0 +1,95 @@
+package com.taco.api.economy;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects balance changes and hands them to another listener in batches, at most one event per player per flush.
+ * <p>
+ * Changes are only recorded as they arrive, which is cheap enough for any thread. Each {@link #flush()} delivers
+ * the last balance of every player that changed since the previous flush; with {@link #start(Plugin)} that happens
+ * once per tick on the main thread, so a scoreboard updates at most once per tick per player no matter how many
+ * payments it sees. When the economy has cached funds the current balance is delivered instead of the last event,
+ * so events that were published out of order cannot leave a stale balance behind.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class CoalescingBalanceListener implements BalanceListener {
+    private final Map<UUID, Double> pending = new ConcurrentHashMap<>();
+    private final Economy economy;
+    private final BalanceListener listener;
+    private BukkitTask task;
+
+    /**
+     * Creates a coalescing listener.
+     *
+     * @param economy the economy the listener is subscribed to, for {@link Economy#getCachedFunds(UUID)}
+     * @param listener the listener to deliver batches to
+     */
+    public CoalescingBalanceListener(Economy economy, BalanceListener listener) {
+        this.economy = economy;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onBalanceChange(UUID playerId, double balance) {
+        pending.put(playerId, balance);
+    }
+
+    /**
+     * Starts flushing on the main thread every tick.
+     *
+     * @param plugin the plugin owning the repeating task
+     */
+    public synchronized void start(Plugin plugin) {
+        if (task != null) {
+            throw new IllegalStateException("Listener already started");
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+    }
+
+    /**
+     * Stops flushing every tick. Changes still pending are kept until the next {@link #flush()}.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Delivers the latest balance of every player that changed since the previous flush.
+     *
+     * @return the number of events delivered
+     */
+    public int flush() {
+        int delivered = 0;
+        for (UUID playerId : pending.keySet()) {
+            // Removing returns the newest change, even if one arrived after the key was seen.
+            Double balance = pending.remove(playerId);
+            if (balance == null) {
+                continue;
+            }
+            FundsCheck funds = economy.getCachedFunds(playerId);
+            listener.onBalanceChange(playerId, funds != null && funds.hasAccount() ? funds.getBalance() : balance);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Gets the number of players with a change waiting for the next flush.
+     *
+     * @return the number of pending changes
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.taco.api.economy;
+
+/**
+ * A currency registered in a {@link CurrencyRegistry}.
+ * <p>
+ * Currencies are interned: each one exists once per registry and is identified by a small id, its index in the
+ * registry, which implementations can use to store balances in plain arrays. The currency with id 0 is the primary
+ * currency of an economy, the one used by the methods that take no currency.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class Currency {
+    private final int id;
+    private final String name;
+    private final Money money;
+
+    Currency(int id, String name, Money money) {
+        this.id = id;
+        this.name = name;
+        this.money = money;
+    }
+
+    /**
+     * Gets the id of this currency, its index in the registry.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of this currency.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the scale balances of this currency are kept at.
+     *
+     * @return the scale
+     */
+    public Money getMoney() {
+        return money;
+    }
+
+    /**
+     * Gets whether this is the primary currency of its economy.
+     *
+     * @return true if the id is 0
+     */
+    public boolean isPrimary() {
+        return id == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Currency{#" + id + ' ' + name + '}';
+    }
+}
@@ -0,0 +1,126 @@
+package com.taco.api.economy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the {@link Currency currencies} of an economy and hands out their ids in registration order,
+ * so the first currency registered is the primary one.
+ * <p>
+ * A registry has a fixed capacity so implementations can size per-account storage once. Lookups are lock-free,
+ * registering takes a lock.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class CurrencyRegistry {
+    private final int capacity;
+    private final Map<String, Currency> byName = new ConcurrentHashMap<>();
+    private volatile Currency[] currencies = new Currency[0];
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param capacity the maximum number of currencies
+     */
+    public CurrencyRegistry(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Registers a currency, or returns it if it was already registered with the same scale.
+     *
+     * @param name the name of the currency, unique ignoring case
+     * @param money the scale balances of the currency are kept at
+     * @return the currency
+     * @throws IllegalArgumentException if the name is taken by a currency with another scale
+     * @throws IllegalStateException if the registry is full
+     */
+    public synchronized Currency register(String name, Money money) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Currency existing = byName.get(key);
+        if (existing != null) {
+            if (existing.getMoney() != money) {
+                throw new IllegalArgumentException("Currency " + name + " is already registered with "
+                        + existing.getMoney().getFractionalDigits() + " fractional digits");
+            }
+            return existing;
+        }
+        Currency[] current = currencies;
+        if (current.length >= capacity) {
+            throw new IllegalStateException("Cannot register " + name + ", the registry is full (" + capacity + ")");
+        }
+
+        Currency currency = new Currency(current.length, name, money);
+        Currency[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[currency.getId()] = currency;
+        byName.put(key, currency);
+        currencies = updated;
+        return currency;
+    }
+
+    /**
+     * Gets a currency by id.
+     *
+     * @param id the id
+     * @return the currency, or null if no currency has the id
+     */
+    public Currency get(int id) {
+        Currency[] current = currencies;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * Gets a currency by name, ignoring case.
+     *
+     * @param name the name
+     * @return the currency, or null if none has the name
+     */
+    public Currency get(String name) {
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks whether a currency was registered in this registry.
+     *
+     * @param currency the currency
+     * @return true if the currency belongs to this registry
+     */
+    public boolean contains(Currency currency) {
+        return get(currency.getId()) == currency;
+    }
+
+    /**
+     * Gets every registered currency, ordered by id.
+     *
+     * @return the currencies
+     */
+    public List<Currency> getCurrencies() {
+        return Collections.unmodifiableList(Arrays.asList(currencies));
+    }
+
+    /**
+     * Gets the number of registered currencies.
+     *
+     * @return the number of currencies
+     */
+    public int size() {
+        return currencies.length;
+    }
+
+    /**
+     * Gets the maximum number of currencies.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
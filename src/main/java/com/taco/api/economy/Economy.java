@@ -1,13 +1,22 @@
 package com.taco.api.economy;
 
 import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * Main taco Economy class
+ * <p>
+ * Implementations that block, for example on SQL, should run that work on
+ * {@link com.taco.api.concurrent.TacoExecutors#get()} rather than the common fork-join pool.
  *
  * @author FlameyosFlow
  * @since 1.0.0
@@ -37,6 +46,38 @@ public interface Economy extends BankAccount {
 
     CompletableFuture<Double> getBalance(OfflinePlayer player);
 
+    /**
+     * Gets the balances of many players at once, for example to refresh a scoreboard or leaderboard.
+     * <p>
+     * The default implementation fans out to {@link #getBalance(UUID)} and completes once every lookup has,
+     * providers should override it with a single bulk query.
+     * If any lookup fails the returned future fails with it.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerIds the players to look up, duplicates appear once in the result
+     * @return a future completing with the balances
+     */
+    @SuppressWarnings("unchecked")
+    default CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        if (playerIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Balances.EMPTY);
+        }
+
+        UUID[] ids = playerIds.toArray(new UUID[0]);
+        CompletableFuture<Double>[] lookups = new CompletableFuture[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            lookups[i] = getBalance(ids[i]);
+        }
+        return CompletableFuture.allOf(lookups).thenApply(ignored -> {
+            Balances.Builder builder = Balances.builder(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                builder.put(ids[i], lookups[i].join());
+            }
+            return builder.build();
+        });
+    }
+
     CompletableFuture<EconomyResponse> send(OfflinePlayer player, double amount);
 
     CompletableFuture<EconomyResponse> send(UUID playerId, double amount);
@@ -45,20 +86,813 @@ public interface Economy extends BankAccount {
 
     CompletableFuture<EconomyResponse> take(UUID playerId, double amount);
 
+    /**
+     * Gets the scale amounts of this economy are kept at, used to convert to and from minor units.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return the scale, {@link Money#CENTS} unless the provider says otherwise
+     */
+    default Money getMoney() {
+        return Money.CENTS;
+    }
+
+    /**
+     * Formats an amount given in minor units.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param minor the amount in minor units
+     * @return the formatted amount
+     */
+    default String formatMinor(long minor) {
+        return format(getMoney().toMajor(minor));
+    }
+
+    /**
+     * Gets the balance of the player in minor units.
+     * <p>
+     * The default implementation converts {@link #getBalance(UUID)}, providers storing minor units should
+     * override it to skip the conversion.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @return a future completing with the balance in minor units
+     */
+    default CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        Money money = getMoney();
+        return getBalance(playerId).thenApply(money::toMinor);
+    }
+
+    /**
+     * Gets the balance of the player in minor units.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @return a future completing with the balance in minor units
+     */
+    default CompletableFuture<Long> getBalanceMinor(OfflinePlayer player) {
+        return getBalanceMinor(player.getUniqueId());
+    }
+
+    /**
+     * Gives the player an amount given in minor units.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param minor the amount in minor units
+     * @return a future completing with the response
+     */
+    default CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return send(playerId, getMoney().toMajor(minor));
+    }
+
+    /**
+     * Gives the player an amount given in minor units.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param minor the amount in minor units
+     * @return a future completing with the response
+     */
+    default CompletableFuture<EconomyResponse> sendMinor(OfflinePlayer player, long minor) {
+        return sendMinor(player.getUniqueId(), minor);
+    }
+
+    /**
+     * Takes an amount given in minor units from the player.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param minor the amount in minor units
+     * @return a future completing with the response
+     */
+    default CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return take(playerId, getMoney().toMajor(minor));
+    }
+
+    /**
+     * Takes an amount given in minor units from the player.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param minor the amount in minor units
+     * @return a future completing with the response
+     */
+    default CompletableFuture<EconomyResponse> takeMinor(OfflinePlayer player, long minor) {
+        return takeMinor(player.getUniqueId(), minor);
+    }
+
+    /**
+     * Moves an amount given in minor units from one player to another.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param from the player paying
+     * @param to the player being paid
+     * @param minor the amount in minor units
+     * @return a future completing with the response of the transfer
+     * @see #transfer(UUID, UUID, double)
+     */
+    default CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        return transfer(from, to, getMoney().toMajor(minor));
+    }
+
+    /**
+     * Moves money from one player to another.
+     * <p>
+     * Providers should override this to run both sides as a single transaction. The default implementation
+     * takes from the sender, then sends to the receiver, and refunds the sender if the second step fails,
+     * see {@link Transfers#takeThenSend}. The returned response describes the sender's side of the transfer.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param from the player paying
+     * @param to the player being paid
+     * @param amount the amount to move
+     * @return a future completing with the response of the transfer
+     */
+    default CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        return Transfers.takeThenSend(() -> take(from, amount), () -> send(to, amount), () -> send(from, amount), amount);
+    }
+
+    /**
+     * Moves money from one player to another.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param from the player paying
+     * @param to the player being paid
+     * @param amount the amount to move
+     * @return a future completing with the response of the transfer
+     * @see #transfer(UUID, UUID, double)
+     */
+    default CompletableFuture<EconomyResponse> transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        return transfer(from.getUniqueId(), to.getUniqueId(), amount);
+    }
+
+    /**
+     * Gives the player an amount given in minor units, reporting the outcome as primitives instead of an {@link EconomyResponse}.
+     * <p>
+     * The default implementation adapts {@link #sendMinor(UUID, long)}, providers completing writes at once should override it
+     * to call the callback without allocating. The callback runs on the thread completing the write.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param minor the amount in minor units
+     * @param callback the callback receiving the outcome
+     */
+    default void sendMinor(UUID playerId, long minor, TransactionCallback callback) {
+        Money money = getMoney();
+        sendMinor(playerId, minor).whenComplete((response, error) -> {
+            if (error != null) {
+                callback.complete(Reason.ERROR, 0);
+            } else {
+                callback.complete(response.reason, Math.max(money.toMinorAmount(response.balance), 0));
+            }
+        });
+    }
+
+    /**
+     * Takes an amount given in minor units from the player, reporting the outcome as primitives instead of an {@link EconomyResponse}.
+     * <p>
+     * The default implementation adapts {@link #takeMinor(UUID, long)}, providers completing writes at once should override it
+     * to call the callback without allocating. The callback runs on the thread completing the write.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param minor the amount in minor units
+     * @param callback the callback receiving the outcome
+     */
+    default void takeMinor(UUID playerId, long minor, TransactionCallback callback) {
+        Money money = getMoney();
+        takeMinor(playerId, minor).whenComplete((response, error) -> {
+            if (error != null) {
+                callback.complete(Reason.ERROR, 0);
+            } else {
+                callback.complete(response.reason, Math.max(money.toMinorAmount(response.balance), 0));
+            }
+        });
+    }
+
+    /**
+     * Moves an amount given in minor units from one player to another, reporting the outcome as primitives instead of an {@link EconomyResponse}.
+     * <p>
+     * The default implementation adapts {@link #transferMinor(UUID, UUID, long)}, providers completing writes at once should override it
+     * to call the callback without allocating. The callback runs on the thread completing the write.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param from the player paying
+     * @param to the player being paid
+     * @param minor the amount in minor units
+     * @param callback the callback receiving the outcome of the sender's side
+     */
+    default void transferMinor(UUID from, UUID to, long minor, TransactionCallback callback) {
+        Money money = getMoney();
+        transferMinor(from, to, minor).whenComplete((response, error) -> {
+            if (error != null) {
+                callback.complete(Reason.ERROR, 0);
+            } else {
+                callback.complete(response.reason, Math.max(money.toMinorAmount(response.balance), 0));
+            }
+        });
+    }
+
+    /**
+     * Gets whether writes carrying a transaction id are deduplicated, so they can be retried safely.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return true if the transaction id overloads are supported
+     * @see com.taco.api.economy.idempotent.IdempotentEconomy
+     */
+    default boolean implementationSupportsIdempotency() {
+        return false;
+    }
+
+    /**
+     * Gives the player an amount at most once per transaction id.
+     * <p>
+     * Retrying with the same transaction id, for example after a timeout, returns the response of the first write
+     * instead of giving the amount again, as long as the economy still remembers it.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param amount the amount to give
+     * @param transactionId the id of the write, chosen by the caller and reused for every retry
+     * @return a future completing with the response, failing with {@link UnsupportedOperationException}
+     * if {@link #implementationSupportsIdempotency()} is false
+     */
+    default CompletableFuture<EconomyResponse> send(UUID playerId, double amount, UUID transactionId) {
+        return Futures.unsupported(getName() + " does not support transaction ids");
+    }
+
+    /**
+     * Takes an amount from the player at most once per transaction id.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param amount the amount to take
+     * @param transactionId the id of the write, chosen by the caller and reused for every retry
+     * @return a future completing with the response, failing with {@link UnsupportedOperationException}
+     * if {@link #implementationSupportsIdempotency()} is false
+     * @see #send(UUID, double, UUID)
+     */
+    default CompletableFuture<EconomyResponse> take(UUID playerId, double amount, UUID transactionId) {
+        return Futures.unsupported(getName() + " does not support transaction ids");
+    }
+
+    /**
+     * Moves money from one player to another at most once per transaction id.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param from the player paying
+     * @param to the player being paid
+     * @param amount the amount to move
+     * @param transactionId the id of the write, chosen by the caller and reused for every retry
+     * @return a future completing with the response of the transfer, failing with
+     * {@link UnsupportedOperationException} if {@link #implementationSupportsIdempotency()} is false
+     * @see #send(UUID, double, UUID)
+     */
+    default CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount, UUID transactionId) {
+        return Futures.unsupported(getName() + " does not support transaction ids");
+    }
+
+    /**
+     * Looks up whether the account exists and its balance in a single call.
+     * <p>
+     * The default implementation chains {@link #hasAccount(UUID)} and {@link #getBalance(UUID)},
+     * providers should override it to answer from one backend round trip.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player to look up
+     * @return a future completing with the funds check
+     */
+    default CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return hasAccount(playerId).thenCompose(hasAccount -> hasAccount
+                ? getBalance(playerId).thenApply(FundsCheck::of)
+                : CompletableFuture.completedFuture(FundsCheck.NO_ACCOUNT));
+    }
+
+    /**
+     * Looks up whether the account exists and its balance in a single call.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player to look up
+     * @return a future completing with the funds check
+     * @see #checkFunds(UUID)
+     */
+    default CompletableFuture<FundsCheck> checkFunds(OfflinePlayer player) {
+        return checkFunds(player.getUniqueId());
+    }
+
+    /**
+     * Gets the last known funds of the player without touching the backend.
+     * <p>
+     * Providers that keep balances in memory should override this, the default has no cache.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player to look up
+     * @return the cached funds check, or null if nothing is cached
+     */
+    default FundsCheck getCachedFunds(UUID playerId) {
+        return null;
+    }
+
+    /**
+     * Checks asynchronously whether the player has an account holding at least the given amount.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player to check
+     * @param amount the amount to check for
+     * @return a future completing with true if the player can afford the amount
+     */
+    default CompletableFuture<Boolean> hasEnoughAsync(UUID playerId, double amount) {
+        return checkFunds(playerId).thenApply(funds -> funds.has(amount));
+    }
+
+    /**
+     * Checks asynchronously whether the player has an account holding at least the given amount.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player to check
+     * @param amount the amount to check for
+     * @return a future completing with true if the player can afford the amount
+     */
+    default CompletableFuture<Boolean> hasEnoughAsync(OfflinePlayer player, double amount) {
+        return hasEnoughAsync(player.getUniqueId(), amount);
+    }
+
+    /**
+     * Checks whether the player has an account holding at least the given amount, without blocking.
+     * <p>
+     * This answers from {@link #getCachedFunds(UUID)} only and never calls the backend. If nothing is cached it
+     * returns false, so main-thread callers of a remote backend should use a {@link FundsCache} or
+     * {@link #hasEnoughAsync(UUID, double)} instead.
+     *
+     * @param playerId the player to check
+     * @param amount the amount to check for
+     * @return true if the player is known to afford the amount
+     */
     default boolean hasEnough(UUID playerId, double amount) {
-        final boolean[] isTrue = new boolean[1];
-        hasAccount(playerId).thenAccept(hasAccount ->
-                getBalance(playerId).thenAccept(balance ->
-                        isTrue[0] = hasAccount && (balance >= amount)));
-        return isTrue[0];
+        FundsCheck funds = getCachedFunds(playerId);
+        return funds != null && funds.has(amount);
     }
 
+    /**
+     * Checks whether the player has an account holding at least the given amount, without blocking.
+     *
+     * @param player the player to check
+     * @param amount the amount to check for
+     * @return true if the player is known to afford the amount
+     * @see #hasEnough(UUID, double)
+     */
     default boolean hasEnough(OfflinePlayer player, double amount) {
-        final boolean[] isTrue = new boolean[1];
-        hasAccount(player).thenAccept(hasAccount ->
-                getBalance(player).thenAccept(balance ->
-                        isTrue[0] = hasAccount && (balance >= amount)));
-        return isTrue[0];
+        return hasEnough(player.getUniqueId(), amount);
+    }
+
+    /**
+     * Gets whether this economy keeps balances in several {@link Currency currencies}.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return true if the currency overloads are supported
+     */
+    default boolean implementationSupportsCurrencies() {
+        return false;
+    }
+
+    /**
+     * Gets every currency of this economy, ordered by id. The first one is the primary currency,
+     * used by the methods that take no currency.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return the currencies, empty if {@link #implementationSupportsCurrencies()} is false
+     */
+    default List<Currency> getCurrencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets a currency of this economy by name, ignoring case.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param name the name of the currency
+     * @return the currency, or null if there is none
+     */
+    default Currency getCurrency(String name) {
+        return null;
+    }
+
+    /**
+     * Formats an amount of a currency.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param amount the amount
+     * @param currency the currency
+     * @return the formatted amount, by default the same as {@link #format(double)}
+     */
+    default String format(double amount, Currency currency) {
+        return format(amount);
+    }
+
+    /**
+     * Gets the balance of the player in a currency.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param currency the currency
+     * @return a future completing with the balance, failing with {@link UnsupportedOperationException}
+     * if {@link #implementationSupportsCurrencies()} is false
+     */
+    default CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        return Futures.unsupported(getName() + " does not support currencies");
+    }
+
+    /**
+     * Gets the balance of the player in a currency.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param currency the currency
+     * @return a future completing with the balance
+     * @see #getBalance(UUID, Currency)
+     */
+    default CompletableFuture<Double> getBalance(OfflinePlayer player, Currency currency) {
+        return getBalance(player.getUniqueId(), currency);
+    }
+
+    /**
+     * Gets the balances of the player in every currency with a single lookup.
+     * <p>
+     * The default implementation calls {@link #getBalance(UUID, Currency)} once per currency,
+     * providers storing currencies together should override it.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @return a future completing with the balances indexed by {@link Currency#getId()}
+     */
+    default CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        List<Currency> currencies = getCurrencies();
+        double[] balances = new double[currencies.size()];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] lookups = new CompletableFuture[currencies.size()];
+        for (int i = 0; i < lookups.length; i++) {
+            Currency currency = currencies.get(i);
+            lookups[i] = getBalance(playerId, currency).thenAccept(balance -> balances[currency.getId()] = balance);
+        }
+        return CompletableFuture.allOf(lookups).thenApply(ignored -> balances);
+    }
+
+    /**
+     * Gives the player an amount of a currency.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param currency the currency
+     * @param amount the amount to give
+     * @return a future completing with the response, failing with {@link UnsupportedOperationException}
+     * if {@link #implementationSupportsCurrencies()} is false
+     */
+    default CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return Futures.unsupported(getName() + " does not support currencies");
+    }
+
+    /**
+     * Gives the player an amount of a currency.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param currency the currency
+     * @param amount the amount to give
+     * @return a future completing with the response
+     * @see #send(UUID, Currency, double)
+     */
+    default CompletableFuture<EconomyResponse> send(OfflinePlayer player, Currency currency, double amount) {
+        return send(player.getUniqueId(), currency, amount);
+    }
+
+    /**
+     * Takes an amount of a currency from the player.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param currency the currency
+     * @param amount the amount to take
+     * @return a future completing with the response, failing with {@link UnsupportedOperationException}
+     * if {@link #implementationSupportsCurrencies()} is false
+     */
+    default CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return Futures.unsupported(getName() + " does not support currencies");
+    }
+
+    /**
+     * Takes an amount of a currency from the player.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param currency the currency
+     * @param amount the amount to take
+     * @return a future completing with the response
+     * @see #take(UUID, Currency, double)
+     */
+    default CompletableFuture<EconomyResponse> take(OfflinePlayer player, Currency currency, double amount) {
+        return take(player.getUniqueId(), currency, amount);
+    }
+
+    /**
+     * Gets whether this economy keeps a separate balance per {@link World}.
+     * <p>
+     * Economies that do not keep per-world balances ignore the world in the world overloads, which then act on
+     * the global balance, like Vault does.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return true if balances are kept per world
+     */
+    default boolean implementationSupportsWorlds() {
+        return false;
+    }
+
+    /**
+     * Gets the balance of the player in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param world the world
+     * @return a future completing with the balance, the global balance if
+     * {@link #implementationSupportsWorlds()} is false
+     */
+    default CompletableFuture<Double> getBalance(UUID playerId, World world) {
+        return getBalance(playerId);
+    }
+
+    /**
+     * Gets the balance of the player in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param world the world
+     * @return a future completing with the balance
+     * @see #getBalance(UUID, World)
+     */
+    default CompletableFuture<Double> getBalance(OfflinePlayer player, World world) {
+        return getBalance(player.getUniqueId(), world);
+    }
+
+    /**
+     * Gives the player an amount in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param world the world
+     * @param amount the amount to give
+     * @return a future completing with the response, acting on the global balance if
+     * {@link #implementationSupportsWorlds()} is false
+     */
+    default CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        return send(playerId, amount);
+    }
+
+    /**
+     * Gives the player an amount in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param world the world
+     * @param amount the amount to give
+     * @return a future completing with the response
+     * @see #send(UUID, World, double)
+     */
+    default CompletableFuture<EconomyResponse> send(OfflinePlayer player, World world, double amount) {
+        return send(player.getUniqueId(), world, amount);
+    }
+
+    /**
+     * Takes an amount from the player in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param world the world
+     * @param amount the amount to take
+     * @return a future completing with the response, acting on the global balance if
+     * {@link #implementationSupportsWorlds()} is false
+     */
+    default CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        return take(playerId, amount);
+    }
+
+    /**
+     * Takes an amount from the player in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param world the world
+     * @param amount the amount to take
+     * @return a future completing with the response
+     * @see #take(UUID, World, double)
+     */
+    default CompletableFuture<EconomyResponse> take(OfflinePlayer player, World world, double amount) {
+        return take(player.getUniqueId(), world, amount);
+    }
+
+    /**
+     * Checks whether the player has an account in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param world the world
+     * @return a future completing with true if the account exists, checking the global account if
+     * {@link #implementationSupportsWorlds()} is false
+     */
+    default CompletableFuture<Boolean> hasAccount(UUID playerId, World world) {
+        return hasAccount(playerId);
+    }
+
+    /**
+     * Checks whether the player has an account in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param world the world
+     * @return a future completing with true if the account exists
+     * @see #hasAccount(UUID, World)
+     */
+    default CompletableFuture<Boolean> hasAccount(OfflinePlayer player, World world) {
+        return hasAccount(player.getUniqueId(), world);
+    }
+
+    /**
+     * Creates an account for the player in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @param world the world
+     * @return a future completing with true if the account was created, creating the global account if
+     * {@link #implementationSupportsWorlds()} is false
+     */
+    default CompletableFuture<Boolean> createAccount(UUID playerId, World world) {
+        return createAccount(playerId);
+    }
+
+    /**
+     * Creates an account for the player in a world.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param player the player
+     * @param world the world
+     * @return a future completing with true if the account was created
+     * @see #createAccount(UUID, World)
+     */
+    default CompletableFuture<Boolean> createAccount(OfflinePlayer player, World world) {
+        return createAccount(player.getUniqueId(), world);
+    }
+
+    /**
+     * Gets whether this economy can notify listeners of balance changes through {@link #subscribe(BalanceListener)}.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return true if balance events are supported
+     */
+    default boolean implementationSupportsEvents() {
+        return false;
+    }
+
+    /**
+     * Registers a listener called after every balance change, instead of polling {@link #getBalance(UUID)}.
+     * <p>
+     * The listener is called on the thread that changed the balance; wrap it in a {@link CoalescingBalanceListener}
+     * to receive at most one event per player per tick on the main thread.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param listener the listener
+     * @return the subscription, to unregister the listener
+     * @throws UnsupportedOperationException if {@link #implementationSupportsEvents()} is false,
+     * wrap the economy in an {@link ObservableEconomy} instead
+     */
+    default BalanceSubscription subscribe(BalanceListener listener) {
+        throw new UnsupportedOperationException(getName() + " does not support balance events");
+    }
+
+    /**
+     * Gets whether this economy can answer {@link #getTopBalances(int, int)} and {@link #getRank(UUID)}.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return true if ranking is supported
+     */
+    default boolean implementationSupportsRanking() {
+        return false;
+    }
+
+    /**
+     * Gets a page of the balance leaderboard, richest first.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param count the maximum number of entries to return
+     * @param offset the number of entries to skip, 0 for the first page
+     * @return a future completing with the entries, failing with {@link UnsupportedOperationException}
+     * if {@link #implementationSupportsRanking()} is false
+     */
+    default CompletableFuture<List<BalanceEntry>> getTopBalances(int count, int offset) {
+        return Futures.unsupported(getName() + " does not support ranking");
+    }
+
+    /**
+     * Gets the rank of the player on the balance leaderboard.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param playerId the player
+     * @return a future completing with the rank, 1 being the richest, or 0 if the player has no account;
+     * failing with {@link UnsupportedOperationException} if {@link #implementationSupportsRanking()} is false
+     */
+    default CompletableFuture<Integer> getRank(UUID playerId) {
+        return Futures.unsupported(getName() + " does not support ranking");
+    }
+
+    /**
+     * Gets whether this economy can update many balances at once through {@link #applyToAll(BalanceFunction)}.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @return true if bulk operations are supported
+     */
+    default boolean implementationSupportsBulkOperations() {
+        return false;
+    }
+
+    /**
+     * Applies a function to the global balance of every account in one operation, for example to pay interest.
+     * <p>
+     * Providers should run this as a single set-based update where they can, at least for a
+     * {@link LinearBalanceFunction}. Accounts are updated atomically one by one, not all together, so other
+     * writes may interleave with the operation. The default implementation calls
+     * {@link #applyToAccounts(Predicate, BalanceFunction)} with a filter accepting every account.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param function computes the new balance of each account
+     * @return a future completing with the number of balances that changed
+     */
+    default CompletableFuture<Integer> applyToAll(BalanceFunction function) {
+        return applyToAccounts(playerId -> true, function);
+    }
+
+    /**
+     * Applies a function to the global balance of every account the filter accepts. Unlike the function, the
+     * filter may read balances from this economy, but accounts created while the operation runs may be skipped.
+     *
+     * @author FlameyosFlow
+     * @since 1.2.0
+     * @param filter selects the accounts to update, it must be thread-safe
+     * @param function computes the new balance of each account
+     * @return a future completing with the number of balances that changed, failing with
+     * {@link UnsupportedOperationException} if {@link #implementationSupportsBulkOperations()} is false
+     * @see #applyToAll(BalanceFunction)
+     */
+    default CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        return Futures.unsupported(getName() + " does not support bulk operations");
     }
 
     CompletableFuture<Boolean> hasAccount(UUID playerId);
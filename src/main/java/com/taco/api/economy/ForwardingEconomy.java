@@ -0,0 +1,399 @@
+package com.taco.api.economy;
+
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An {@link Economy} that forwards every call to another economy, the base for economy decorators.
+ * <p>
+ * The {@link UUID} methods forward to the delegate, while the {@link OfflinePlayer} overloads call the
+ * {@link UUID} method of this economy, so a decorator only has to override the {@link UUID} methods it changes.
+ * The {@link World} overloads forward to the delegate only if it keeps per-world balances, otherwise they call the
+ * global method of this economy, so a decorator of the global balance sees every write. The
+ * {@link TransactionCallback} overloads are not forwarded at all for the same reason: they adapt the future methods
+ * of this economy. Neither are the transaction id writes, which would otherwise skip the decorator; wrap an
+ * {@link com.taco.api.economy.idempotent.IdempotentEconomy} around the outermost decorator instead.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public abstract class ForwardingEconomy implements Economy {
+    protected final Economy delegate;
+
+    protected ForwardingEconomy(Economy delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the economy calls are forwarded to.
+     *
+     * @return the delegate
+     */
+    public Economy getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String format(double amount) {
+        return delegate.format(amount);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public Money getMoney() {
+        return delegate.getMoney();
+    }
+
+    @Override
+    public String formatMinor(long minor) {
+        return delegate.formatMinor(minor);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        return delegate.getBalance(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player) {
+        return getBalance(player.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        return delegate.getBalances(playerIds);
+    }
+
+    @Override
+    public CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        return delegate.getBalanceMinor(playerId);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, double amount) {
+        return send(player.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        return delegate.send(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return delegate.sendMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, double amount) {
+        return take(player.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        return delegate.take(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return delegate.takeMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        return delegate.transfer(from, to, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        return delegate.transferMinor(from, to, minor);
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return delegate.checkFunds(playerId);
+    }
+
+    @Override
+    public FundsCheck getCachedFunds(UUID playerId) {
+        return delegate.getCachedFunds(playerId);
+    }
+
+    @Override
+    public boolean implementationSupportsCurrencies() {
+        return delegate.implementationSupportsCurrencies();
+    }
+
+    @Override
+    public List<Currency> getCurrencies() {
+        return delegate.getCurrencies();
+    }
+
+    @Override
+    public Currency getCurrency(String name) {
+        return delegate.getCurrency(name);
+    }
+
+    @Override
+    public String format(double amount, Currency currency) {
+        return delegate.format(amount, currency);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        return delegate.getBalance(playerId, currency);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player, Currency currency) {
+        return getBalance(player.getUniqueId(), currency);
+    }
+
+    @Override
+    public CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        return delegate.getBalancesByCurrency(playerId);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return delegate.send(playerId, currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, Currency currency, double amount) {
+        return send(player.getUniqueId(), currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return delegate.take(playerId, currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, Currency currency, double amount) {
+        return take(player.getUniqueId(), currency, amount);
+    }
+
+    @Override
+    public boolean implementationSupportsWorlds() {
+        return delegate.implementationSupportsWorlds();
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, World world) {
+        return delegate.implementationSupportsWorlds() ? delegate.getBalance(playerId, world) : getBalance(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player, World world) {
+        return getBalance(player.getUniqueId(), world);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        return delegate.implementationSupportsWorlds() ? delegate.send(playerId, world, amount) : send(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, World world, double amount) {
+        return send(player.getUniqueId(), world, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        return delegate.implementationSupportsWorlds() ? delegate.take(playerId, world, amount) : take(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, World world, double amount) {
+        return take(player.getUniqueId(), world, amount);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId, World world) {
+        return delegate.implementationSupportsWorlds() ? delegate.hasAccount(playerId, world) : hasAccount(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player, World world) {
+        return hasAccount(player.getUniqueId(), world);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId, World world) {
+        return delegate.implementationSupportsWorlds() ? delegate.createAccount(playerId, world) : createAccount(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(OfflinePlayer player, World world) {
+        return createAccount(player.getUniqueId(), world);
+    }
+
+    @Override
+    public boolean implementationSupportsEvents() {
+        return delegate.implementationSupportsEvents();
+    }
+
+    @Override
+    public BalanceSubscription subscribe(BalanceListener listener) {
+        return delegate.subscribe(listener);
+    }
+
+    @Override
+    public boolean implementationSupportsRanking() {
+        return delegate.implementationSupportsRanking();
+    }
+
+    @Override
+    public CompletableFuture<List<BalanceEntry>> getTopBalances(int count, int offset) {
+        return delegate.getTopBalances(count, offset);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        return delegate.getRank(playerId);
+    }
+
+    @Override
+    public boolean implementationSupportsBulkOperations() {
+        return delegate.implementationSupportsBulkOperations();
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAll(BalanceFunction function) {
+        return delegate.applyToAll(function);
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        return delegate.applyToAccounts(filter, function);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return delegate.hasAccount(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player) {
+        return hasAccount(player.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        return delegate.createAccount(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(OfflinePlayer playerId) {
+        return createAccount(playerId.getUniqueId());
+    }
+
+    @Override
+    public boolean implementationSupportsBanks() {
+        return delegate.implementationSupportsBanks();
+    }
+
+    @Override
+    public CompletableFuture<Bank> createBank(UUID playerId, String bankName) {
+        return delegate.createBank(playerId, bankName);
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        return delegate.checkBankFunds(playerId);
+    }
+
+    @Override
+    public FundsCheck getCachedBankFunds(UUID playerId) {
+        return delegate.getCachedBankFunds(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(UUID playerId) {
+        return delegate.bankHasAccount(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(OfflinePlayer playerId) {
+        return bankHasAccount(playerId.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        return delegate.bankWire(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(OfflinePlayer playerId, double amount) {
+        return bankWire(playerId.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        return delegate.bankWithdraw(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(OfflinePlayer playerId, double amount) {
+        return bankWithdraw(playerId.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(UUID playerId) {
+        return delegate.bankBalance(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(OfflinePlayer playerId) {
+        return bankBalance(playerId.getUniqueId());
+    }
+
+    @Override
+    public Set<Bank> getBanks() {
+        return delegate.getBanks();
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBank(UUID bankId) {
+        return delegate.getBank(bankId);
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBankByName(String name) {
+        return delegate.getBankByName(name);
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        return delegate.getBanksOwnedBy(ownerId);
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        return delegate.getBanks(after, limit);
+    }
+
+    @Override
+    public void forEachBank(Consumer<? super Bank> action) {
+        delegate.forEachBank(action);
+    }
+}
@@ -0,0 +1,163 @@
+package com.taco.api.economy;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A non-blocking cache of {@link FundsCheck}s for main-thread callers such as shop GUIs.
+ * <p>
+ * Lookups never wait on the backend: they answer from the cache and, when the entry is missing or older than
+ * the refresh interval, start a single {@link Economy#checkFunds(UUID)} in the background. Entries nobody has read
+ * for the idle expiry are dropped by a sweep that lookups run at most once per expiry interval. A refresh that
+ * completes after a {@link #put(UUID, FundsCheck)} is discarded, as the value put is newer.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class FundsCache {
+    private final Economy economy;
+    private final long refreshNanos;
+    private final long expireNanos;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Creates a funds cache dropping entries not read for five minutes.
+     *
+     * @param economy the economy to load funds from
+     * @param refreshAfter how long an entry is served before it is refreshed
+     * @param unit the unit of refreshAfter
+     */
+    public FundsCache(Economy economy, long refreshAfter, TimeUnit unit) {
+        this(economy, unit.toNanos(refreshAfter), TimeUnit.MINUTES.toNanos(5), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a funds cache.
+     *
+     * @param economy the economy to load funds from
+     * @param refreshAfter how long an entry is served before it is refreshed
+     * @param expireAfterIdle how long an entry is kept without being read
+     * @param unit the unit of refreshAfter and expireAfterIdle
+     */
+    public FundsCache(Economy economy, long refreshAfter, long expireAfterIdle, TimeUnit unit) {
+        this.economy = economy;
+        this.refreshNanos = unit.toNanos(refreshAfter);
+        this.expireNanos = unit.toNanos(expireAfterIdle);
+    }
+
+    /**
+     * Gets the cached funds of the player, starting a refresh if the entry is missing or stale.
+     *
+     * @param playerId the player to look up
+     * @return the cached funds, or null if the player has not been loaded yet
+     */
+    public FundsCheck get(UUID playerId) {
+        FundsCheck provided = economy.getCachedFunds(playerId);
+        if (provided != null) {
+            return provided;
+        }
+
+        long now = System.nanoTime();
+        sweep(now);
+        Entry entry = entries.computeIfAbsent(playerId, id -> new Entry());
+        entry.readAt = now;
+        if (!entry.loading && (entry.funds == null || now - entry.loadedAt >= refreshNanos)) {
+            refresh(playerId, entry);
+        }
+        return entry.funds;
+    }
+
+    /**
+     * Checks whether the player is known to have an account holding at least the given amount.
+     *
+     * @param playerId the player to check
+     * @param amount the amount to check for
+     * @return true if the cached funds cover the amount, false if they do not or are not loaded yet
+     */
+    public boolean hasEnough(UUID playerId, double amount) {
+        FundsCheck funds = get(playerId);
+        return funds != null && funds.has(amount);
+    }
+
+    /**
+     * Replaces the cached funds of the player, for example after a transaction completed.
+     *
+     * @param playerId the player to update
+     * @param funds the new funds
+     */
+    public void put(UUID playerId, FundsCheck funds) {
+        Entry entry = entries.computeIfAbsent(playerId, id -> new Entry());
+        synchronized (entry) {
+            entry.funds = funds;
+            entry.loadedAt = System.nanoTime();
+            entry.readAt = entry.loadedAt;
+            entry.version++;
+        }
+    }
+
+    /**
+     * Drops the cached funds of the player, for example when they leave the server.
+     *
+     * @param playerId the player to drop
+     */
+    public void invalidate(UUID playerId) {
+        entries.remove(playerId);
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private void refresh(UUID playerId, Entry entry) {
+        long version;
+        synchronized (entry) {
+            if (entry.loading) {
+                return;
+            }
+            entry.loading = true;
+            version = entry.version;
+        }
+        try {
+            economy.checkFunds(playerId).whenComplete((funds, error) -> {
+                synchronized (entry) {
+                    // a put since the load started is newer than what the load read
+                    if (error == null && entry.version == version) {
+                        entry.funds = funds;
+                        entry.loadedAt = System.nanoTime();
+                    }
+                    entry.loading = false;
+                }
+            });
+        } catch (RuntimeException e) {
+            // the economy threw instead of failing the future, let the next lookup try again
+            entry.loading = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the entries not read for the idle expiry, at most once per expiry interval.
+     */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < expireNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        entries.values().removeIf(entry -> !entry.loading && now - entry.readAt >= expireNanos);
+    }
+
+    private static final class Entry {
+        volatile FundsCheck funds;
+        volatile long loadedAt;
+        volatile long readAt;
+        volatile boolean loading;
+        long version;
+    }
+}
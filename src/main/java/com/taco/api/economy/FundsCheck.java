@@ -0,0 +1,68 @@
+package com.taco.api.economy;
+
+/**
+ * The result of a single funds lookup: whether the account exists and, if it does, its balance.
+ * <p>
+ * Providers should answer this from one backend round trip, instead of a separate
+ * {@code hasAccount} and {@code getBalance} call.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class FundsCheck {
+    /**
+     * Shared result for accounts that do not exist.
+     */
+    public static final FundsCheck NO_ACCOUNT = new FundsCheck(false, 0);
+
+    private final boolean hasAccount;
+    private final double balance;
+
+    private FundsCheck(boolean hasAccount, double balance) {
+        this.hasAccount = hasAccount;
+        this.balance = balance;
+    }
+
+    /**
+     * Creates the result for an existing account.
+     *
+     * @param balance the current balance of the account
+     * @return the funds check
+     */
+    public static FundsCheck of(double balance) {
+        return new FundsCheck(true, balance);
+    }
+
+    /**
+     * Gets whether the account exists.
+     *
+     * @return true if the account exists
+     */
+    public boolean hasAccount() {
+        return hasAccount;
+    }
+
+    /**
+     * Gets the balance of the account, 0 if the account does not exist.
+     *
+     * @return the balance
+     */
+    public double getBalance() {
+        return balance;
+    }
+
+    /**
+     * Checks whether the account exists and holds at least the given amount.
+     *
+     * @param amount the amount to check for
+     * @return true if the account can afford the amount
+     */
+    public boolean has(double amount) {
+        return hasAccount && balance >= amount;
+    }
+
+    @Override
+    public String toString() {
+        return hasAccount ? "FundsCheck{balance=" + balance + '}' : "FundsCheck{no account}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.taco.api.economy;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Already failed futures, for economies that reject a call without running it.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class Futures {
+    private Futures() {
+    }
+
+    /**
+     * Creates a future failed with the given exception.
+     *
+     * @param cause the exception
+     * @return the failed future
+     */
+    public static <T> CompletableFuture<T> failed(Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    /**
+     * Creates a future failed with an {@link UnsupportedOperationException}.
+     *
+     * @param message the exception message, for example {@code "Vault does not support currencies"}
+     * @return the failed future
+     */
+    public static <T> CompletableFuture<T> unsupported(String message) {
+        return failed(new UnsupportedOperationException(message));
+    }
+}
@@ -0,0 +1,99 @@
+package com.taco.api.economy;
+
+import java.util.UUID;
+
+/**
+ * A {@link BalanceFunction} multiplying every balance by a factor and then adding an offset, never going below 0.
+ * <p>
+ * It covers interest, taxes, flat grants and resets, and is simple enough for backends to push down as one
+ * set-based update, for example {@code UPDATE accounts SET balance = GREATEST(0, ROUND(balance * ?) + ?)}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class LinearBalanceFunction implements BalanceFunction {
+    private final double factor;
+    private final long offset;
+
+    private LinearBalanceFunction(double factor, long offset) {
+        if (!(factor >= 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Factor must be a finite, non-negative number: " + factor);
+        }
+        this.factor = factor;
+        this.offset = offset;
+    }
+
+    /**
+     * Creates a function computing {@code round(balance * factor) + offset}.
+     *
+     * @param factor the factor, finite and not negative
+     * @param offset the offset in minor units
+     * @return the function
+     */
+    public static LinearBalanceFunction of(double factor, long offset) {
+        return new LinearBalanceFunction(factor, offset);
+    }
+
+    /**
+     * Creates a function multiplying every balance, for example by 1.01 to pay 1% interest or by 0.98 for a 2% tax.
+     *
+     * @param factor the factor, finite and not negative
+     * @return the function
+     */
+    public static LinearBalanceFunction multiply(double factor) {
+        return new LinearBalanceFunction(factor, 0);
+    }
+
+    /**
+     * Creates a function adding to, or with a negative amount taking from, every balance.
+     *
+     * @param minor the amount in minor units
+     * @return the function
+     */
+    public static LinearBalanceFunction add(long minor) {
+        return new LinearBalanceFunction(1, minor);
+    }
+
+    /**
+     * Creates a function setting every balance, for example to reset an economy.
+     *
+     * @param minor the new balance in minor units
+     * @return the function
+     */
+    public static LinearBalanceFunction set(long minor) {
+        return new LinearBalanceFunction(0, minor);
+    }
+
+    /**
+     * Gets the factor balances are multiplied by.
+     *
+     * @return the factor
+     */
+    public double getFactor() {
+        return factor;
+    }
+
+    /**
+     * Gets the offset added after multiplying.
+     *
+     * @return the offset in minor units
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public long apply(UUID playerId, long balance) {
+        long scaled = factor == 1 ? balance : Math.round(balance * factor);
+        long updated = scaled + offset;
+        if (((scaled ^ updated) & (offset ^ updated)) < 0) {
+            return offset > 0 ? Long.MAX_VALUE : 0;
+        }
+        return Math.max(updated, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "LinearBalanceFunction{balance * " + factor + " + " + offset + '}';
+    }
+}
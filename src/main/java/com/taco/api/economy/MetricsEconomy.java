@@ -0,0 +1,572 @@
+package com.taco.api.economy;
+
+import com.taco.api.metrics.CallMetrics;
+import com.taco.api.metrics.MetricsRegistry;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Records the call count, error count and latency of every storage call of any {@link Economy}.
+ * <p>
+ * A future is timed until it completes, so the latency includes any time spent waiting for a database. Each
+ * method is recorded once under its own name, with overloads in a currency or world recorded apart; the
+ * {@link org.bukkit.OfflinePlayer} overloads are recorded as the {@link UUID} method they call. Read the numbers
+ * through {@link #getMetrics()}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class MetricsEconomy extends ForwardingEconomy {
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final CallMetrics getBalance = metrics.get("getBalance");
+    private final CallMetrics getBalances = metrics.get("getBalances");
+    private final CallMetrics getBalanceMinor = metrics.get("getBalanceMinor");
+    private final CallMetrics send = metrics.get("send");
+    private final CallMetrics sendMinor = metrics.get("sendMinor");
+    private final CallMetrics take = metrics.get("take");
+    private final CallMetrics takeMinor = metrics.get("takeMinor");
+    private final CallMetrics transfer = metrics.get("transfer");
+    private final CallMetrics transferMinor = metrics.get("transferMinor");
+    private final CallMetrics checkFunds = metrics.get("checkFunds");
+    private final CallMetrics getCachedFunds = metrics.get("getCachedFunds");
+    private final CallMetrics getBalanceInCurrency = metrics.get("getBalance(currency)");
+    private final CallMetrics getBalancesByCurrency = metrics.get("getBalancesByCurrency");
+    private final CallMetrics sendInCurrency = metrics.get("send(currency)");
+    private final CallMetrics takeInCurrency = metrics.get("take(currency)");
+    private final CallMetrics getBalanceInWorld = metrics.get("getBalance(world)");
+    private final CallMetrics sendInWorld = metrics.get("send(world)");
+    private final CallMetrics takeInWorld = metrics.get("take(world)");
+    private final CallMetrics hasAccountInWorld = metrics.get("hasAccount(world)");
+    private final CallMetrics createAccountInWorld = metrics.get("createAccount(world)");
+    private final CallMetrics getTopBalances = metrics.get("getTopBalances");
+    private final CallMetrics getRank = metrics.get("getRank");
+    private final CallMetrics applyToAll = metrics.get("applyToAll");
+    private final CallMetrics applyToAccounts = metrics.get("applyToAccounts");
+    private final CallMetrics hasAccount = metrics.get("hasAccount");
+    private final CallMetrics createAccount = metrics.get("createAccount");
+    private final CallMetrics createBank = metrics.get("createBank");
+    private final CallMetrics checkBankFunds = metrics.get("checkBankFunds");
+    private final CallMetrics getCachedBankFunds = metrics.get("getCachedBankFunds");
+    private final CallMetrics bankHasAccount = metrics.get("bankHasAccount");
+    private final CallMetrics bankWire = metrics.get("bankWire");
+    private final CallMetrics bankWithdraw = metrics.get("bankWithdraw");
+    private final CallMetrics bankBalance = metrics.get("bankBalance");
+    private final CallMetrics getBanks = metrics.get("getBanks");
+    private final CallMetrics getBank = metrics.get("getBank");
+    private final CallMetrics getBankByName = metrics.get("getBankByName");
+    private final CallMetrics getBanksOwnedBy = metrics.get("getBanksOwnedBy");
+    private final CallMetrics getBanksPage = metrics.get("getBanks(page)");
+    private final CallMetrics forEachBank = metrics.get("forEachBank");
+
+    /**
+     * Creates an economy recording the calls to another.
+     *
+     * @param delegate the economy to record calls to
+     */
+    public MetricsEconomy(Economy delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Gets the recorded metrics.
+     *
+     * @return the metrics, one entry per method
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Double> result = null;
+        try {
+            result = delegate.getBalance(playerId);
+            return result;
+        } finally {
+            getBalance.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        long start = System.nanoTime();
+        CompletableFuture<Balances> result = null;
+        try {
+            result = delegate.getBalances(playerIds);
+            return result;
+        } finally {
+            getBalances.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Long> result = null;
+        try {
+            result = delegate.getBalanceMinor(playerId);
+            return result;
+        } finally {
+            getBalanceMinor.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.send(playerId, amount);
+            return result;
+        } finally {
+            send.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.sendMinor(playerId, minor);
+            return result;
+        } finally {
+            sendMinor.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.take(playerId, amount);
+            return result;
+        } finally {
+            take.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.takeMinor(playerId, minor);
+            return result;
+        } finally {
+            takeMinor.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.transfer(from, to, amount);
+            return result;
+        } finally {
+            transfer.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.transferMinor(from, to, minor);
+            return result;
+        } finally {
+            transferMinor.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<FundsCheck> result = null;
+        try {
+            result = delegate.checkFunds(playerId);
+            return result;
+        } finally {
+            checkFunds.record(start, result);
+        }
+    }
+
+    @Override
+    public FundsCheck getCachedFunds(UUID playerId) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            FundsCheck result = delegate.getCachedFunds(playerId);
+            failed = false;
+            return result;
+        } finally {
+            getCachedFunds.record(start, failed);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        long start = System.nanoTime();
+        CompletableFuture<Double> result = null;
+        try {
+            result = delegate.getBalance(playerId, currency);
+            return result;
+        } finally {
+            getBalanceInCurrency.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<double[]> result = null;
+        try {
+            result = delegate.getBalancesByCurrency(playerId);
+            return result;
+        } finally {
+            getBalancesByCurrency.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.send(playerId, currency, amount);
+            return result;
+        } finally {
+            sendInCurrency.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.take(playerId, currency, amount);
+            return result;
+        } finally {
+            takeInCurrency.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, World world) {
+        if (!delegate.implementationSupportsWorlds()) {
+            return super.getBalance(playerId, world);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Double> result = null;
+        try {
+            result = delegate.getBalance(playerId, world);
+            return result;
+        } finally {
+            getBalanceInWorld.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        if (!delegate.implementationSupportsWorlds()) {
+            return super.send(playerId, world, amount);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.send(playerId, world, amount);
+            return result;
+        } finally {
+            sendInWorld.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        if (!delegate.implementationSupportsWorlds()) {
+            return super.take(playerId, world, amount);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.take(playerId, world, amount);
+            return result;
+        } finally {
+            takeInWorld.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId, World world) {
+        if (!delegate.implementationSupportsWorlds()) {
+            return super.hasAccount(playerId, world);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = null;
+        try {
+            result = delegate.hasAccount(playerId, world);
+            return result;
+        } finally {
+            hasAccountInWorld.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId, World world) {
+        if (!delegate.implementationSupportsWorlds()) {
+            return super.createAccount(playerId, world);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = null;
+        try {
+            result = delegate.createAccount(playerId, world);
+            return result;
+        } finally {
+            createAccountInWorld.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<BalanceEntry>> getTopBalances(int count, int offset) {
+        long start = System.nanoTime();
+        CompletableFuture<List<BalanceEntry>> result = null;
+        try {
+            result = delegate.getTopBalances(count, offset);
+            return result;
+        } finally {
+            getTopBalances.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Integer> result = null;
+        try {
+            result = delegate.getRank(playerId);
+            return result;
+        } finally {
+            getRank.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAll(BalanceFunction function) {
+        long start = System.nanoTime();
+        CompletableFuture<Integer> result = null;
+        try {
+            result = delegate.applyToAll(function);
+            return result;
+        } finally {
+            applyToAll.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        long start = System.nanoTime();
+        CompletableFuture<Integer> result = null;
+        try {
+            result = delegate.applyToAccounts(filter, function);
+            return result;
+        } finally {
+            applyToAccounts.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = null;
+        try {
+            result = delegate.hasAccount(playerId);
+            return result;
+        } finally {
+            hasAccount.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = null;
+        try {
+            result = delegate.createAccount(playerId);
+            return result;
+        } finally {
+            createAccount.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Bank> createBank(UUID playerId, String bankName) {
+        long start = System.nanoTime();
+        CompletableFuture<Bank> result = null;
+        try {
+            result = delegate.createBank(playerId, bankName);
+            return result;
+        } finally {
+            createBank.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<FundsCheck> result = null;
+        try {
+            result = delegate.checkBankFunds(playerId);
+            return result;
+        } finally {
+            checkBankFunds.record(start, result);
+        }
+    }
+
+    @Override
+    public FundsCheck getCachedBankFunds(UUID playerId) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            FundsCheck result = delegate.getCachedBankFunds(playerId);
+            failed = false;
+            return result;
+        } finally {
+            getCachedBankFunds.record(start, failed);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = null;
+        try {
+            result = delegate.bankHasAccount(playerId);
+            return result;
+        } finally {
+            bankHasAccount.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.bankWire(playerId, amount);
+            return result;
+        } finally {
+            bankWire.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        long start = System.nanoTime();
+        CompletableFuture<EconomyResponse> result = null;
+        try {
+            result = delegate.bankWithdraw(playerId, amount);
+            return result;
+        } finally {
+            bankWithdraw.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(UUID playerId) {
+        long start = System.nanoTime();
+        CompletableFuture<Double> result = null;
+        try {
+            result = delegate.bankBalance(playerId);
+            return result;
+        } finally {
+            bankBalance.record(start, result);
+        }
+    }
+
+    @Override
+    public Set<Bank> getBanks() {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Set<Bank> result = delegate.getBanks();
+            failed = false;
+            return result;
+        } finally {
+            getBanks.record(start, failed);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBank(UUID bankId) {
+        long start = System.nanoTime();
+        CompletableFuture<Bank> result = null;
+        try {
+            result = delegate.getBank(bankId);
+            return result;
+        } finally {
+            getBank.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBankByName(String name) {
+        long start = System.nanoTime();
+        CompletableFuture<Bank> result = null;
+        try {
+            result = delegate.getBankByName(name);
+            return result;
+        } finally {
+            getBankByName.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        long start = System.nanoTime();
+        CompletableFuture<List<Bank>> result = null;
+        try {
+            result = delegate.getBanksOwnedBy(ownerId);
+            return result;
+        } finally {
+            getBanksOwnedBy.record(start, result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        long start = System.nanoTime();
+        CompletableFuture<List<Bank>> result = null;
+        try {
+            result = delegate.getBanks(after, limit);
+            return result;
+        } finally {
+            getBanksPage.record(start, result);
+        }
+    }
+
+    @Override
+    public void forEachBank(Consumer<? super Bank> action) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.forEachBank(action);
+            failed = false;
+        } finally {
+            forEachBank.record(start, failed);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.taco.api.economy;
+
+/**
+ * The scale of an economy's amounts: how many minor units (for example cents) make up one major unit.
+ * <p>
+ * Amounts held as {@code long} minor units are exact, so adding and subtracting them never accumulates the
+ * rounding drift that repeated {@code double} arithmetic does. Use {@link #toMinor(double)} and
+ * {@link #toMajor(long)} at the edges where a {@code double} is needed.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class Money {
+    private static final Money[] SCALES = new Money[10];
+
+    static {
+        long factor = 1;
+        for (int digits = 0; digits < SCALES.length; digits++) {
+            SCALES[digits] = new Money(digits, factor);
+            factor *= 10;
+        }
+    }
+
+    /**
+     * Whole units only, no fractional part.
+     */
+    public static final Money WHOLE = SCALES[0];
+    /**
+     * Two fractional digits, the scale used by most economies.
+     */
+    public static final Money CENTS = SCALES[2];
+
+    private final int fractionalDigits;
+    private final long factor;
+
+    private Money(int fractionalDigits, long factor) {
+        this.fractionalDigits = fractionalDigits;
+        this.factor = factor;
+    }
+
+    /**
+     * Gets the scale with the given number of fractional digits.
+     *
+     * @param fractionalDigits the number of digits after the decimal point, 0 to 9
+     * @return the scale
+     */
+    public static Money of(int fractionalDigits) {
+        if (fractionalDigits < 0 || fractionalDigits >= SCALES.length) {
+            throw new IllegalArgumentException("fractionalDigits must be between 0 and 9: " + fractionalDigits);
+        }
+        return SCALES[fractionalDigits];
+    }
+
+    /**
+     * Gets the number of digits after the decimal point.
+     *
+     * @return the fractional digits
+     */
+    public int getFractionalDigits() {
+        return fractionalDigits;
+    }
+
+    /**
+     * Gets the number of minor units in one major unit.
+     *
+     * @return the factor, 10 to the power of the fractional digits
+     */
+    public long getFactor() {
+        return factor;
+    }
+
+    /**
+     * Converts a major amount to minor units, rounding half up to the nearest minor unit.
+     *
+     * @param amount the amount in major units
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount is not a number or does not fit in a long
+     */
+    public long toMinor(double amount) {
+        double scaled = amount * factor;
+        if (Double.isNaN(scaled) || scaled >= Long.MAX_VALUE || scaled <= Long.MIN_VALUE) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return Math.round(scaled);
+    }
+
+    /**
+     * Converts the amount of a deposit or withdrawal to minor units, without throwing.
+     *
+     * @param amount the amount in major units
+     * @return the amount in minor units, or -1 if it is negative, not a number or too large
+     */
+    public long toMinorAmount(double amount) {
+        if (!(amount >= 0)) {
+            return -1;
+        }
+        try {
+            return toMinor(amount);
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Converts minor units to a major amount.
+     *
+     * @param minor the amount in minor units
+     * @return the amount in major units
+     */
+    public double toMajor(long minor) {
+        return (double) minor / factor;
+    }
+
+    /**
+     * Formats minor units as an exact plain decimal, for example {@code -12.05} for -1205 cents.
+     *
+     * @param minor the amount in minor units
+     * @return the formatted amount
+     */
+    public String toPlainString(long minor) {
+        if (fractionalDigits == 0) {
+            return Long.toString(minor);
+        }
+        StringBuilder builder = new StringBuilder(21);
+        if (minor < 0) {
+            builder.append('-');
+        }
+        long whole = Math.abs(minor / factor);
+        long fraction = Math.abs(minor % factor);
+        builder.append(whole).append('.');
+        String digits = Long.toString(fraction);
+        for (int i = digits.length(); i < fractionalDigits; i++) {
+            builder.append('0');
+        }
+        return builder.append(digits).toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Money{fractionalDigits=" + fractionalDigits + '}';
+    }
+}
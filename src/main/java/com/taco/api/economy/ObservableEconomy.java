@@ -0,0 +1,137 @@
+package com.taco.api.economy;
+
+import net.milkbowl.vault.economy.EconomyResponse;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adds balance events to any {@link Economy}.
+ * <p>
+ * Every successful write through this economy publishes the new balance from the write's response, so the wrapped
+ * economy is not read again; only the player being paid by a transfer is looked up, and only while someone is
+ * listening. Writes that bypass this wrapper, such as those made directly on the wrapped economy, are not seen.
+ * Events cover single writes of the global balance of the primary currency only, bulk operations are not seen.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class ObservableEconomy extends ForwardingEconomy {
+    private final BalanceEvents events = new BalanceEvents();
+
+    /**
+     * Creates an observable economy.
+     *
+     * @param delegate the economy to publish the changes of
+     */
+    public ObservableEconomy(Economy delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Gets the events this economy publishes to.
+     *
+     * @return the events
+     */
+    public BalanceEvents getEvents() {
+        return events;
+    }
+
+    @Override
+    public boolean implementationSupportsEvents() {
+        return true;
+    }
+
+    @Override
+    public BalanceSubscription subscribe(BalanceListener listener) {
+        return events.subscribe(listener);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        return publish(playerId, delegate.send(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return publish(playerId, delegate.sendMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        return publish(playerId, delegate.take(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return publish(playerId, delegate.takeMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return currency.isPrimary() ? send(playerId, amount) : delegate.send(playerId, currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return currency.isPrimary() ? take(playerId, amount) : delegate.take(playerId, currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        return publishTransfer(from, to, delegate.transfer(from, to, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        return publishTransfer(from, to, delegate.transferMinor(from, to, minor));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        return delegate.createAccount(playerId).whenComplete((created, error) -> {
+            if (error == null && created) {
+                lookUp(playerId);
+            }
+        });
+    }
+
+    private CompletableFuture<EconomyResponse> publish(UUID playerId, CompletableFuture<EconomyResponse> write) {
+        return write.whenComplete((response, error) -> {
+            if (error == null && response.transactionSuccess()) {
+                events.publish(playerId, response.balance);
+            }
+        });
+    }
+
+    private CompletableFuture<EconomyResponse> publishTransfer(UUID from, UUID to,
+                                                               CompletableFuture<EconomyResponse> write) {
+        return write.whenComplete((response, error) -> {
+            if (error == null && response.transactionSuccess()) {
+                events.publish(from, response.balance);
+                lookUp(to);
+            }
+        });
+    }
+
+    /**
+     * Publishes the balance of a player whose new balance is not part of a response.
+     */
+    private void lookUp(UUID playerId) {
+        if (!events.hasListeners()) {
+            return;
+        }
+        FundsCheck cached = delegate.getCachedFunds(playerId);
+        if (cached != null) {
+            if (cached.hasAccount()) {
+                events.publish(playerId, cached.getBalance());
+            }
+            return;
+        }
+        delegate.checkFunds(playerId).thenAccept(funds -> {
+            if (funds.hasAccount()) {
+                events.publish(playerId, funds.getBalance());
+            }
+        });
+    }
+}
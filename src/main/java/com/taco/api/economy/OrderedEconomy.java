@@ -0,0 +1,168 @@
+package com.taco.api.economy;
+
+import com.taco.api.concurrent.AccountMailboxes;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.World;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Guarantees per-account ordering for any {@link Economy}.
+ * <p>
+ * Every operation on an account goes through that account's mailbox in {@link AccountMailboxes}, so operations on
+ * the same account run one after another in the order they were called, and each one sees the effects of the ones
+ * before it. Operations on different accounts still run fully in parallel, so the wrapped economy does not need a
+ * global lock. Transfers wait for both accounts' mailboxes.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class OrderedEconomy extends ForwardingEconomy {
+    private final AccountMailboxes mailboxes;
+
+    /**
+     * Creates an ordered economy using mailboxes backed by {@link com.taco.api.concurrent.TacoExecutors#get()}.
+     *
+     * @param delegate the economy to order operations for
+     */
+    public OrderedEconomy(Economy delegate) {
+        this(delegate, new AccountMailboxes());
+    }
+
+    /**
+     * Creates an ordered economy.
+     *
+     * @param delegate the economy to order operations for
+     * @param mailboxes the mailboxes to route operations through
+     */
+    public OrderedEconomy(Economy delegate, AccountMailboxes mailboxes) {
+        super(delegate);
+        this.mailboxes = mailboxes;
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.getBalance(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.getBalanceMinor(playerId));
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.checkFunds(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.hasAccount(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.createAccount(playerId));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.send(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return mailboxes.submit(playerId, () -> delegate.sendMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.take(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return mailboxes.submit(playerId, () -> delegate.takeMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        return mailboxes.submit(playerId, () -> delegate.getBalance(playerId, currency));
+    }
+
+    @Override
+    public CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.getBalancesByCurrency(playerId));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.send(playerId, currency, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.take(playerId, currency, amount));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, World world) {
+        return mailboxes.submit(playerId, () -> delegate.getBalance(playerId, world));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.send(playerId, world, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.take(playerId, world, amount));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId, World world) {
+        return mailboxes.submit(playerId, () -> delegate.hasAccount(playerId, world));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId, World world) {
+        return mailboxes.submit(playerId, () -> delegate.createAccount(playerId, world));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        return mailboxes.submit(from, to, () -> delegate.transfer(from, to, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        return mailboxes.submit(from, to, () -> delegate.transferMinor(from, to, minor));
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.checkBankFunds(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.bankHasAccount(playerId));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.bankWire(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        return mailboxes.submit(playerId, () -> delegate.bankWithdraw(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(UUID playerId) {
+        return mailboxes.submit(playerId, () -> delegate.bankBalance(playerId));
+    }
+}
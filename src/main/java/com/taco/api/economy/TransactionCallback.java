@@ -0,0 +1,23 @@
+package com.taco.api.economy;
+
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+
+/**
+ * Receives the outcome of a write as primitives, see {@link Economy#sendMinor(java.util.UUID, long, TransactionCallback)}.
+ * <p>
+ * Economies that complete writes at once, such as in-memory ones, can call it without creating a future or an
+ * {@link net.milkbowl.vault.economy.EconomyResponse}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface TransactionCallback {
+    /**
+     * Called once the write completed.
+     *
+     * @param reason the outcome, {@link Reason#NONE} if the write succeeded
+     * @param balance the new balance in minor units, or the current balance if the write failed, 0 if unknown
+     */
+    void complete(Reason reason, long balance);
+}
@@ -0,0 +1,61 @@
+package com.taco.api.economy;
+
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs a transfer as two writes, for economies that cannot move money between two accounts in one transaction.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class Transfers {
+    private Transfers() {
+    }
+
+    /**
+     * Takes from the sender, then sends to the receiver, and refunds the sender if the second step fails.
+     * A step throwing instead of returning a future counts as a failed step, so the sender is never left
+     * debited without a refund attempt.
+     *
+     * @param take takes the amount from the sender
+     * @param send sends the amount to the receiver
+     * @param refund gives the amount back to the sender
+     * @param amount the amount, for the responses
+     * @return a future completing with the response of the sender's side of the transfer
+     */
+    public static CompletableFuture<EconomyResponse> takeThenSend(Supplier<CompletableFuture<EconomyResponse>> take,
+                                                                 Supplier<CompletableFuture<EconomyResponse>> send,
+                                                                 Supplier<CompletableFuture<EconomyResponse>> refund,
+                                                                 double amount) {
+        return start(take).thenCompose(taken -> {
+            if (!taken.transactionSuccess()) {
+                return CompletableFuture.completedFuture(taken);
+            }
+            return start(send).handle((sent, error) -> {
+                if (error == null && sent.transactionSuccess()) {
+                    return CompletableFuture.completedFuture(taken);
+                }
+
+                String reason = error != null ? String.valueOf(error.getMessage()) : sent.errorMessage;
+                Reason cause = error != null ? Reason.ERROR : sent.reason;
+                return start(refund).handle((refunded, refundError) -> refundError == null && refunded.transactionSuccess()
+                        ? new EconomyResponse(amount, refunded.balance, cause,
+                                "Transfer failed and was refunded: " + reason)
+                        : new EconomyResponse(amount, taken.balance, cause,
+                                "Transfer failed and could not be refunded: " + reason));
+            }).thenCompose(response -> response);
+        });
+    }
+
+    private static CompletableFuture<EconomyResponse> start(Supplier<CompletableFuture<EconomyResponse>> step) {
+        try {
+            return step.get();
+        } catch (RuntimeException e) {
+            return Futures.failed(e);
+        }
+    }
+}
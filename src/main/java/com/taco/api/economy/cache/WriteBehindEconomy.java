@@ -0,0 +1,575 @@
+package com.taco.api.economy.cache;
+
+import com.taco.api.economy.BalanceFunction;
+import com.taco.api.economy.Balances;
+import com.taco.api.economy.Currency;
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.ForwardingEconomy;
+import com.taco.api.economy.FundsCheck;
+import com.taco.api.economy.Money;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A write-behind cache in front of any {@link Economy}.
+ * <p>
+ * Balances are loaded once with {@link Economy#checkFunds(UUID)} and then served from memory. {@code send},
+ * {@code take} and {@code transfer} are applied to the cache immediately and their deltas are coalesced per
+ * account, then flushed to the wrapped economy as one {@code sendMinor} or {@code takeMinor} per account,
+ * every flush interval or as soon as the number of dirty accounts reaches the flush threshold.
+ * <p>
+ * This economy must be the only writer of the wrapped economy's balances, otherwise the cache goes stale.
+ * Call {@link #close()} when the plugin disables so pending deltas are written out, writes after it are rejected
+ * with {@link Reason#CLOSED}. Bulk operations flush first,
+ * run on the wrapped economy and then reload every cached balance.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class WriteBehindEconomy extends ForwardingEconomy implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindEconomy.class.getName());
+    private static final CompletableFuture<EconomyResponse> INVALID_AMOUNT =
+            CompletableFuture.completedFuture(EconomyResponse.of(Reason.INVALID_AMOUNT));
+    private static final CompletableFuture<EconomyResponse> CLOSED =
+            CompletableFuture.completedFuture(EconomyResponse.of(Reason.CLOSED));
+
+    private final Money money;
+    private final int flushThreshold;
+    private final Map<UUID, CompletableFuture<Account>> accounts = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicLong rejectedFlushes = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final ScheduledFuture<?> flushTask;
+    private volatile boolean closed;
+
+    /**
+     * Creates a write-behind cache flushing on its own daemon thread.
+     *
+     * @param delegate the economy to write to
+     * @param flushInterval how often dirty accounts are flushed
+     * @param unit the unit of flushInterval
+     * @param flushThreshold the number of dirty accounts that triggers an early flush
+     */
+    public WriteBehindEconomy(Economy delegate, long flushInterval, TimeUnit unit, int flushThreshold) {
+        this(delegate, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Taco Write-Behind Flusher");
+            thread.setDaemon(true);
+            return thread;
+        }), true, flushInterval, unit, flushThreshold);
+    }
+
+    /**
+     * Creates a write-behind cache flushing on the given scheduler, which is not shut down on {@link #close()}.
+     *
+     * @param delegate the economy to write to
+     * @param scheduler the scheduler to flush on
+     * @param flushInterval how often dirty accounts are flushed
+     * @param unit the unit of flushInterval
+     * @param flushThreshold the number of dirty accounts that triggers an early flush
+     */
+    public WriteBehindEconomy(Economy delegate, ScheduledExecutorService scheduler,
+                              long flushInterval, TimeUnit unit, int flushThreshold) {
+        this(delegate, scheduler, false, flushInterval, unit, flushThreshold);
+    }
+
+    private WriteBehindEconomy(Economy delegate, ScheduledExecutorService scheduler, boolean ownsScheduler,
+                               long flushInterval, TimeUnit unit, int flushThreshold) {
+        super(delegate);
+        this.money = delegate.getMoney();
+        this.flushThreshold = Math.max(flushThreshold, 1);
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.flushTask = scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, unit);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        return load(playerId).thenApply(account -> money.toMajor(account.balance()));
+    }
+
+    @Override
+    public CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        return load(playerId).thenApply(Account::balance);
+    }
+
+    @Override
+    public CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        // every missing account is loaded with checkFunds, as a bulk balance lookup cannot tell a player without an
+        // account from one with a balance of 0, and caching the former as an account would accept writes it rejects
+        List<CompletableFuture<Account>> loads = new ArrayList<>(playerIds.size());
+        for (UUID playerId : playerIds) {
+            loads.add(load(playerId));
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).thenApply(done -> {
+            Balances.Builder builder = Balances.builder(playerIds.size());
+            int i = 0;
+            for (UUID playerId : playerIds) {
+                builder.put(playerId, money.toMajor(loads.get(i++).join().balance()));
+            }
+            return builder.build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return load(playerId).thenApply(this::toFunds);
+    }
+
+    @Override
+    public FundsCheck getCachedFunds(UUID playerId) {
+        CompletableFuture<Account> account = accounts.get(playerId);
+        return account == null || !account.isDone() || account.isCompletedExceptionally()
+                ? null : toFunds(account.join());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return load(playerId).thenApply(account -> account.exists);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        return delegate.createAccount(playerId).whenComplete((created, error) -> {
+            CompletableFuture<Account> loaded = accounts.get(playerId);
+            Account account = loaded == null ? null : loaded.getNow(null);
+            if (loaded != null && (account == null || !account.exists)) {
+                accounts.remove(playerId, loaded);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        return currency.isPrimary() ? getBalance(playerId) : delegate.getBalance(playerId, currency);
+    }
+
+    @Override
+    public CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        return delegate.getBalancesByCurrency(playerId).thenCombine(getBalance(playerId), (balances, primary) -> {
+            if (balances.length > 0) {
+                balances[0] = primary;
+            }
+            return balances;
+        });
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return currency.isPrimary() ? send(playerId, amount) : delegate.send(playerId, currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return currency.isPrimary() ? take(playerId, amount) : delegate.take(playerId, currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : sendMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return minor < 0 ? INVALID_AMOUNT : apply(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : takeMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return minor < 0 ? INVALID_AMOUNT : apply(playerId, -minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : transferMinor(from, to, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        double amount = money.toMajor(minor);
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        if (closed) {
+            return CLOSED;
+        }
+        if (from.equals(to)) {
+            return apply(from, 0).thenApply(response -> new EconomyResponse(amount, response.balance,
+                    response.reason, response.errorMessage));
+        }
+
+        return load(from).thenCombine(load(to), (source, target) -> {
+            boolean sourceFirst = from.compareTo(to) < 0;
+            Account first = sourceFirst ? source : target;
+            Account second = sourceFirst ? target : source;
+            synchronized (first) {
+                synchronized (second) {
+                    if (closed) {
+                        return EconomyResponse.of(Reason.CLOSED);
+                    }
+                    if (!source.exists || !target.exists) {
+                        return EconomyResponse.of(Reason.NO_ACCOUNT);
+                    }
+                    if (source.balance < minor) {
+                        return new EconomyResponse(amount, money.toMajor(source.balance), Reason.INSUFFICIENT_FUNDS);
+                    }
+                    source.add(-minor);
+                    target.add(minor);
+                    markDirty(from);
+                    markDirty(to);
+                    return new EconomyResponse(amount, money.toMajor(source.balance), Reason.NONE);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes every pending delta to the wrapped economy.
+     * <p>
+     * An account has at most one delta being written at a time, a flush of an account that is still being written
+     * waits for the write before taking the account's delta. A delta the wrapped economy rejects means the cache has
+     * diverged from it, so that account is reset to the wrapped economy's balance plus any newer deltas; see
+     * {@link #getRejectedFlushes()}. A delta that fails with an exception is kept and retried on the next flush.
+     *
+     * @return a future completing once every delta pending at the time of the call has been written
+     */
+    public CompletableFuture<Void> flush() {
+        flushQueued.set(false);
+        List<CompletableFuture<?>> writes = new ArrayList<>();
+        for (UUID playerId : dirty) {
+            writes.add(flush(playerId));
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAll(BalanceFunction function) {
+        return flush().thenCompose(ignored -> delegate.applyToAll(function)).thenCompose(this::rebaseAll);
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        return flush().thenCompose(ignored -> delegate.applyToAccounts(filter, function)).thenCompose(this::rebaseAll);
+    }
+
+    /**
+     * Flushes the account and drops it from the cache, for example when the player leaves the server.
+     *
+     * @param playerId the player to drop
+     * @return a future completing once the account's pending delta has been written
+     */
+    public CompletableFuture<Void> invalidate(UUID playerId) {
+        CompletableFuture<Account> loaded = accounts.get(playerId);
+        if (loaded == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return flush(playerId).whenComplete((ignored, error) -> {
+            Account account = loaded.getNow(null);
+            if (account == null) {
+                accounts.remove(playerId, loaded);
+                return;
+            }
+            synchronized (account) {
+                if (account.pending == 0) {
+                    accounts.remove(playerId, loaded);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the number of accounts with deltas waiting to be flushed.
+     *
+     * @return the dirty account count
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Gets how many flushed deltas the wrapped economy has rejected.
+     *
+     * @return the rejected flush count
+     */
+    public long getRejectedFlushes() {
+        return rejectedFlushes.get();
+    }
+
+    /**
+     * Rejects further writes, stops the periodic flush and writes out every pending delta, retrying failed writes
+     * for up to 30 seconds. Call this from the plugin's onDisable.
+     *
+     * @throws IllegalStateException if some deltas could not be written, each of them is also logged
+     */
+    @Override
+    public void close() {
+        close(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Rejects further writes with {@link Reason#CLOSED}, stops the periodic flush and writes out every pending
+     * delta, retrying writes that fail with an exception until they succeed or the timeout passes.
+     *
+     * @param timeout how long to keep retrying
+     * @param unit the unit of timeout
+     * @throws IllegalStateException if some deltas could not be written, each of them is also logged
+     */
+    public void close(long timeout, TimeUnit unit) {
+        closed = true;
+        flushTask.cancel(false);
+        for (CompletableFuture<Account> loaded : accounts.values()) {
+            Account account = loaded.getNow(null);
+            if (account != null) {
+                // waits out a write that checked the flag just before it was set, so its delta is marked dirty
+                synchronized (account) {
+                    account.balance();
+                }
+            }
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            while (!dirty.isEmpty() && System.nanoTime() < deadline) {
+                try {
+                    flush().get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    break;
+                } catch (ExecutionException e) {
+                    // a flush never fails, failed writes are marked dirty again
+                }
+                if (!dirty.isEmpty()) {
+                    // the wrapped economy is failing, give it a moment before retrying
+                    Thread.sleep(Math.min(100, TimeUnit.NANOSECONDS.toMillis(Math.max(deadline - System.nanoTime(), 0))));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (ownsScheduler) {
+                scheduler.shutdown();
+            }
+        }
+
+        int lost = 0;
+        for (Map.Entry<UUID, CompletableFuture<Account>> entry : accounts.entrySet()) {
+            Account account = entry.getValue().getNow(null);
+            if (account == null) {
+                continue;
+            }
+            synchronized (account) {
+                if (account.pending != 0 || !account.flushing.isDone()) {
+                    lost++;
+                    LOGGER.severe("Could not write the balance of " + entry.getKey() + " to " + delegate.getName()
+                            + ": " + money.toPlainString(account.pending) + " pending"
+                            + (account.flushing.isDone() ? "" : ", and a write still running"));
+                }
+            }
+        }
+        if (lost > 0) {
+            throw new IllegalStateException(lost + " accounts could not be written to " + delegate.getName()
+                    + " before closing, see the log for each of them");
+        }
+    }
+
+    private CompletableFuture<Void> flush(UUID playerId) {
+        if (!dirty.remove(playerId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Account> loaded = accounts.get(playerId);
+        Account account = loaded == null ? null : loaded.getNow(null);
+        if (account == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return account.enqueue(() -> write(playerId, account));
+    }
+
+    /**
+     * Writes the pending delta of an account, called once the account's previous write has completed.
+     */
+    private CompletableFuture<Void> write(UUID playerId, Account account) {
+        long delta;
+        synchronized (account) {
+            delta = account.pending;
+            account.pending = 0;
+        }
+        if (delta == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<EconomyResponse> write;
+        try {
+            write = delta > 0 ? delegate.sendMinor(playerId, delta) : delegate.takeMinor(playerId, -delta);
+        } catch (RuntimeException e) {
+            write = new CompletableFuture<>();
+            write.completeExceptionally(e);
+        }
+        return write.handle((response, error) -> {
+            if (error != null) {
+                synchronized (account) {
+                    account.pending += delta;
+                }
+                dirty.add(playerId);
+            } else if (!response.transactionSuccess()) {
+                rejectedFlushes.incrementAndGet();
+                return rebase(playerId, account);
+            }
+            return CompletableFuture.<Void>completedFuture(null);
+        }).thenCompose(rebased -> rebased);
+    }
+
+    /**
+     * Resets a diverged account to the wrapped economy's balance, keeping the deltas applied since the last flush.
+     * Must only run while none of the account's deltas is being written.
+     */
+    private CompletableFuture<Void> rebase(UUID playerId, Account account) {
+        return delegate.checkFunds(playerId).thenAccept(funds -> {
+            synchronized (account) {
+                account.balance = money.toMinor(funds.getBalance()) + account.pending;
+            }
+        });
+    }
+
+    /**
+     * Reloads every cached account after a bulk operation changed the wrapped economy's balances.
+     */
+    private CompletableFuture<Integer> rebaseAll(int changed) {
+        List<CompletableFuture<Void>> rebases = new ArrayList<>();
+        accounts.forEach((playerId, loaded) -> {
+            Account account = loaded.getNow(null);
+            if (account != null) {
+                rebases.add(account.enqueue(() -> rebase(playerId, account)));
+            }
+        });
+        return CompletableFuture.allOf(rebases.toArray(new CompletableFuture[0])).thenApply(done -> changed);
+    }
+
+    private CompletableFuture<EconomyResponse> apply(UUID playerId, long delta) {
+        if (closed) {
+            return CLOSED;
+        }
+        double amount = money.toMajor(Math.abs(delta));
+        return load(playerId).thenApply(account -> {
+            synchronized (account) {
+                // checked under the account's lock, so close() sees every delta applied before it
+                if (closed) {
+                    return EconomyResponse.of(Reason.CLOSED);
+                }
+                if (!account.exists) {
+                    return EconomyResponse.of(Reason.NO_ACCOUNT);
+                }
+                if (account.balance + delta < 0) {
+                    return new EconomyResponse(amount, money.toMajor(account.balance), Reason.INSUFFICIENT_FUNDS);
+                }
+                account.add(delta);
+                if (delta != 0) {
+                    markDirty(playerId);
+                }
+                return new EconomyResponse(amount, money.toMajor(account.balance), Reason.NONE);
+            }
+        });
+    }
+
+    private CompletableFuture<Account> load(UUID playerId) {
+        CompletableFuture<Account> account = accounts.get(playerId);
+        if (account != null) {
+            return account;
+        }
+
+        CompletableFuture<Account> loading = accounts.computeIfAbsent(playerId, id -> delegate.checkFunds(id)
+                .thenApply(funds -> new Account(funds.hasAccount(), money.toMinor(funds.getBalance()))));
+        loading.whenComplete((loaded, error) -> {
+            if (error != null) {
+                accounts.remove(playerId, loading);
+            }
+        });
+        return loading;
+    }
+
+    private void markDirty(UUID playerId) {
+        dirty.add(playerId);
+        if (dirty.size() >= flushThreshold && flushQueued.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // the write is already applied, leave the delta to the periodic flush or close()
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    private FundsCheck toFunds(Account account) {
+        synchronized (account) {
+            return account.exists ? FundsCheck.of(money.toMajor(account.balance)) : FundsCheck.NO_ACCOUNT;
+        }
+    }
+
+    private static final class Account {
+        final boolean exists;
+        long balance;
+        long pending;
+        CompletableFuture<Void> flushing = CompletableFuture.completedFuture(null);
+
+        Account(boolean exists, long balance) {
+            this.exists = exists;
+            this.balance = balance;
+        }
+
+        synchronized long balance() {
+            return balance;
+        }
+
+        void add(long delta) {
+            balance += delta;
+            pending += delta;
+        }
+
+        /**
+         * Runs a write or rebase of this account once the previous one has completed, so they never overlap.
+         */
+        CompletableFuture<Void> enqueue(Supplier<CompletableFuture<Void>> task) {
+            CompletableFuture<Void> previous;
+            CompletableFuture<Void> next = new CompletableFuture<>();
+            synchronized (this) {
+                previous = flushing;
+                flushing = next;
+            }
+            previous.whenComplete((ignored, error) -> {
+                try {
+                    task.get().whenComplete((done, failure) -> next.complete(null));
+                } catch (RuntimeException e) {
+                    next.complete(null);
+                }
+            });
+            return next;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.taco.api.economy.idempotent;
+
+import com.taco.api.economy.Futures;
+import net.milkbowl.vault.economy.EconomyResponse;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the outcome of recent writes by transaction id, so a retried write returns the original response
+ * instead of running again.
+ * <p>
+ * Writes are kept in a ring buffer in the order they were claimed, with an open-addressed hash index from
+ * transaction id to ring slot. A write is forgotten once it is older than the window, or earlier when the ring is
+ * full and its slot is needed, so the capacity should cover every write made within one window. The outcome is
+ * remembered as a future, so a retry racing the first attempt waits for it instead of running in parallel. Each
+ * write also remembers its operation, accounts and amount, and reusing its id for a different write fails instead
+ * of returning an outcome that does not belong to it. All methods synchronize on the window.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class DeduplicationWindow {
+    private final long windowNanos;
+    private final long[] msb;
+    private final long[] lsb;
+    private final long[] claimedAt;
+    private final Operation[] operations;
+    private final long[] playerMsb;
+    private final long[] playerLsb;
+    private final long[] targetMsb;
+    private final long[] targetLsb;
+    private final long[] amounts;
+    private final CompletableFuture<?>[] results;
+    private final int[] index;
+    private int head;
+    private int size;
+
+    /**
+     * Creates a window.
+     *
+     * @param capacity the maximum number of writes remembered
+     * @param window how long a write is remembered
+     * @param unit the unit of the window
+     */
+    public DeduplicationWindow(int capacity, long window, TimeUnit unit) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.windowNanos = unit.toNanos(window);
+        this.msb = new long[capacity];
+        this.lsb = new long[capacity];
+        this.claimedAt = new long[capacity];
+        this.operations = new Operation[capacity];
+        this.playerMsb = new long[capacity];
+        this.playerLsb = new long[capacity];
+        this.targetMsb = new long[capacity];
+        this.targetLsb = new long[capacity];
+        this.amounts = new long[capacity];
+        this.results = new CompletableFuture<?>[capacity];
+        this.index = new int[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1];
+    }
+
+    /**
+     * Claims a transaction id for a write, unless a write with the same id is still remembered.
+     * <p>
+     * If the id is claimed, the given future is remembered as its outcome, and forgotten again if it completes
+     * exceptionally, as the write then may be retried.
+     *
+     * @param transactionId the transaction id
+     * @param operation the kind of write
+     * @param playerId the account written, the sender of a transfer
+     * @param target the receiver of a transfer, null for every other write
+     * @param amount the amount written
+     * @param result the future the new write will complete
+     * @return null if the id was claimed, otherwise the outcome of the earlier write with the same id, or a failed
+     *         future with an {@link IllegalArgumentException} if the earlier write was a different one
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized CompletableFuture<EconomyResponse> claim(UUID transactionId, Operation operation,
+                                                                 UUID playerId, UUID target, double amount,
+                                                                 CompletableFuture<EconomyResponse> result) {
+        long now = System.nanoTime();
+        expire(now);
+        long idMsb = transactionId.getMostSignificantBits(), idLsb = transactionId.getLeastSignificantBits();
+        long amountBits = Double.doubleToLongBits(amount);
+        int position = find(idMsb, idLsb);
+        if (index[position] != 0) {
+            int slot = index[position] - 1;
+            if (operations[slot] != operation
+                    || playerMsb[slot] != playerId.getMostSignificantBits()
+                    || playerLsb[slot] != playerId.getLeastSignificantBits()
+                    || targetMsb[slot] != (target == null ? 0 : target.getMostSignificantBits())
+                    || targetLsb[slot] != (target == null ? 0 : target.getLeastSignificantBits())
+                    || amounts[slot] != amountBits) {
+                return Futures.failed(new IllegalArgumentException("Transaction id " + transactionId
+                        + " was already used for a different write"));
+            }
+            return (CompletableFuture<EconomyResponse>) results[slot];
+        }
+
+        if (size == results.length) {
+            evictOldest();
+            position = find(idMsb, idLsb);
+        }
+        int slot = head;
+        head = (head + 1) % results.length;
+        size++;
+        msb[slot] = idMsb;
+        lsb[slot] = idLsb;
+        claimedAt[slot] = now;
+        operations[slot] = operation;
+        playerMsb[slot] = playerId.getMostSignificantBits();
+        playerLsb[slot] = playerId.getLeastSignificantBits();
+        targetMsb[slot] = target == null ? 0 : target.getMostSignificantBits();
+        targetLsb[slot] = target == null ? 0 : target.getLeastSignificantBits();
+        amounts[slot] = amountBits;
+        results[slot] = result;
+        index[position] = slot + 1;
+
+        result.whenComplete((response, error) -> {
+            if (error != null) {
+                forget(slot, result);
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Gets the number of writes currently remembered, including ones that expired but were not evicted yet.
+     *
+     * @return the number of writes
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized void forget(int slot, CompletableFuture<EconomyResponse> result) {
+        if (results[slot] != result) {
+            return;
+        }
+        removeIndex(find(msb[slot], lsb[slot]));
+        results[slot] = null;
+    }
+
+    private void expire(long now) {
+        while (size > 0) {
+            int oldest = (head - size + results.length) % results.length;
+            if (now - claimedAt[oldest] < windowNanos) {
+                return;
+            }
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        int oldest = (head - size + results.length) % results.length;
+        if (results[oldest] != null) {
+            removeIndex(find(msb[oldest], lsb[oldest]));
+            results[oldest] = null;
+        }
+        size--;
+    }
+
+    /**
+     * Finds the index position of an id, or the empty position it would be inserted at.
+     */
+    private int find(long idMsb, long idLsb) {
+        int mask = index.length - 1;
+        int position = hash(idMsb, idLsb) & mask;
+        while (index[position] != 0) {
+            int slot = index[position] - 1;
+            if (msb[slot] == idMsb && lsb[slot] == idLsb) {
+                return position;
+            }
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    /**
+     * Removes an index entry, shifting back the entries probed past it so no lookup stops early.
+     */
+    private void removeIndex(int position) {
+        int mask = index.length - 1;
+        int hole = position;
+        for (int i = (position + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int slot = index[i] - 1;
+            int home = hash(msb[slot], lsb[slot]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    /**
+     * The kinds of writes a transaction id can be claimed for.
+     */
+    public enum Operation {
+        SEND,
+        TAKE,
+        TRANSFER
+    }
+}
@@ -0,0 +1,109 @@
+package com.taco.api.economy.idempotent;
+
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.ForwardingEconomy;
+import com.taco.api.economy.idempotent.DeduplicationWindow.Operation;
+import net.milkbowl.vault.economy.EconomyResponse;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes the transaction id writes of any {@link Economy} safe to retry.
+ * <p>
+ * The first write with a transaction id runs on the wrapped economy, and every write with the same id while it is
+ * remembered by the {@link DeduplicationWindow} returns the first write's response instead, even if the first one
+ * is still running. Reusing an id for a different write fails with an {@link IllegalArgumentException}. A write
+ * that fails with an exception is forgotten, so it runs again when retried. Writes
+ * without a transaction id are forwarded as they are. Wrap this around every other decorator, so a replay never
+ * reaches them.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class IdempotentEconomy extends ForwardingEconomy {
+    private final DeduplicationWindow window;
+
+    /**
+     * Creates an economy remembering up to 65536 writes for 5 minutes.
+     *
+     * @param delegate the economy to deduplicate writes for
+     */
+    public IdempotentEconomy(Economy delegate) {
+        this(delegate, new DeduplicationWindow(65_536, 5, TimeUnit.MINUTES));
+    }
+
+    /**
+     * Creates an idempotent economy.
+     *
+     * @param delegate the economy to deduplicate writes for
+     * @param window the window remembering the outcome of writes
+     */
+    public IdempotentEconomy(Economy delegate, DeduplicationWindow window) {
+        super(delegate);
+        this.window = window;
+    }
+
+    /**
+     * Gets the window remembering the outcome of writes.
+     *
+     * @return the window
+     */
+    public DeduplicationWindow getWindow() {
+        return window;
+    }
+
+    @Override
+    public boolean implementationSupportsIdempotency() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount, UUID transactionId) {
+        return deduplicate(transactionId, Operation.SEND, playerId, null, amount,
+                () -> delegate.send(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount, UUID transactionId) {
+        return deduplicate(transactionId, Operation.TAKE, playerId, null, amount,
+                () -> delegate.take(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount, UUID transactionId) {
+        return deduplicate(transactionId, Operation.TRANSFER, from, to, amount,
+                () -> delegate.transfer(from, to, amount));
+    }
+
+    private CompletableFuture<EconomyResponse> deduplicate(UUID transactionId, Operation operation, UUID playerId,
+                                                           UUID target, double amount,
+                                                           Supplier<CompletableFuture<EconomyResponse>> write) {
+        CompletableFuture<EconomyResponse> result = new CompletableFuture<>();
+        CompletableFuture<EconomyResponse> earlier = window.claim(transactionId, operation, playerId, target, amount,
+                result);
+        if (earlier != null) {
+            return earlier.thenApply(Function.identity());
+        }
+
+        CompletableFuture<EconomyResponse> written;
+        try {
+            written = write.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result.thenApply(Function.identity());
+        }
+        written.whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+        // every caller gets its own copy, so one caller timing out or cancelling never fails the shared outcome
+        return result.thenApply(Function.identity());
+    }
+}
@@ -0,0 +1,503 @@
+package com.taco.api.economy.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only, memory-mapped write-ahead journal of economy mutations.
+ * <p>
+ * Records are fixed-width and checksummed. Appending only copies the record into the mapped file; a background
+ * committer then forces every record appended since the last commit to disk at once (group commit), and the future
+ * returned by {@link #append} completes once its record is durable. A torn record at the end of the file, left by a
+ * crash mid-write, fails its checksum and is treated as the end of the journal by {@link #replay}, which cuts the file
+ * there before appending resumes.
+ * <p>
+ * A bank creation is written as {@link JournalOperation#BANK_NAME} records carrying the name, 40 bytes each, followed
+ * by one {@link JournalOperation#CREATE_BANK} record holding the owner and the length of the name. Name records
+ * without their creation record are discarded like a torn record. Once a snapshot covers the records up to a
+ * sequence, {@link #compact(long)} drops them from the file.
+ *
+ * <pre>
+ * header: long magic, int version, int reserved
+ * record: long sequence, long msb, long lsb, long amount, long targetMsb, long targetLsb, int operation, int crc
+ * name:   long sequence, byte[40] name, int operation, int crc
+ * </pre>
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class EconomyJournal implements AutoCloseable {
+    private static final long MAGIC = 0x5441434F4A524E4CL; // TACOJRNL
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 56;
+    private static final int CHECKSUMMED_SIZE = RECORD_SIZE - 4;
+    private static final int NAME_CHUNK = 40;
+
+    private final Path file;
+    private final long regionSize;
+    private final long commitIntervalNanos;
+    private final int commitBatchSize;
+    private final Object lock = new Object();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final Thread committer;
+
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position = HEADER_SIZE;
+    private long sequence;
+    private boolean replayed;
+    private volatile boolean closed;
+    private List<MappedByteBuffer> unforced = new ArrayList<>();
+    private List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+    /**
+     * Opens or creates a journal.
+     *
+     * @param file the journal file
+     * @param commitInterval the longest a record waits before being forced to disk
+     * @param unit the unit of commitInterval
+     * @param commitBatchSize the number of pending records that triggers an early commit
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public EconomyJournal(Path file, long commitInterval, TimeUnit unit, int commitBatchSize) throws IOException {
+        this(file, 64L << 20, commitInterval, unit, commitBatchSize);
+    }
+
+    /**
+     * Opens or creates a journal.
+     *
+     * @param file the journal file
+     * @param regionSize the number of bytes mapped at a time, rounded down to whole records
+     * @param commitInterval the longest a record waits before being forced to disk
+     * @param unit the unit of commitInterval
+     * @param commitBatchSize the number of pending records that triggers an early commit
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public EconomyJournal(Path file, long regionSize, long commitInterval, TimeUnit unit,
+                          int commitBatchSize) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.regionSize = Math.max(regionSize / RECORD_SIZE, 1) * RECORD_SIZE;
+        this.commitIntervalNanos = unit.toNanos(commitInterval);
+        this.commitBatchSize = Math.max(commitBatchSize, 1);
+
+        try {
+            if (channel.size() == 0) {
+                writeHeader(channel);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC) {
+                    throw new IOException("Not an economy journal: " + file);
+                }
+                int version = header.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported journal version " + version + ": " + file);
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.committer = new Thread(this::runCommitter, "Taco Journal Committer");
+        this.committer.setDaemon(true);
+    }
+
+    /**
+     * Replays every intact record after the given sequence and positions the journal for appending.
+     * This must be called once, before the first {@link #append}.
+     *
+     * @param afterSequence records with a sequence up to and including this are skipped, 0 replays everything
+     * @param listener the listener to apply records to
+     * @return the sequence of the last intact record, 0 if the journal is empty
+     * @throws IOException if the journal cannot be read
+     */
+    public long replay(long afterSequence, JournalListener listener) throws IOException {
+        synchronized (lock) {
+            if (replayed) {
+                throw new IllegalStateException("Journal already replayed");
+            }
+
+            long size = channel.size();
+            long offset = HEADER_SIZE;
+            long end = offset;
+            long last = 0;
+            long lastComplete = 0;
+            ByteArrayOutputStream name = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            byte[] array = buffer.array();
+            long bufferStart = offset;
+            buffer.limit(0);
+
+            while (offset + RECORD_SIZE <= size) {
+                int index = (int) (offset - bufferStart);
+                if (index + RECORD_SIZE > buffer.limit()) {
+                    buffer.clear();
+                    bufferStart = offset;
+                    index = 0;
+                    while (buffer.hasRemaining() && channel.read(buffer, bufferStart + buffer.position()) > 0) {
+                        // fill the buffer as far as the file allows
+                    }
+                    buffer.flip();
+                    if (buffer.limit() < RECORD_SIZE) {
+                        break;
+                    }
+                }
+
+                long recordSequence = buffer.getLong(index);
+                JournalOperation operation = JournalOperation.byId(buffer.getInt(index + 48));
+                if (recordSequence <= last || operation == null || !isIntact(array, index)) {
+                    break;
+                }
+                last = recordSequence;
+                offset += RECORD_SIZE;
+                if (operation == JournalOperation.BANK_NAME) {
+                    name.write(array, index + 8, NAME_CHUNK);
+                    continue;
+                }
+
+                long amount = buffer.getLong(index + 24);
+                String bankName = null;
+                if (operation == JournalOperation.CREATE_BANK) {
+                    if (amount < 0 || amount > name.size() || name.size() - amount >= NAME_CHUNK) {
+                        break;
+                    }
+                    bankName = new String(name.toByteArray(), 0, (int) amount, StandardCharsets.UTF_8);
+                } else if (name.size() > 0) {
+                    break;
+                }
+                name.reset();
+                if (recordSequence > afterSequence) {
+                    UUID playerId = new UUID(buffer.getLong(index + 8), buffer.getLong(index + 16));
+                    UUID target = operation == JournalOperation.TRANSFER
+                            ? new UUID(buffer.getLong(index + 32), buffer.getLong(index + 40)) : null;
+                    listener.onRecord(recordSequence, operation, playerId, target, amount, bankName);
+                }
+                lastComplete = recordSequence;
+                end = offset;
+            }
+
+            // drop everything after the last complete record: records past a torn one were never acknowledged, and
+            // appending over them while they stay on disk would let a later replay run into them again
+            channel.truncate(end);
+            channel.force(true);
+            this.position = end;
+            this.sequence = Math.max(lastComplete, afterSequence);
+            this.replayed = true;
+            mapRegion(end);
+            committer.start();
+            return lastComplete;
+        }
+    }
+
+    /**
+     * Appends a record for a single account.
+     *
+     * @param operation the operation, anything but a transfer or a bank creation
+     * @param playerId the account
+     * @param amount the amount in minor units
+     * @return a future completing once the record is durable
+     */
+    public CompletableFuture<Void> append(JournalOperation operation, UUID playerId, long amount) {
+        switch (operation) {
+            case TRANSFER:
+                throw new IllegalArgumentException("Transfers need a target, use appendTransfer");
+            case CREATE_BANK:
+            case BANK_NAME:
+                throw new IllegalArgumentException("Banks need a name, use appendBank");
+            default:
+                return write(operation, playerId, null, amount);
+        }
+    }
+
+    /**
+     * Appends a transfer as a single record, so a crash never keeps only one side of it.
+     *
+     * @param from the sender
+     * @param to the receiver
+     * @param amount the amount in minor units
+     * @return a future completing once the record is durable
+     */
+    public CompletableFuture<Void> appendTransfer(UUID from, UUID to, long amount) {
+        return write(JournalOperation.TRANSFER, from, to, amount);
+    }
+
+    /**
+     * Appends the creation of a bank, written at once so a crash never keeps only part of its name.
+     *
+     * @param ownerId the owner of the bank
+     * @param name the name of the bank
+     * @return a future completing once the records are durable
+     */
+    public CompletableFuture<Void> appendBank(UUID ownerId, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer chunks = ByteBuffer.allocate((bytes.length + NAME_CHUNK - 1) / NAME_CHUNK * NAME_CHUNK);
+        chunks.put(bytes);
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            checkWritable();
+            for (int i = 0; i < chunks.capacity(); i += NAME_CHUNK) {
+                put(JournalOperation.BANK_NAME, chunks.getLong(i), chunks.getLong(i + 8), chunks.getLong(i + 16),
+                        chunks.getLong(i + 24), chunks.getLong(i + 32));
+            }
+            put(JournalOperation.CREATE_BANK, ownerId.getMostSignificantBits(), ownerId.getLeastSignificantBits(),
+                    bytes.length, 0, 0);
+            await(future);
+        }
+        return future;
+    }
+
+    /**
+     * Gets the sequence number of the last appended record.
+     *
+     * @return the sequence
+     */
+    public long getSequence() {
+        synchronized (lock) {
+            return sequence;
+        }
+    }
+
+    /**
+     * Forces every appended record to disk now.
+     */
+    public void commit() {
+        List<MappedByteBuffer> toForce;
+        List<CompletableFuture<Void>> toComplete;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            toForce = unforced;
+            toComplete = pending;
+            toForce.add(region);
+            unforced = new ArrayList<>();
+            pending = new ArrayList<>();
+        }
+
+        try {
+            for (MappedByteBuffer buffer : toForce) {
+                buffer.force();
+            }
+            for (CompletableFuture<Void> future : toComplete) {
+                future.complete(null);
+            }
+        } catch (RuntimeException e) {
+            for (CompletableFuture<Void> future : toComplete) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Drops every record up to and including the given sequence, once a snapshot covers them.
+     * <p>
+     * The remaining records are copied to a new file beside the journal, which is forced and then moved over it,
+     * so a crash while compacting leaves either the old or the new journal. Appends wait while the records are
+     * copied, and records still waiting for a commit are durable once this returns.
+     *
+     * @param upToSequence the sequence the snapshot reflects
+     * @throws IOException if the new file cannot be written or moved into place, the journal is then unchanged
+     */
+    public void compact(long upToSequence) throws IOException {
+        List<CompletableFuture<Void>> durable;
+        synchronized (lock) {
+            checkWritable();
+            // records are in sequence order, find the first one the snapshot does not cover
+            long low = 0;
+            long high = (position - HEADER_SIZE) / RECORD_SIZE;
+            ByteBuffer probe = ByteBuffer.allocate(8);
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                probe.clear();
+                channel.read(probe, HEADER_SIZE + middle * RECORD_SIZE);
+                if (probe.getLong(0) <= upToSequence) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            long keepFrom = HEADER_SIZE + low * RECORD_SIZE;
+            if (keepFrom == HEADER_SIZE) {
+                return;
+            }
+
+            Path temporary = file.resolveSibling(file.getFileName() + ".compact");
+            FileChannel compacted = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                writeHeader(compacted);
+                long length = position - keepFrom;
+                long copied = 0;
+                while (copied < length) {
+                    compacted.position(HEADER_SIZE + copied);
+                    copied += channel.transferTo(keepFrom + copied, length - copied, compacted);
+                }
+                compacted.force(true);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                compacted.close();
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+
+            FileChannel previous = channel;
+            channel = compacted;
+            position = HEADER_SIZE + (position - keepFrom);
+            unforced = new ArrayList<>();
+            mapRegion(position);
+            previous.close();
+            // every appended record is now forced in the new file
+            durable = pending;
+            pending = new ArrayList<>();
+        }
+        for (CompletableFuture<Void> future : durable) {
+            future.complete(null);
+        }
+    }
+
+    /**
+     * Commits every pending record and closes the journal.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        if (committer.isAlive()) {
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        commit();
+        channel.close();
+    }
+
+    private CompletableFuture<Void> write(JournalOperation operation, UUID playerId, UUID target, long amount) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            checkWritable();
+            put(operation, playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), amount,
+                    target == null ? 0 : target.getMostSignificantBits(),
+                    target == null ? 0 : target.getLeastSignificantBits());
+            await(future);
+        }
+        return future;
+    }
+
+    private void checkWritable() {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed before appending");
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    /**
+     * Copies one record into the mapped file, must be called holding the lock.
+     */
+    private void put(JournalOperation operation, long msb, long lsb, long amount, long targetMsb, long targetLsb) {
+        long recordSequence = sequence + 1;
+        ByteBuffer record = scratch;
+        record.clear();
+        record.putLong(recordSequence)
+                .putLong(msb)
+                .putLong(lsb)
+                .putLong(amount)
+                .putLong(targetMsb)
+                .putLong(targetLsb)
+                .putInt(operation.getId());
+        crc.reset();
+        crc.update(record.array(), 0, CHECKSUMMED_SIZE);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        try {
+            if (position + RECORD_SIZE > regionStart + region.capacity()) {
+                unforced.add(region);
+                mapRegion(position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        region.position((int) (position - regionStart));
+        region.put(record);
+        position += RECORD_SIZE;
+        sequence = recordSequence;
+    }
+
+    /**
+     * Queues a future to complete with the next commit, must be called holding the lock.
+     */
+    private void await(CompletableFuture<Void> future) {
+        pending.add(future);
+        if (pending.size() >= commitBatchSize) {
+            lock.notifyAll();
+        }
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(MAGIC).putInt(VERSION).putInt(0).flip();
+        channel.write(header, 0);
+        channel.force(true);
+    }
+
+    private void mapRegion(long start) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+        regionStart = start;
+    }
+
+    private boolean isIntact(byte[] array, int offset) {
+        crc.reset();
+        crc.update(array, offset, CHECKSUMMED_SIZE);
+        int stored = (array[offset + CHECKSUMMED_SIZE] & 0xFF) << 24
+                | (array[offset + CHECKSUMMED_SIZE + 1] & 0xFF) << 16
+                | (array[offset + CHECKSUMMED_SIZE + 2] & 0xFF) << 8
+                | (array[offset + CHECKSUMMED_SIZE + 3] & 0xFF);
+        return stored == (int) crc.getValue();
+    }
+
+    private void runCommitter() {
+        while (!closed) {
+            synchronized (lock) {
+                if (pending.size() < commitBatchSize && !closed) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, commitIntervalNanos);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            commit();
+        }
+    }
+}
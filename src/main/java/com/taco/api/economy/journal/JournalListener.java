@@ -0,0 +1,25 @@
+package com.taco.api.economy.journal;
+
+import java.util.UUID;
+
+/**
+ * Receives the records of an {@link EconomyJournal} while it is replayed.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface JournalListener {
+    /**
+     * Applies a replayed record.
+     *
+     * @param sequence the sequence number of the record
+     * @param operation the recorded operation
+     * @param playerId the account the operation applied to, the sender of a transfer, the owner of a bank
+     * @param target the receiver of a transfer, null for every other operation
+     * @param amount the amount in minor units, 0 for account creation
+     * @param bankName the name of a created bank, null for every other operation
+     */
+    void onRecord(long sequence, JournalOperation operation, UUID playerId, UUID target, long amount,
+                  String bankName);
+}
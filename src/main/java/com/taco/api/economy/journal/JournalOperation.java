@@ -0,0 +1,40 @@
+package com.taco.api.economy.journal;
+
+/**
+ * The economy mutations recorded by an {@link EconomyJournal}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public enum JournalOperation {
+    CREATE_ACCOUNT(1),
+    SEND(2),
+    TAKE(3),
+    TRANSFER(4),
+    BANK_WIRE(5),
+    BANK_WITHDRAW(6),
+    CREATE_BANK(7),
+    BANK_NAME(8);
+
+    private static final JournalOperation[] BY_ID = new JournalOperation[9];
+
+    static {
+        for (JournalOperation operation : values()) {
+            BY_ID[operation.id] = operation;
+        }
+    }
+
+    private final int id;
+
+    JournalOperation(int id) {
+        this.id = id;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    static JournalOperation byId(int id) {
+        return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+}
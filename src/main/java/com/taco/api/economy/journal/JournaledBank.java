@@ -0,0 +1,91 @@
+package com.taco.api.economy.journal;
+
+import com.taco.api.economy.Bank;
+
+import java.util.UUID;
+
+/**
+ * A bank of a {@link JournaledEconomy}, refusing every write that would bypass the journal.
+ * <p>
+ * Bank balances change through {@link JournaledEconomy#bankWire} and {@link JournaledEconomy#bankWithdraw}, which
+ * are journaled; the balance and name setters of the bank itself are not, so they throw.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+final class JournaledBank implements Bank {
+    private final Bank bank;
+
+    JournaledBank(Bank bank) {
+        this.bank = bank;
+    }
+
+    static Bank wrap(Bank bank) {
+        return bank == null || bank instanceof JournaledBank ? bank : new JournaledBank(bank);
+    }
+
+    @Override
+    public double getBalance() {
+        return bank.getBalance();
+    }
+
+    @Override
+    public void setBalance(double balance) {
+        throw notJournaled();
+    }
+
+    @Override
+    public double addAndGet(double delta) {
+        throw notJournaled();
+    }
+
+    @Override
+    public boolean compareAndSet(double expected, double update) {
+        throw notJournaled();
+    }
+
+    @Override
+    public boolean withdrawIfAtLeast(double amount) {
+        throw notJournaled();
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return bank.getUniqueId();
+    }
+
+    @Override
+    public String getName() {
+        return bank.getName();
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new UnsupportedOperationException("Renaming a bank is not journaled");
+    }
+
+    @Override
+    public UUID getOwnerId() {
+        return bank.getOwnerId();
+    }
+
+    private static UnsupportedOperationException notJournaled() {
+        return new UnsupportedOperationException(
+                "Bank balances of a journaled economy change only through bankWire and bankWithdraw");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof JournaledBank && bank.equals(((JournaledBank) o).bank);
+    }
+
+    @Override
+    public int hashCode() {
+        return bank.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return bank.toString();
+    }
+}
@@ -0,0 +1,360 @@
+package com.taco.api.economy.journal;
+
+import com.taco.api.economy.BalanceFunction;
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.Currency;
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.ForwardingEconomy;
+import com.taco.api.economy.Futures;
+import com.taco.api.economy.Money;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Makes an in-memory {@link Economy} crash-safe by recording every successful mutation in an {@link EconomyJournal}.
+ * <p>
+ * Each mutation is applied to the wrapped economy first and journaled only if it succeeded; the returned future
+ * completes once the record is durable, so a caller never sees a success that could be lost. On startup call
+ * {@link #replay()} to re-apply the journal to the still empty wrapped economy.
+ * <p>
+ * Mutations of the same account are applied and journaled under one lock stripe, so replay sees them in the order
+ * they happened. This holds when the wrapped economy completes its futures immediately, as in-memory economies do.
+ * Only the global balance of the primary currency is journaled, writes of other currencies or of per-world balances
+ * fail, as do bulk operations. Banks are journaled by owner and name and change only through {@link #bankWire} and
+ * {@link #bankWithdraw}, the banks handed out refuse to be written directly.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class JournaledEconomy extends ForwardingEconomy {
+    private static final CompletableFuture<EconomyResponse> INVALID_AMOUNT =
+            CompletableFuture.completedFuture(EconomyResponse.of(Reason.INVALID_AMOUNT));
+    private static final int STRIPES = 64;
+
+    private final EconomyJournal journal;
+    private final Money money;
+    private final Object[] locks = new Object[STRIPES];
+
+    /**
+     * Creates a journaled economy.
+     *
+     * @param delegate the economy to apply mutations to
+     * @param journal the journal to record mutations in
+     */
+    public JournaledEconomy(Economy delegate, EconomyJournal journal) {
+        super(delegate);
+        this.journal = journal;
+        this.money = delegate.getMoney();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Gets the journal mutations are recorded in.
+     *
+     * @return the journal
+     */
+    public EconomyJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Re-applies every record of the journal to the wrapped economy.
+     *
+     * @return the sequence of the last replayed record
+     * @throws IOException if the journal cannot be read
+     */
+    public long replay() throws IOException {
+        return replay(0);
+    }
+
+    /**
+     * Re-applies the records of the journal after the given sequence to the wrapped economy,
+     * for example after the wrapped economy was loaded from a snapshot taken at that sequence.
+     *
+     * @param afterSequence the sequence the wrapped economy already reflects
+     * @return the sequence of the last replayed record
+     * @throws IOException if the journal cannot be read
+     * @throws IllegalStateException if a record fails to re-apply, as the wrapped economy does not match the journal
+     */
+    public long replay(long afterSequence) throws IOException {
+        return journal.replay(afterSequence, (sequence, operation, playerId, target, amount, bankName) -> {
+            switch (operation) {
+                case CREATE_ACCOUNT:
+                    if (!delegate.createAccount(playerId).join()) {
+                        throw replayFailed(sequence, operation, "the account already exists");
+                    }
+                    break;
+                case CREATE_BANK:
+                    if (delegate.createBank(playerId, bankName).join() == null) {
+                        throw replayFailed(sequence, operation, "no bank was created");
+                    }
+                    break;
+                case SEND:
+                    checkReplayed(sequence, operation, delegate.sendMinor(playerId, amount).join());
+                    break;
+                case TAKE:
+                    checkReplayed(sequence, operation, delegate.takeMinor(playerId, amount).join());
+                    break;
+                case TRANSFER:
+                    checkReplayed(sequence, operation, delegate.transferMinor(playerId, target, amount).join());
+                    break;
+                case BANK_WIRE:
+                    checkReplayed(sequence, operation, delegate.bankWire(playerId, money.toMajor(amount)).join());
+                    break;
+                case BANK_WITHDRAW:
+                    checkReplayed(sequence, operation, delegate.bankWithdraw(playerId, money.toMajor(amount)).join());
+                    break;
+                default:
+                    throw replayFailed(sequence, operation, "the operation is not replayable");
+            }
+        });
+    }
+
+    private static void checkReplayed(long sequence, JournalOperation operation, EconomyResponse response) {
+        if (!response.transactionSuccess()) {
+            throw replayFailed(sequence, operation, String.valueOf(response.reason));
+        }
+    }
+
+    private static IllegalStateException replayFailed(long sequence, JournalOperation operation, String why) {
+        return new IllegalStateException("Journal record " + sequence + " (" + operation + ") could not be replayed: "
+                + why);
+    }
+
+    /**
+     * Runs an action while no mutation is being applied or journaled, for example to capture a snapshot
+     * that matches {@link EconomyJournal#getSequence()} exactly.
+     *
+     * @param action the action to run, which should be short as every write waits for it
+     * @param <T> the result type
+     * @return the result of the action
+     */
+    public <T> T pauseWrites(Supplier<T> action) {
+        return pauseWrites(0, action);
+    }
+
+    private <T> T pauseWrites(int stripe, Supplier<T> action) {
+        if (stripe == STRIPES) {
+            return action.get();
+        }
+        synchronized (locks[stripe]) {
+            return pauseWrites(stripe + 1, action);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        CompletableFuture<Boolean> created;
+        CompletableFuture<Void> durable = null;
+        synchronized (lock(playerId)) {
+            created = delegate.createAccount(playerId);
+            if (created.isDone() && !created.isCompletedExceptionally() && created.join()) {
+                durable = journal.append(JournalOperation.CREATE_ACCOUNT, playerId, 0);
+            }
+        }
+        if (durable != null) {
+            return durable.thenCombine(created, (ignored, result) -> result);
+        }
+        return created.thenCompose(result -> result
+                ? journal.append(JournalOperation.CREATE_ACCOUNT, playerId, 0).thenApply(ignored -> true)
+                : CompletableFuture.completedFuture(false));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : sendMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return record(JournalOperation.SEND, playerId, null, minor, () -> delegate.sendMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : takeMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return record(JournalOperation.TAKE, playerId, null, minor, () -> delegate.takeMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : transferMinor(from, to, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        return record(JournalOperation.TRANSFER, from, to, minor, () -> delegate.transferMinor(from, to, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return currency.isPrimary() ? send(playerId, amount) : notJournaled(currency.getName());
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return currency.isPrimary() ? take(playerId, amount) : notJournaled(currency.getName());
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        return delegate.implementationSupportsWorlds() ? notJournaled("balances of " + world.getName())
+                : send(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        return delegate.implementationSupportsWorlds() ? notJournaled("balances of " + world.getName())
+                : take(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAll(BalanceFunction function) {
+        return notJournaled("bulk operations");
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        return notJournaled("bulk operations");
+    }
+
+    @Override
+    public CompletableFuture<Bank> createBank(UUID playerId, String bankName) {
+        CompletableFuture<Bank> created;
+        CompletableFuture<Void> durable = null;
+        synchronized (lock(playerId)) {
+            created = delegate.createBank(playerId, bankName);
+            if (created.isDone() && !created.isCompletedExceptionally() && created.join() != null) {
+                durable = journal.appendBank(playerId, bankName);
+            }
+        }
+        if (durable != null) {
+            return durable.thenCombine(created, (ignored, bank) -> JournaledBank.wrap(bank));
+        }
+        return created.thenCompose(bank -> bank == null ? CompletableFuture.completedFuture(null)
+                : journal.appendBank(playerId, bankName).thenApply(ignored -> JournaledBank.wrap(bank)));
+    }
+
+    @Override
+    public Set<Bank> getBanks() {
+        Set<Bank> banks = new HashSet<>();
+        delegate.forEachBank(bank -> banks.add(JournaledBank.wrap(bank)));
+        return banks;
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBank(UUID bankId) {
+        return delegate.getBank(bankId).thenApply(JournaledBank::wrap);
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBankByName(String name) {
+        return delegate.getBankByName(name).thenApply(JournaledBank::wrap);
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        return delegate.getBanksOwnedBy(ownerId).thenApply(JournaledEconomy::wrapBanks);
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        return delegate.getBanks(after, limit).thenApply(JournaledEconomy::wrapBanks);
+    }
+
+    @Override
+    public void forEachBank(Consumer<? super Bank> action) {
+        delegate.forEachBank(bank -> action.accept(JournaledBank.wrap(bank)));
+    }
+
+    private static List<Bank> wrapBanks(List<Bank> banks) {
+        List<Bank> wrapped = new ArrayList<>(banks.size());
+        for (Bank bank : banks) {
+            wrapped.add(JournaledBank.wrap(bank));
+        }
+        return wrapped;
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT
+                : record(JournalOperation.BANK_WIRE, playerId, null, minor, () -> delegate.bankWire(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT
+                : record(JournalOperation.BANK_WITHDRAW, playerId, null, minor, () -> delegate.bankWithdraw(playerId, amount));
+    }
+
+    /**
+     * Refuses writes the journal format cannot record: secondary currencies, world balances and bulk operations.
+     */
+    private static <T> CompletableFuture<T> notJournaled(String what) {
+        return Futures.unsupported(
+                "Cannot journal " + what + ", only single writes of the global primary currency are journaled");
+    }
+
+    private CompletableFuture<EconomyResponse> record(JournalOperation operation, UUID playerId, UUID target,
+                                                      long minor, Supplier<CompletableFuture<EconomyResponse>> action) {
+        int firstStripe = stripe(playerId);
+        int secondStripe = target == null ? firstStripe : stripe(target);
+        Object first = locks[Math.min(firstStripe, secondStripe)];
+        Object second = locks[Math.max(firstStripe, secondStripe)];
+
+        CompletableFuture<EconomyResponse> applied;
+        CompletableFuture<Void> durable = null;
+        synchronized (first) {
+            synchronized (second) {
+                applied = action.get();
+                if (!applied.isDone()) {
+                    return applied.thenCompose(response -> response.transactionSuccess()
+                            ? append(operation, playerId, target, minor).thenApply(ignored -> response)
+                            : CompletableFuture.completedFuture(response));
+                }
+                EconomyResponse response = applied.isCompletedExceptionally() ? null : applied.join();
+                if (response != null && response.transactionSuccess()) {
+                    durable = append(operation, playerId, target, minor);
+                }
+            }
+        }
+        return durable == null ? applied : durable.thenCombine(applied, (ignored, response) -> response);
+    }
+
+    private CompletableFuture<Void> append(JournalOperation operation, UUID playerId, UUID target, long minor) {
+        return operation == JournalOperation.TRANSFER
+                ? journal.appendTransfer(playerId, target, minor)
+                : journal.append(operation, playerId, minor);
+    }
+
+    private Object lock(UUID playerId) {
+        return locks[stripe(playerId)];
+    }
+
+    private static int stripe(UUID playerId) {
+        return (playerId.hashCode() & 0x7FFFFFFF) % STRIPES;
+    }
+}
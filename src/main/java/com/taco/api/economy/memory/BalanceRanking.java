@@ -0,0 +1,259 @@
+package com.taco.api.economy.memory;
+
+import com.taco.api.economy.BalanceEntry;
+import com.taco.api.economy.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An incrementally maintained balance leaderboard.
+ * <p>
+ * Accounts are kept in a treap ordered by balance, richest first and then by UUID, where every node knows the size
+ * of its subtree, so both the rank of an account and the start of any page are found in O(log n). The ranking
+ * never stores balances it was told about: {@link #refresh(UUID)} re-reads the account from the balance map while
+ * holding the ranking lock, so refreshes racing each other always leave the latest balance behind.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+final class BalanceRanking {
+    private final UuidLongMap source;
+    private final UuidLongMap ranked = new UuidLongMap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    private int seed = 0x9E3779B9;
+
+    BalanceRanking(UuidLongMap source) {
+        this.source = source;
+    }
+
+    /**
+     * Ranks every account currently in the balance map.
+     */
+    void build() {
+        lock.writeLock().lock();
+        try {
+            long[] entries = source.toArray();
+            for (int i = 0; i < entries.length; i += 3) {
+                update(entries[i], entries[i + 1], entries[i + 2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves an account to the position of its current balance, or removes it if it no longer exists.
+     *
+     * @param playerId the account
+     */
+    void refresh(UUID playerId) {
+        lock.writeLock().lock();
+        try {
+            long balance = source.get(playerId, UuidLongMap.NO_KEY);
+            update(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), balance);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the rank of an account.
+     *
+     * @param playerId the account
+     * @return the rank, 1 being the richest, or 0 if the account is not ranked
+     */
+    int rank(UUID playerId) {
+        lock.readLock().lock();
+        try {
+            long balance = ranked.get(playerId, UuidLongMap.NO_KEY);
+            if (balance == UuidLongMap.NO_KEY) {
+                return 0;
+            }
+            long msb = playerId.getMostSignificantBits(), lsb = playerId.getLeastSignificantBits();
+            int before = 0;
+            Node node = root;
+            while (node != null) {
+                int result = compare(balance, msb, lsb, node);
+                if (result == 0) {
+                    return before + size(node.left) + 1;
+                }
+                if (result < 0) {
+                    node = node.left;
+                } else {
+                    before += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a page of the leaderboard.
+     *
+     * @param count the maximum number of entries
+     * @param offset the number of entries to skip
+     * @param money the scale to convert balances with
+     * @return the entries, richest first
+     */
+    List<BalanceEntry> page(int count, int offset, Money money) {
+        lock.readLock().lock();
+        try {
+            int total = size(root);
+            if (count <= 0 || offset < 0 || offset >= total) {
+                return new ArrayList<>(0);
+            }
+            List<BalanceEntry> page = new ArrayList<>(Math.min(count, total - offset));
+            collect(root, offset, offset + 1, count, page, money);
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(long msb, long lsb, long balance) {
+        long previous = ranked.get(new UUID(msb, lsb), UuidLongMap.NO_KEY);
+        if (previous == balance) {
+            return;
+        }
+        if (previous != UuidLongMap.NO_KEY) {
+            Node[] parts = split(root, previous, msb, lsb, false);
+            Node[] rest = split(parts[1], previous, msb, lsb, true);
+            root = merge(parts[0], rest[1]);
+        }
+        if (balance == UuidLongMap.NO_KEY) {
+            ranked.remove(new UUID(msb, lsb));
+            return;
+        }
+        Node[] parts = split(root, balance, msb, lsb, false);
+        root = merge(merge(parts[0], new Node(balance, msb, lsb, nextPriority())), parts[1]);
+        ranked.put(msb, lsb, balance);
+    }
+
+    /**
+     * Collects the entries of a subtree, skipping the first {@code skip}.
+     *
+     * @param rank the rank of the first collected entry
+     */
+    private static void collect(Node node, int skip, int rank, int count, List<BalanceEntry> page, Money money) {
+        while (node != null && page.size() < count) {
+            int leftSize = size(node.left);
+            if (skip < leftSize) {
+                collect(node.left, skip, rank, count, page, money);
+                if (page.size() >= count) {
+                    return;
+                }
+                rank += leftSize - skip;
+                skip = 0;
+            } else {
+                skip -= leftSize;
+            }
+            if (skip == 0) {
+                page.add(new BalanceEntry(new UUID(node.msb, node.lsb), money.toMajor(node.balance), rank++));
+            } else {
+                skip--;
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before a key and the rest,
+     * or before-or-equal and the rest if inclusive.
+     */
+    private static Node[] split(Node node, long balance, long msb, long lsb, boolean inclusive) {
+        if (node == null) {
+            return new Node[2];
+        }
+        int result = compare(balance, msb, lsb, node);
+        if (result > 0 || (inclusive && result == 0)) {
+            Node[] parts = split(node.right, balance, msb, lsb, inclusive);
+            node.right = parts[0];
+            node.resize();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, balance, msb, lsb, inclusive);
+        node.left = parts[1];
+        node.resize();
+        parts[1] = node;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.resize();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.resize();
+        return right;
+    }
+
+    /**
+     * Compares a key to a node, richest first and then by UUID.
+     */
+    private static int compare(long balance, long msb, long lsb, Node node) {
+        int result = Long.compare(node.balance, balance);
+        if (result != 0) {
+            return result;
+        }
+        result = Long.compare(msb, node.msb);
+        return result != 0 ? result : Long.compare(lsb, node.lsb);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        return seed = x;
+    }
+
+    private static final class Node {
+        final long balance;
+        final long msb;
+        final long lsb;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long balance, long msb, long lsb, int priority) {
+            this.balance = balance;
+            this.msb = msb;
+            this.lsb = lsb;
+            this.priority = priority;
+        }
+
+        void resize() {
+            size = 1 + BalanceRanking.size(left) + BalanceRanking.size(right);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.taco.api.economy.memory;
+
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.Money;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bank held by a {@link MemoryEconomy}, storing its balance in minor units.
+ * Bank names are unique ignoring case, renaming a bank to a name another bank has fails.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class MemoryBank implements Bank {
+    private final UUID uniqueId;
+    private final UUID ownerId;
+    private final Money money;
+    private final AtomicLong balance = new AtomicLong();
+    private final Map<String, MemoryBank> nameIndex;
+    private volatile String name;
+
+    MemoryBank(UUID uniqueId, UUID ownerId, String name, Money money, Map<String, MemoryBank> nameIndex) {
+        this.uniqueId = uniqueId;
+        this.ownerId = ownerId;
+        this.name = name;
+        this.money = money;
+        this.nameIndex = nameIndex;
+    }
+
+    @Override
+    public double getBalance() {
+        return money.toMajor(balance.get());
+    }
+
+    @Override
+    public void setBalance(double balance) {
+        this.balance.set(money.toMinor(balance));
+    }
+
+    /**
+     * Adds an amount to the balance with a single compare-and-set loop.
+     *
+     * @param delta the amount to add, negative to subtract
+     * @return the new balance
+     * @throws ArithmeticException if the balance would overflow
+     */
+    @Override
+    public double addAndGet(double delta) {
+        long updated = addAndGetMinor(money.toMinor(delta), Long.MIN_VALUE);
+        if (updated == UuidLongMap.REJECTED) {
+            throw new ArithmeticException("Bank balance overflow");
+        }
+        return money.toMajor(updated);
+    }
+
+    @Override
+    public boolean compareAndSet(double expected, double update) {
+        return balance.compareAndSet(money.toMinor(expected), money.toMinor(update));
+    }
+
+    @Override
+    public boolean withdrawIfAtLeast(double amount) {
+        if (!(amount >= 0)) {
+            throw new IllegalArgumentException("Amount must be a positive number: " + amount);
+        }
+        return addAndGetMinor(-money.toMinor(amount), 0) != UuidLongMap.REJECTED;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renames the bank.
+     *
+     * @param name the new name
+     * @throws IllegalArgumentException if another bank has this name, ignoring case
+     */
+    @Override
+    public synchronized void setName(String name) {
+        String key = indexKey(name);
+        MemoryBank owner = nameIndex.putIfAbsent(key, this);
+        if (owner != null && owner != this) {
+            throw new IllegalArgumentException("A bank named " + owner.getName() + " already exists");
+        }
+        String previous = indexKey(this.name);
+        if (!previous.equals(key)) {
+            nameIndex.remove(previous, this);
+        }
+        this.name = name;
+    }
+
+    /**
+     * Gets the balance in minor units.
+     *
+     * @return the balance
+     */
+    public long getBalanceMinor() {
+        return balance.get();
+    }
+
+    void setBalanceMinor(long minor) {
+        balance.set(minor);
+    }
+
+    /**
+     * Atomically adds minor units to the balance.
+     *
+     * @param delta the amount to add, may be negative
+     * @param floor the lowest balance the bank may be left at
+     * @return the new balance, or {@link UuidLongMap#REJECTED} if it would fall below the floor or overflow
+     */
+    long addAndGetMinor(long delta, long floor) {
+        while (true) {
+            long current = balance.get();
+            long updated = current + delta;
+            if (((current ^ updated) & (delta ^ updated)) < 0 || updated < floor) {
+                return UuidLongMap.REJECTED;
+            }
+            if (balance.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    static String indexKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryBank{" + name + ", balance=" + getBalance() + '}';
+    }
+}
@@ -0,0 +1,865 @@
+package com.taco.api.economy.memory;
+
+import com.taco.api.economy.BalanceEntry;
+import com.taco.api.economy.BalanceEvents;
+import com.taco.api.economy.BalanceFunction;
+import com.taco.api.economy.BalanceListener;
+import com.taco.api.economy.BalanceSubscription;
+import com.taco.api.economy.Balances;
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.Currency;
+import com.taco.api.economy.CurrencyRegistry;
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.FundsCheck;
+import com.taco.api.economy.Futures;
+import com.taco.api.economy.Money;
+import com.taco.api.economy.TransactionCallback;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A reference {@link Economy} that keeps every balance in memory.
+ * <p>
+ * Balances are stored as minor units (for example cents) in a lock-striped {@link UuidLongMap}, so no operation
+ * boxes or rounds a balance. Each account holds one column per {@link Currency#getId()} in the same map entry,
+ * while per-world balances live in a separate map per {@link World}; a world account must be created before it
+ * can be used. Each player may own one bank, found by id, by owner or by its name ignoring case.
+ * <p>
+ * All data is in memory, so every future is returned already completed on the calling thread. Failures that move
+ * no money, such as a missing account, complete with a shared response, and the {@link TransactionCallback}
+ * overloads report writes without allocating at all.
+ * <p>
+ * Balance events, the leaderboard and snapshots cover the global balance of the primary currency. Events are
+ * published on the writing thread. The leaderboard costs every write a trip through a shared lock, so it is only
+ * kept after {@link #enableRanking()}. Bulk operations update the map stripe by stripe in parallel on the common
+ * fork-join pool.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class MemoryEconomy implements Economy {
+    private static final CompletableFuture<Boolean> TRUE = CompletableFuture.completedFuture(true);
+    private static final CompletableFuture<Boolean> FALSE = CompletableFuture.completedFuture(false);
+
+    private static final CompletableFuture<EconomyResponse> NO_ACCOUNT = rejected(Reason.NO_ACCOUNT);
+    private static final CompletableFuture<EconomyResponse> NO_BANK = rejected(Reason.NO_BANK);
+    private static final CompletableFuture<EconomyResponse> INVALID_AMOUNT = rejected(Reason.INVALID_AMOUNT);
+
+    private final String name;
+    private final Money money;
+    private final long startingBalance;
+    private final String formatPattern;
+    private final CurrencyRegistry currencies;
+    private final UuidLongMap balances;
+    private final WorldBalances worlds = new WorldBalances();
+    private final Map<UUID, MemoryBank> banks = new ConcurrentHashMap<>();
+    private final NavigableMap<UUID, MemoryBank> banksById = new ConcurrentSkipListMap<>();
+    private final Map<String, MemoryBank> banksByName = new ConcurrentHashMap<>();
+    private final BalanceEvents events = new BalanceEvents();
+    private volatile BalanceRanking ranking;
+
+    /**
+     * Creates an economy with two fractional digits and a starting balance of 0.
+     *
+     * @param name the name of the economy
+     */
+    public MemoryEconomy(String name) {
+        this(name, 2, 0);
+    }
+
+    /**
+     * Creates an economy.
+     *
+     * @param name the name of the economy
+     * @param fractionalDigits the number of digits after the decimal point, 0 to 9
+     * @param startingBalance the balance of newly created accounts
+     */
+    public MemoryEconomy(String name, int fractionalDigits, double startingBalance) {
+        this(name, Money.of(fractionalDigits), Money.of(fractionalDigits).toMinor(startingBalance));
+    }
+
+    /**
+     * Creates an economy.
+     *
+     * @param name the name of the economy
+     * @param money the scale balances are kept at
+     * @param startingBalance the balance of newly created accounts, in minor units
+     */
+    public MemoryEconomy(String name, Money money, long startingBalance) {
+        this(name, singleCurrency(name, money), startingBalance);
+    }
+
+    /**
+     * Creates an economy holding several currencies. Currencies may still be registered afterwards,
+     * up to the capacity of the registry.
+     *
+     * @param name the name of the economy
+     * @param currencies the currencies, with the primary currency already registered
+     * @param startingBalance the primary currency balance of newly created accounts, in minor units
+     */
+    public MemoryEconomy(String name, CurrencyRegistry currencies, long startingBalance) {
+        Currency primary = currencies.get(0);
+        if (primary == null) {
+            throw new IllegalArgumentException("The primary currency must be registered first");
+        }
+        this.name = name;
+        this.money = primary.getMoney();
+        this.startingBalance = startingBalance;
+        this.formatPattern = formatPattern(money);
+        this.currencies = currencies;
+        this.balances = new UuidLongMap(64, 16, currencies.getCapacity());
+    }
+
+    @Override
+    public String format(double amount) {
+        return String.format(Locale.ROOT, formatPattern, amount);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Money getMoney() {
+        return money;
+    }
+
+    /**
+     * Gets the number of accounts.
+     *
+     * @return the number of accounts
+     */
+    public int getAccountCount() {
+        return balances.size();
+    }
+
+    /**
+     * Copies every account balance as a consistent point-in-time view, for example to write a snapshot.
+     *
+     * @return the balances as consecutive (msb, lsb, minor units) triples
+     */
+    public long[] copyBalances() {
+        return balances.toArray();
+    }
+
+    /**
+     * Sets the balance of an account, creating it if needed, for example while loading a snapshot.
+     * This bypasses every check and is safe to call from many threads at once.
+     *
+     * @param msb the most significant bits of the player's UUID
+     * @param lsb the least significant bits of the player's UUID
+     * @param minor the balance in minor units
+     */
+    public void restoreBalance(long msb, long lsb, long minor) {
+        balances.put(msb, lsb, minor);
+        if (ranking != null || events.hasListeners()) {
+            changed(new UUID(msb, lsb), minor);
+        }
+    }
+
+    /**
+     * Recreates a bank with its original id, replacing any bank of the same owner, for example while loading
+     * a snapshot.
+     *
+     * @param bankId the unique id of the bank
+     * @param ownerId the owner of the bank
+     * @param bankName the name of the bank
+     * @param minor the balance in minor units
+     */
+    public void restoreBank(UUID bankId, UUID ownerId, String bankName, long minor) {
+        MemoryBank bank = new MemoryBank(bankId, ownerId, bankName, money, banksByName);
+        bank.setBalanceMinor(minor);
+        banksByName.put(MemoryBank.indexKey(bankName), bank);
+        MemoryBank previous = banks.put(ownerId, bank);
+        if (previous != null) {
+            banksById.remove(previous.getUniqueId(), previous);
+            banksByName.remove(MemoryBank.indexKey(previous.getName()), previous);
+        }
+        banksById.put(bankId, bank);
+    }
+
+    /**
+     * Starts maintaining the balance leaderboard, ranking every existing account.
+     * Call this after loading a snapshot, as each restored balance would otherwise be ranked one by one.
+     */
+    public synchronized void enableRanking() {
+        if (ranking != null) {
+            return;
+        }
+        BalanceRanking ranking = new BalanceRanking(balances);
+        // Writes start refreshing before the build, and wait for it on the ranking lock, so none is missed.
+        this.ranking = ranking;
+        ranking.build();
+    }
+
+    /**
+     * Gets the registry of the currencies of this economy.
+     *
+     * @return the currencies
+     */
+    public CurrencyRegistry getCurrencyRegistry() {
+        return currencies;
+    }
+
+    @Override
+    public boolean implementationSupportsCurrencies() {
+        return true;
+    }
+
+    @Override
+    public List<Currency> getCurrencies() {
+        return currencies.getCurrencies();
+    }
+
+    @Override
+    public Currency getCurrency(String name) {
+        return currencies.get(name);
+    }
+
+    @Override
+    public String format(double amount, Currency currency) {
+        return currency.getMoney() == money ? format(amount)
+                : String.format(Locale.ROOT, formatPattern(currency.getMoney()), amount);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        checkCurrency(currency);
+        return CompletableFuture.completedFuture(currency.getMoney().toMajor(balances.get(playerId, currency.getId(), 0)));
+    }
+
+    @Override
+    public CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        long[] minor = new long[balances.width()];
+        balances.getAll(playerId, minor);
+        List<Currency> registered = currencies.getCurrencies();
+        double[] major = new double[registered.size()];
+        for (int i = 0; i < major.length; i++) {
+            major[i] = registered.get(i).getMoney().toMajor(minor[i]);
+        }
+        return CompletableFuture.completedFuture(major);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        checkCurrency(currency);
+        if (currency.isPrimary()) {
+            return send(playerId, amount);
+        }
+        long minor = currency.getMoney().toMinorAmount(amount);
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        long balance = balances.addAndGet(playerId, currency.getId(), minor, Long.MIN_VALUE);
+        return respond(amount, balance, balances, playerId, currency.getId(), currency.getMoney(), Reason.BALANCE_LIMIT);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        checkCurrency(currency);
+        if (currency.isPrimary()) {
+            return take(playerId, amount);
+        }
+        long minor = currency.getMoney().toMinorAmount(amount);
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        long balance = balances.addAndGet(playerId, currency.getId(), -minor, 0);
+        return respond(amount, balance, balances, playerId, currency.getId(), currency.getMoney(), Reason.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public boolean implementationSupportsWorlds() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, World world) {
+        UuidLongMap balances = worlds.get(world);
+        return CompletableFuture.completedFuture(balances == null ? 0 : toMajor(balances.get(playerId, 0)));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        long minor = money.toMinorAmount(amount);
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        UuidLongMap balances = worlds.get(world);
+        if (balances == null) {
+            return NO_ACCOUNT;
+        }
+        long balance = balances.addAndGet(playerId, minor, Long.MIN_VALUE);
+        return respond(amount, balance, balances, playerId, 0, money, Reason.BALANCE_LIMIT);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        long minor = money.toMinorAmount(amount);
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        UuidLongMap balances = worlds.get(world);
+        if (balances == null) {
+            return NO_ACCOUNT;
+        }
+        long balance = balances.addAndGet(playerId, -minor, 0);
+        return respond(amount, balance, balances, playerId, 0, money, Reason.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId, World world) {
+        UuidLongMap balances = worlds.get(world);
+        return balances != null && balances.containsKey(playerId) ? TRUE : FALSE;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId, World world) {
+        return worlds.getOrCreate(world).putIfAbsent(playerId, startingBalance) ? TRUE : FALSE;
+    }
+
+    @Override
+    public boolean implementationSupportsEvents() {
+        return true;
+    }
+
+    @Override
+    public BalanceSubscription subscribe(BalanceListener listener) {
+        return events.subscribe(listener);
+    }
+
+    @Override
+    public boolean implementationSupportsRanking() {
+        return ranking != null;
+    }
+
+    @Override
+    public CompletableFuture<List<BalanceEntry>> getTopBalances(int count, int offset) {
+        BalanceRanking ranking = this.ranking;
+        if (ranking == null) {
+            return Economy.super.getTopBalances(count, offset);
+        }
+        return CompletableFuture.completedFuture(ranking.page(count, offset, money));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        BalanceRanking ranking = this.ranking;
+        if (ranking == null) {
+            return Economy.super.getRank(playerId);
+        }
+        return CompletableFuture.completedFuture(ranking.rank(playerId));
+    }
+
+    @Override
+    public boolean implementationSupportsBulkOperations() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAll(BalanceFunction function) {
+        return bulk((playerId, balance) -> Math.max(function.apply(playerId, balance), 0));
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        // the filter may read the economy, so it runs before any stripe is write locked
+        return CompletableFuture.supplyAsync(() -> select(filter), ForkJoinPool.commonPool())
+                .thenCompose(selected -> bulk((playerId, balance) -> selected.contains(playerId)
+                        ? Math.max(function.apply(playerId, balance), 0) : balance));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        return CompletableFuture.completedFuture(toMajor(balances.get(playerId, 0)));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player) {
+        return getBalance(player.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        return CompletableFuture.completedFuture(balances.get(playerId, 0));
+    }
+
+    /**
+     * Gets the balance of the player in minor units, without allocating.
+     *
+     * @param playerId the player
+     * @param missing the value returned when the player has no account
+     * @return the balance in minor units, or missing
+     */
+    public long getCachedBalanceMinor(UUID playerId, long missing) {
+        return balances.get(playerId, missing);
+    }
+
+    @Override
+    public CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        Balances.Builder builder = Balances.builder(playerIds.size());
+        for (UUID playerId : playerIds) {
+            builder.put(playerId, toMajor(balances.get(playerId, 0)));
+        }
+        return CompletableFuture.completedFuture(builder.build());
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, double amount) {
+        return send(player.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : sendMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        long balance = balances.addAndGet(playerId, minor, Long.MIN_VALUE);
+        return respond(minor, balance, playerId, Reason.BALANCE_LIMIT);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, double amount) {
+        return take(player.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : takeMinor(playerId, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        long balance = balances.addAndGet(playerId, -minor, 0);
+        return respond(minor, balance, playerId, Reason.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        long minor = money.toMinorAmount(amount);
+        return minor < 0 ? INVALID_AMOUNT : transferMinor(from, to, minor);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        long balance = balances.transfer(from, to, minor, 0);
+        if (balance != UuidLongMap.NO_KEY && balance != UuidLongMap.REJECTED) {
+            credited(to);
+        }
+        return respond(minor, balance, from, Reason.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public void sendMinor(UUID playerId, long minor, TransactionCallback callback) {
+        if (minor < 0) {
+            callback.complete(Reason.INVALID_AMOUNT, 0);
+            return;
+        }
+        complete(balances.addAndGet(playerId, minor, Long.MIN_VALUE), playerId, Reason.BALANCE_LIMIT, callback);
+    }
+
+    @Override
+    public void takeMinor(UUID playerId, long minor, TransactionCallback callback) {
+        if (minor < 0) {
+            callback.complete(Reason.INVALID_AMOUNT, 0);
+            return;
+        }
+        complete(balances.addAndGet(playerId, -minor, 0), playerId, Reason.INSUFFICIENT_FUNDS, callback);
+    }
+
+    @Override
+    public void transferMinor(UUID from, UUID to, long minor, TransactionCallback callback) {
+        if (minor < 0) {
+            callback.complete(Reason.INVALID_AMOUNT, 0);
+            return;
+        }
+        long balance = balances.transfer(from, to, minor, 0);
+        if (balance != UuidLongMap.NO_KEY && balance != UuidLongMap.REJECTED) {
+            credited(to);
+        }
+        complete(balance, from, Reason.INSUFFICIENT_FUNDS, callback);
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return CompletableFuture.completedFuture(getCachedFunds(playerId));
+    }
+
+    @Override
+    public FundsCheck getCachedFunds(UUID playerId) {
+        long balance = balances.get(playerId, UuidLongMap.NO_KEY);
+        return balance == UuidLongMap.NO_KEY ? FundsCheck.NO_ACCOUNT : FundsCheck.of(toMajor(balance));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return balances.containsKey(playerId) ? TRUE : FALSE;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player) {
+        return hasAccount(player.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        if (!balances.putIfAbsent(playerId, startingBalance)) {
+            return FALSE;
+        }
+        changed(playerId, startingBalance);
+        return TRUE;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(OfflinePlayer playerId) {
+        return createAccount(playerId.getUniqueId());
+    }
+
+    @Override
+    public boolean implementationSupportsBanks() {
+        return true;
+    }
+
+    /**
+     * Creates the bank of a player, or returns their existing bank as each player may own only one.
+     * Bank names are unique ignoring case.
+     *
+     * @param playerId the owner of the bank
+     * @param bankName the name of the bank
+     * @return a future completing with the bank, or failing with an {@link IllegalArgumentException}
+     *         if another bank has the name
+     */
+    @Override
+    public CompletableFuture<Bank> createBank(UUID playerId, String bankName) {
+        try {
+            return CompletableFuture.completedFuture(banks.computeIfAbsent(playerId, owner -> {
+                MemoryBank bank = new MemoryBank(UUID.randomUUID(), owner, bankName, money, banksByName);
+                MemoryBank named = banksByName.putIfAbsent(MemoryBank.indexKey(bankName), bank);
+                if (named != null) {
+                    throw new IllegalArgumentException("A bank named " + named.getName() + " already exists");
+                }
+                banksById.put(bank.getUniqueId(), bank);
+                return bank;
+            }));
+        } catch (IllegalArgumentException e) {
+            return Futures.failed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        return CompletableFuture.completedFuture(getCachedBankFunds(playerId));
+    }
+
+    @Override
+    public FundsCheck getCachedBankFunds(UUID playerId) {
+        MemoryBank bank = banks.get(playerId);
+        return bank == null ? FundsCheck.NO_ACCOUNT : FundsCheck.of(toMajor(bank.getBalanceMinor()));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(UUID playerId) {
+        return banks.containsKey(playerId) ? TRUE : FALSE;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(OfflinePlayer playerId) {
+        return bankHasAccount(playerId.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        return bankAdd(playerId, amount, false);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(OfflinePlayer playerId, double amount) {
+        return bankWire(playerId.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        return bankAdd(playerId, amount, true);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(OfflinePlayer playerId, double amount) {
+        return bankWithdraw(playerId.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(UUID playerId) {
+        MemoryBank bank = banks.get(playerId);
+        return CompletableFuture.completedFuture(bank == null ? 0 : toMajor(bank.getBalanceMinor()));
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(OfflinePlayer playerId) {
+        return bankBalance(playerId.getUniqueId());
+    }
+
+    @Override
+    public Set<Bank> getBanks() {
+        return Collections.unmodifiableSet(new HashSet<>(banks.values()));
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBank(UUID bankId) {
+        return CompletableFuture.completedFuture(banksById.get(bankId));
+    }
+
+    /**
+     * Looks up a bank by its name, ignoring case.
+     *
+     * @param name the name of the bank
+     * @return a future completing with the bank, or with null if there is none
+     */
+    @Override
+    public CompletableFuture<Bank> getBankByName(String name) {
+        return CompletableFuture.completedFuture(banksByName.get(MemoryBank.indexKey(name)));
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        MemoryBank bank = banks.get(ownerId);
+        return CompletableFuture.completedFuture(bank == null
+                ? Collections.<Bank>emptyList() : Collections.<Bank>singletonList(bank));
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        Collection<MemoryBank> tail = after == null ? banksById.values() : banksById.tailMap(after, false).values();
+        List<Bank> page = new ArrayList<>(Math.min(limit, 64));
+        for (MemoryBank bank : tail) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(bank);
+        }
+        return CompletableFuture.completedFuture(page);
+    }
+
+    @Override
+    public void forEachBank(Consumer<? super Bank> action) {
+        banksById.values().forEach(action);
+    }
+
+    /**
+     * Runs a bulk update on the common fork-join pool, one task per stripe of the balance map. The leaderboard
+     * is rebuilt once at the end rather than refreshed per account.
+     */
+    private CompletableFuture<Integer> bulk(UuidLongOperator operator) {
+        UuidLongConsumer changed = events.hasListeners()
+                ? (playerId, balance) -> events.publish(playerId, toMajor(balance))
+                : null;
+        BulkUpdate update = new BulkUpdate(balances, operator, changed, 0, balances.stripeCount());
+        return CompletableFuture.supplyAsync(() -> {
+            int count = ForkJoinPool.commonPool().invoke(update);
+            BalanceRanking ranking = this.ranking;
+            if (ranking != null && count > 0) {
+                ranking.build();
+            }
+            return count;
+        }, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Collects the accounts the filter accepts from a copy of the balance map, holding no lock while it runs.
+     */
+    private Set<UUID> select(Predicate<UUID> filter) {
+        long[] entries = balances.toArray();
+        Set<UUID> selected = new HashSet<>();
+        for (int i = 0; i < entries.length; i += 3) {
+            UUID playerId = new UUID(entries[i], entries[i + 1]);
+            if (filter.test(playerId)) {
+                selected.add(playerId);
+            }
+        }
+        return selected;
+    }
+
+    private CompletableFuture<EconomyResponse> bankAdd(UUID playerId, double amount, boolean withdraw) {
+        long minor = money.toMinorAmount(amount);
+        if (minor < 0) {
+            return INVALID_AMOUNT;
+        }
+        MemoryBank bank = banks.get(playerId);
+        if (bank == null) {
+            return NO_BANK;
+        }
+        long balance = withdraw ? bank.addAndGetMinor(-minor, 0) : bank.addAndGetMinor(minor, Long.MIN_VALUE);
+        if (balance == UuidLongMap.REJECTED) {
+            return failure(amount, toMajor(bank.getBalanceMinor()), withdraw ? Reason.INSUFFICIENT_FUNDS : Reason.BALANCE_LIMIT);
+        }
+        return success(amount, toMajor(balance));
+    }
+
+    private CompletableFuture<EconomyResponse> respond(long minor, long balance, UUID playerId, Reason rejected) {
+        double amount = toMajor(minor);
+        if (balance == UuidLongMap.NO_KEY) {
+            return NO_ACCOUNT;
+        }
+        if (balance == UuidLongMap.REJECTED) {
+            return failure(amount, toMajor(balances.get(playerId, 0)), rejected);
+        }
+        changed(playerId, balance);
+        return success(amount, toMajor(balance));
+    }
+
+    /**
+     * Builds the response to a write of a secondary currency or a world balance, which have no leaderboard or events.
+     */
+    private CompletableFuture<EconomyResponse> respond(double amount, long balance, UuidLongMap balances, UUID playerId,
+                                                       int column, Money money, Reason rejected) {
+        if (balance == UuidLongMap.NO_KEY) {
+            return NO_ACCOUNT;
+        }
+        if (balance == UuidLongMap.REJECTED) {
+            return failure(amount, money.toMajor(balances.get(playerId, column, 0)), rejected);
+        }
+        return success(amount, money.toMajor(balance));
+    }
+
+    /**
+     * Reports a write of the primary currency to a callback, the allocation-free twin of
+     * {@link #respond(long, long, UUID, Reason)}.
+     */
+    private void complete(long balance, UUID playerId, Reason rejected, TransactionCallback callback) {
+        if (balance == UuidLongMap.NO_KEY) {
+            callback.complete(Reason.NO_ACCOUNT, 0);
+        } else if (balance == UuidLongMap.REJECTED) {
+            callback.complete(rejected, balances.get(playerId, 0));
+        } else {
+            changed(playerId, balance);
+            callback.complete(Reason.NONE, balance);
+        }
+    }
+
+    private void checkCurrency(Currency currency) {
+        if (!currencies.contains(currency)) {
+            throw new IllegalArgumentException(currency + " is not a currency of " + name);
+        }
+    }
+
+    private void changed(UUID playerId, long balance) {
+        refreshRank(playerId);
+        if (events.hasListeners()) {
+            events.publish(playerId, toMajor(balance));
+        }
+    }
+
+    /**
+     * Refreshes the receiving side of a transfer, whose new balance the transfer does not return.
+     */
+    private void credited(UUID playerId) {
+        refreshRank(playerId);
+        if (events.hasListeners()) {
+            events.publish(playerId, toMajor(balances.get(playerId, 0)));
+        }
+    }
+
+    private void refreshRank(UUID playerId) {
+        BalanceRanking ranking = this.ranking;
+        if (ranking != null) {
+            ranking.refresh(playerId);
+        }
+    }
+
+    private double toMajor(long minor) {
+        return money.toMajor(minor);
+    }
+
+    private static String formatPattern(Money money) {
+        return "%,." + money.getFractionalDigits() + 'f';
+    }
+
+    private static CurrencyRegistry singleCurrency(String name, Money money) {
+        CurrencyRegistry currencies = new CurrencyRegistry(1);
+        currencies.register(name, money);
+        return currencies;
+    }
+
+    private static CompletableFuture<EconomyResponse> success(double amount, double balance) {
+        return CompletableFuture.completedFuture(new EconomyResponse(amount, balance, Reason.NONE));
+    }
+
+    private static CompletableFuture<EconomyResponse> failure(double amount, double balance, Reason reason) {
+        return CompletableFuture.completedFuture(new EconomyResponse(amount, balance, reason));
+    }
+
+    private static CompletableFuture<EconomyResponse> rejected(Reason reason) {
+        return CompletableFuture.completedFuture(EconomyResponse.of(reason));
+    }
+
+    /**
+     * Splits a range of stripes in halves until each task updates a single stripe.
+     */
+    private static final class BulkUpdate extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final UuidLongMap balances;
+        private final UuidLongOperator operator;
+        private final UuidLongConsumer changed;
+        private final int from;
+        private final int to;
+
+        BulkUpdate(UuidLongMap balances, UuidLongOperator operator, UuidLongConsumer changed, int from, int to) {
+            this.balances = balances;
+            this.operator = operator;
+            this.changed = changed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from == 1) {
+                return balances.replaceAll(from, operator, changed);
+            }
+            int middle = (from + to) >>> 1;
+            BulkUpdate left = new BulkUpdate(balances, operator, changed, from, middle);
+            left.fork();
+            int right = new BulkUpdate(balances, operator, changed, middle, to).compute();
+            return right + left.join();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.taco.api.economy.memory;
+
+import java.util.UUID;
+
+/**
+ * Receives an entry of a {@link UuidLongMap} without boxing the value.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface UuidLongConsumer {
+    /**
+     * Accepts an entry.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void accept(UUID key, long value);
+}
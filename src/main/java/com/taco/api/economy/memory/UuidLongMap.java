@@ -0,0 +1,648 @@
+package com.taco.api.economy.memory;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A concurrent, open-addressed map from {@link UUID} to a primitive {@code long}.
+ * <p>
+ * Keys are stored as two longs and values are never boxed. The map is split into lock stripes, each one an
+ * independent linear-probing table guarded by a {@link StampedLock}: reads are optimistic and only fall back
+ * to a read lock when they race a write to the same stripe, writes to different stripes never contend.
+ * <p>
+ * A map may hold a fixed number of values per key, its width, stored side by side in one array. Methods without
+ * a column use the first value.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class UuidLongMap {
+    /**
+     * Returned by the update methods when the key is not present.
+     */
+    public static final long NO_KEY = Long.MIN_VALUE;
+    /**
+     * Returned by the update methods when the new value would fall below the floor or overflow.
+     */
+    public static final long REJECTED = Long.MIN_VALUE + 1;
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int DEFAULT_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int width;
+
+    /**
+     * Creates a map with 64 stripes and one value per key.
+     */
+    public UuidLongMap() {
+        this(DEFAULT_STRIPES, DEFAULT_STRIPE_CAPACITY, 1);
+    }
+
+    /**
+     * Creates a map with one value per key.
+     *
+     * @param stripes the number of lock stripes, rounded up to a power of two
+     * @param initialStripeCapacity the initial number of entries each stripe can hold before growing
+     */
+    public UuidLongMap(int stripes, int initialStripeCapacity) {
+        this(stripes, initialStripeCapacity, 1);
+    }
+
+    /**
+     * Creates a map.
+     *
+     * @param stripes the number of lock stripes, rounded up to a power of two
+     * @param initialStripeCapacity the initial number of entries each stripe can hold before growing
+     * @param width the number of values per key
+     */
+    public UuidLongMap(int stripes, int initialStripeCapacity, int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be at least 1: " + width);
+        }
+        int count = powerOfTwo(Math.max(stripes, 1));
+        this.stripes = new Stripe[count];
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(count);
+        this.width = width;
+        int tableSize = powerOfTwo(Math.max(initialStripeCapacity, 2) * 2);
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(tableSize, width);
+        }
+    }
+
+    /**
+     * Gets the number of values per key.
+     *
+     * @return the width
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key the key
+     * @param missing the value returned when the key is not present
+     * @return the value, or missing
+     */
+    public long get(UUID key, long missing) {
+        return get(key, 0, missing);
+    }
+
+    /**
+     * Gets one value of a key.
+     *
+     * @param key the key
+     * @param column the index of the value, below the width
+     * @param missing the value returned when the key is not present
+     * @return the value, or missing
+     */
+    public long get(UUID key, int column, long missing) {
+        checkColumn(column);
+        long msb = key.getMostSignificantBits(), lsb = key.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+
+        long stamp = stripe.tryOptimisticRead();
+        if (stamp != 0) {
+            long value = stripe.read(msb, lsb, (int) hash, column, missing);
+            if (stripe.validate(stamp)) {
+                return value;
+            }
+        }
+
+        stamp = stripe.readLock();
+        try {
+            return stripe.read(msb, lsb, (int) hash, column, missing);
+        } finally {
+            stripe.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key the key
+     * @return true if the key is present
+     */
+    public boolean containsKey(UUID key) {
+        long msb = key.getMostSignificantBits(), lsb = key.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+
+        long stamp = stripe.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean present = stripe.table.find(msb, lsb, (int) hash) >= 0;
+            if (stripe.validate(stamp)) {
+                return present;
+            }
+        }
+
+        stamp = stripe.readLock();
+        try {
+            return stripe.table.find(msb, lsb, (int) hash) >= 0;
+        } finally {
+            stripe.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies every value of a key.
+     *
+     * @param key the key
+     * @param into the array to copy the values into, at least as long as the width
+     * @return true if the key is present, false if it is not and the array was left untouched
+     */
+    public boolean getAll(UUID key, long[] into) {
+        long msb = key.getMostSignificantBits(), lsb = key.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+        long stamp = stripe.readLock();
+        try {
+            Table table = stripe.table;
+            int slot = table.find(msb, lsb, (int) hash);
+            if (slot < 0) {
+                return false;
+            }
+            System.arraycopy(table.values, slot * width, into, 0, width);
+            return true;
+        } finally {
+            stripe.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Inserts a key if it is not present yet. Values other than the first start at 0.
+     *
+     * @param key the key
+     * @param value the value to insert
+     * @return true if the key was inserted, false if it was already present
+     */
+    public boolean putIfAbsent(UUID key, long value) {
+        long msb = key.getMostSignificantBits(), lsb = key.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+        long stamp = stripe.writeLock();
+        try {
+            int slot = stripe.table.find(msb, lsb, (int) hash);
+            if (slot >= 0) {
+                return false;
+            }
+            stripe.insert(-slot - 1, msb, lsb, value);
+            return true;
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sets the first value of a key, inserting it if needed.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(UUID key, long value) {
+        put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    /**
+     * Sets the first value of a key given as its two halves, inserting it if needed.
+     * This avoids creating a {@link UUID} when keys come from a binary source.
+     *
+     * @param msb the most significant bits of the key
+     * @param lsb the least significant bits of the key
+     * @param value the value
+     */
+    public void put(long msb, long lsb, long value) {
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+        long stamp = stripe.writeLock();
+        try {
+            int slot = stripe.table.find(msb, lsb, (int) hash);
+            if (slot >= 0) {
+                stripe.table.values[slot * width] = value;
+            } else {
+                stripe.insert(-slot - 1, msb, lsb, value);
+            }
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically adds to the value of a present key.
+     *
+     * @param key the key
+     * @param delta the amount to add, may be negative
+     * @param floor the lowest value the key may be left at
+     * @return the new value, {@link #NO_KEY} if the key is not present,
+     * or {@link #REJECTED} if the new value would be below the floor or overflow
+     */
+    public long addAndGet(UUID key, long delta, long floor) {
+        return addAndGet(key, 0, delta, floor);
+    }
+
+    /**
+     * Atomically adds to one value of a present key.
+     *
+     * @param key the key
+     * @param column the index of the value, below the width
+     * @param delta the amount to add, may be negative
+     * @param floor the lowest value the key may be left at
+     * @return the new value, {@link #NO_KEY} if the key is not present,
+     * or {@link #REJECTED} if the new value would be below the floor or overflow
+     */
+    public long addAndGet(UUID key, int column, long delta, long floor) {
+        checkColumn(column);
+        long msb = key.getMostSignificantBits(), lsb = key.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+        long stamp = stripe.writeLock();
+        try {
+            Table table = stripe.table;
+            int slot = table.find(msb, lsb, (int) hash);
+            if (slot < 0) {
+                return NO_KEY;
+            }
+            int index = slot * width + column;
+            long updated = add(table.values[index], delta, floor);
+            if (updated != REJECTED) {
+                table.values[index] = updated;
+            }
+            return updated;
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically moves an amount from one present key to another.
+     * Both stripes are locked in a fixed order, so concurrent transfers cannot deadlock.
+     *
+     * @param from the key to subtract from
+     * @param to the key to add to
+     * @param amount the amount to move, must not be negative
+     * @param floor the lowest value the source key may be left at
+     * @return the new value of the source key, {@link #NO_KEY} if either key is not present,
+     * or {@link #REJECTED} if the source would fall below the floor or the target would overflow
+     */
+    public long transfer(UUID from, UUID to, long amount, long floor) {
+        return transfer(from, to, 0, amount, floor);
+    }
+
+    /**
+     * Atomically moves an amount of one value from one present key to another.
+     *
+     * @param from the key to subtract from
+     * @param to the key to add to
+     * @param column the index of the value, below the width
+     * @param amount the amount to move, must not be negative
+     * @param floor the lowest value the source key may be left at
+     * @return the new value of the source key, {@link #NO_KEY} if either key is not present,
+     * or {@link #REJECTED} if the source would fall below the floor or the target would overflow
+     */
+    public long transfer(UUID from, UUID to, int column, long amount, long floor) {
+        checkColumn(column);
+        long fromMsb = from.getMostSignificantBits(), fromLsb = from.getLeastSignificantBits();
+        long toMsb = to.getMostSignificantBits(), toLsb = to.getLeastSignificantBits();
+        long fromHash = hash(fromMsb, fromLsb), toHash = hash(toMsb, toLsb);
+        int fromStripeIndex = stripeIndex(fromHash), toStripeIndex = stripeIndex(toHash);
+        Stripe fromStripe = stripes[fromStripeIndex], toStripe = stripes[toStripeIndex];
+
+        Stripe first = fromStripeIndex <= toStripeIndex ? fromStripe : toStripe;
+        Stripe second = fromStripeIndex <= toStripeIndex ? toStripe : fromStripe;
+        long firstStamp = first.writeLock();
+        long secondStamp = first == second ? 0 : second.writeLock();
+        try {
+            Table fromTable = fromStripe.table, toTable = toStripe.table;
+            int fromSlot = fromTable.find(fromMsb, fromLsb, (int) fromHash);
+            int toSlot = toTable.find(toMsb, toLsb, (int) toHash);
+            if (fromSlot < 0 || toSlot < 0) {
+                return NO_KEY;
+            }
+            int fromIndex = fromSlot * width + column, toIndex = toSlot * width + column;
+            if (fromTable == toTable && fromSlot == toSlot) {
+                long balance = fromTable.values[fromIndex];
+                return balance - amount < floor ? REJECTED : balance;
+            }
+
+            long fromBalance = add(fromTable.values[fromIndex], -amount, floor);
+            long toBalance = add(toTable.values[toIndex], amount, Long.MIN_VALUE);
+            if (fromBalance == REJECTED || toBalance == REJECTED) {
+                return REJECTED;
+            }
+            fromTable.values[fromIndex] = fromBalance;
+            toTable.values[toIndex] = toBalance;
+            return fromBalance;
+        } finally {
+            if (first != second) {
+                second.unlockWrite(secondStamp);
+            }
+            first.unlockWrite(firstStamp);
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return true if the key was present
+     */
+    public boolean remove(UUID key) {
+        long msb = key.getMostSignificantBits(), lsb = key.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripe(hash);
+        long stamp = stripe.writeLock();
+        try {
+            int slot = stripe.table.find(msb, lsb, (int) hash);
+            if (slot < 0) {
+                return false;
+            }
+            stripe.table.delete(slot);
+            return true;
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the number of keys. The count is exact only while no writes are in flight.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.readLock();
+            try {
+                size += stripe.table.size;
+            } finally {
+                stripe.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Passes the first value of every entry to the consumer. Each stripe is read under its read lock,
+     * so the consumer must not write to this map.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(UuidLongConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.readLock();
+            try {
+                Table table = stripe.table;
+                for (int i = 0; i < table.used.length; i++) {
+                    if (table.used[i]) {
+                        consumer.accept(new UUID(table.msb[i], table.lsb[i]), table.values[i * width]);
+                    }
+                }
+            } finally {
+                stripe.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lock stripes, the unit {@link #replaceAll(int, UuidLongOperator, UuidLongConsumer)}
+     * works on, so bulk updates can be split across threads.
+     *
+     * @return the number of stripes
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Replaces the first value of every entry of one stripe while holding its write lock. Different stripes may
+     * be replaced in parallel. The operator must not access this map, the changed entries are passed to the
+     * consumer once the lock is released.
+     *
+     * @param stripe the index of the stripe, from 0 to {@link #stripeCount()} exclusive
+     * @param operator computes the new value of each entry
+     * @param changed receives every entry whose value changed, with its new value, may be null
+     * @return the number of entries whose value changed
+     */
+    public int replaceAll(int stripe, UuidLongOperator operator, UuidLongConsumer changed) {
+        Stripe target = stripes[stripe];
+        long[] updates = null;
+        int count = 0;
+        long stamp = target.writeLock();
+        try {
+            Table table = target.table;
+            for (int i = 0; i < table.used.length; i++) {
+                if (!table.used[i]) {
+                    continue;
+                }
+                int index = i * width;
+                long value = table.values[index];
+                long replaced = operator.apply(new UUID(table.msb[i], table.lsb[i]), value);
+                if (replaced == value) {
+                    continue;
+                }
+                table.values[index] = replaced;
+                if (changed != null) {
+                    if (updates == null) {
+                        updates = new long[table.size * 3];
+                    }
+                    updates[count * 3] = table.msb[i];
+                    updates[count * 3 + 1] = table.lsb[i];
+                    updates[count * 3 + 2] = replaced;
+                }
+                count++;
+            }
+        } finally {
+            target.unlockWrite(stamp);
+        }
+
+        if (changed != null) {
+            for (int i = 0; i < count; i++) {
+                changed.accept(new UUID(updates[i * 3], updates[i * 3 + 1]), updates[i * 3 + 2]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the first value of every entry while all stripes are read locked,
+     * so the copy is a consistent point-in-time view.
+     *
+     * @return the entries as consecutive (msb, lsb, value) triples
+     */
+    public long[] toArray() {
+        long[] stamps = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stamps[i] = stripes[i].readLock();
+        }
+        try {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                size += stripe.table.size;
+            }
+            long[] entries = new long[size * 3];
+            int index = 0;
+            for (Stripe stripe : stripes) {
+                Table table = stripe.table;
+                for (int i = 0; i < table.used.length; i++) {
+                    if (table.used[i]) {
+                        entries[index++] = table.msb[i];
+                        entries[index++] = table.lsb[i];
+                        entries[index++] = table.values[i * width];
+                    }
+                }
+            }
+            return entries;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].unlockRead(stamps[i]);
+            }
+        }
+    }
+
+    private void checkColumn(int column) {
+        if (column < 0 || column >= width) {
+            throw new IndexOutOfBoundsException("Column " + column + " of width " + width);
+        }
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[stripeIndex(hash)];
+    }
+
+    private int stripeIndex(long hash) {
+        return stripeShift == 64 ? 0 : (int) (hash >>> stripeShift);
+    }
+
+    private static long add(long value, long delta, long floor) {
+        long updated = value + delta;
+        if (((value ^ updated) & (delta ^ updated)) < 0 || updated < floor || updated <= REJECTED) {
+            return REJECTED;
+        }
+        return updated;
+    }
+
+    static long hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static int powerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    private static final class Stripe extends StampedLock {
+        private static final long serialVersionUID = 1L;
+
+        Table table;
+
+        Stripe(int tableSize, int width) {
+            this.table = new Table(tableSize, width);
+        }
+
+        long read(long msb, long lsb, int hash, int column, long missing) {
+            Table table = this.table;
+            int slot = table.find(msb, lsb, hash);
+            return slot >= 0 ? table.values[slot * table.width + column] : missing;
+        }
+
+        void insert(int slot, long msb, long lsb, long value) {
+            Table table = this.table;
+            if ((table.size + 1) * 4 > table.used.length * 3) {
+                table = table.resize();
+                this.table = table;
+                slot = -table.find(msb, lsb, (int) hash(msb, lsb)) - 1;
+            }
+            table.msb[slot] = msb;
+            table.lsb[slot] = lsb;
+            int start = slot * table.width;
+            table.values[start] = value;
+            for (int i = 1; i < table.width; i++) {
+                table.values[start + i] = 0;
+            }
+            table.used[slot] = true;
+            table.size++;
+        }
+    }
+
+    private static final class Table {
+        final long[] msb;
+        final long[] lsb;
+        final long[] values;
+        final boolean[] used;
+        final int mask;
+        final int width;
+        int size;
+
+        Table(int capacity, int width) {
+            this.msb = new long[capacity];
+            this.lsb = new long[capacity];
+            this.values = new long[capacity * width];
+            this.used = new boolean[capacity];
+            this.mask = capacity - 1;
+            this.width = width;
+        }
+
+        /**
+         * Finds the slot of a key, or returns -(insertion slot) - 1 when it is absent.
+         * Probing is bounded so an optimistic reader racing a write always terminates.
+         */
+        int find(long msb, long lsb, int hash) {
+            int mask = this.mask;
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (!used[slot]) {
+                    return -slot - 1;
+                }
+                if (this.msb[slot] == msb && this.lsb[slot] == lsb) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return Integer.MIN_VALUE;
+        }
+
+        Table resize() {
+            Table resized = new Table(used.length * 2, width);
+            for (int i = 0; i < used.length; i++) {
+                if (used[i]) {
+                    int slot = -resized.find(msb[i], lsb[i], (int) hash(msb[i], lsb[i])) - 1;
+                    resized.msb[slot] = msb[i];
+                    resized.lsb[slot] = lsb[i];
+                    System.arraycopy(values, i * width, resized.values, slot * width, width);
+                    resized.used[slot] = true;
+                }
+            }
+            resized.size = size;
+            return resized;
+        }
+
+        /**
+         * Removes the entry at a slot, shifting later entries of the probe chain back so lookups stay correct.
+         */
+        void delete(int slot) {
+            int mask = this.mask;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; used[next]; next = (next + 1) & mask) {
+                int home = (int) hash(msb[next], lsb[next]) & mask;
+                boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!stays) {
+                    msb[hole] = msb[next];
+                    lsb[hole] = lsb[next];
+                    System.arraycopy(values, next * width, values, hole * width, width);
+                    hole = next;
+                }
+            }
+            used[hole] = false;
+            size--;
+        }
+    }
+}
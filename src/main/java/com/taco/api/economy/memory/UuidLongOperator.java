@@ -0,0 +1,21 @@
+package com.taco.api.economy.memory;
+
+import java.util.UUID;
+
+/**
+ * Computes a new value for an entry of a {@link UuidLongMap} without boxing it.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface UuidLongOperator {
+    /**
+     * Computes the new value of an entry.
+     *
+     * @param key the key
+     * @param value the current value
+     * @return the new value, or the current one to leave the entry unchanged
+     */
+    long apply(UUID key, long value);
+}
@@ -0,0 +1,52 @@
+package com.taco.api.economy.memory;
+
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The per-world balances of a {@link MemoryEconomy}.
+ * <p>
+ * Each world is given a small index the first time an account is created in it, keyed by {@link World#getUID()}
+ * so a renamed world keeps its balances, and the balances of the world live in their own {@link UuidLongMap} at
+ * that index. Lookups are lock-free, adding a world takes a lock.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+final class WorldBalances {
+    private final Map<UUID, Integer> indexes = new ConcurrentHashMap<>();
+    private volatile UuidLongMap[] balances = new UuidLongMap[0];
+
+    /**
+     * Gets the balances of a world.
+     *
+     * @return the balances, or null if no account was ever created in the world
+     */
+    UuidLongMap get(World world) {
+        Integer index = indexes.get(world.getUID());
+        return index == null ? null : balances[index];
+    }
+
+    /**
+     * Gets the balances of a world, indexing the world if it is new.
+     */
+    synchronized UuidLongMap getOrCreate(World world) {
+        Integer index = indexes.get(world.getUID());
+        if (index != null) {
+            return balances[index];
+        }
+
+        UuidLongMap[] current = balances;
+        UuidLongMap created = new UuidLongMap(16, 16);
+        UuidLongMap[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = created;
+        // publish the array before the index, so a reader that finds the index always finds the map
+        balances = updated;
+        indexes.put(world.getUID(), current.length);
+        return created;
+    }
+}
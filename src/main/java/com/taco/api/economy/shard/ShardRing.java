@@ -0,0 +1,83 @@
+package com.taco.api.economy.shard;
+
+import com.taco.api.economy.Economy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A consistent hash ring assigning accounts to the shards of a {@link ShardedEconomy}.
+ * <p>
+ * Every shard owns a fixed number of points on the ring, derived only from the shard's position, and an account
+ * belongs to the shard owning the first point at or after the hash of its id. Adding a shard therefore only moves
+ * the accounts that land on the new shard's points, roughly one in every N. Rings are immutable, a lookup is a
+ * binary search over a sorted array.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+final class ShardRing {
+    private final Economy[] shards;
+    private final int virtualNodes;
+    private final long[] points;
+    private final int[] owners;
+
+    ShardRing(Economy[] shards, int virtualNodes) {
+        this.shards = shards;
+        this.virtualNodes = virtualNodes;
+
+        Map<Long, Integer> ownerByPoint = new HashMap<>(shards.length * virtualNodes * 2);
+        for (int shard = 0; shard < shards.length; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                // on the rare collision the earlier shard keeps the point
+                ownerByPoint.putIfAbsent(mix(((long) shard << 32) | node), shard);
+            }
+        }
+        this.points = new long[ownerByPoint.size()];
+        int i = 0;
+        for (long point : ownerByPoint.keySet()) {
+            points[i++] = point;
+        }
+        Arrays.sort(points);
+        this.owners = new int[points.length];
+        for (i = 0; i < points.length; i++) {
+            owners[i] = ownerByPoint.get(points[i]);
+        }
+    }
+
+    /**
+     * Creates a ring with one more shard, every existing account either stays or moves to the new shard.
+     */
+    ShardRing with(Economy shard) {
+        Economy[] updated = Arrays.copyOf(shards, shards.length + 1);
+        updated[shards.length] = shard;
+        return new ShardRing(updated, virtualNodes);
+    }
+
+    Economy[] shards() {
+        return shards;
+    }
+
+    Economy shardFor(UUID playerId) {
+        return shards[indexOf(playerId)];
+    }
+
+    int indexOf(UUID playerId) {
+        long hash = mix(playerId.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ playerId.getLeastSignificantBits());
+        int position = Arrays.binarySearch(points, hash);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        return owners[position == points.length ? 0 : position];
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
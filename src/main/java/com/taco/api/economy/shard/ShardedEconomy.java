@@ -0,0 +1,691 @@
+package com.taco.api.economy.shard;
+
+import com.taco.api.economy.BalanceFunction;
+import com.taco.api.economy.BalanceListener;
+import com.taco.api.economy.BalanceSubscription;
+import com.taco.api.economy.Balances;
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.Currency;
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.FundsCheck;
+import com.taco.api.economy.Futures;
+import com.taco.api.economy.Money;
+import com.taco.api.economy.Transfers;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Spreads accounts across several backing economies, the shards, by a consistent hash of the player's id.
+ * <p>
+ * Every account operation runs on the shard owning the account. A transfer between two accounts of the same shard
+ * is handed to that shard, a transfer across shards runs in two phases: the amount is taken from the sender's
+ * shard, then sent on the receiver's shard, and taken back into the sender's account if the second phase fails,
+ * so in between a reader may see the amount on neither side. Batched lookups and bulk operations fan out to every
+ * shard at once. Banks do not move between shards and all live on the first one. Shards must use the same
+ * {@link Money} and the same currencies; balance ranking is not supported across shards.
+ * <p>
+ * {@link #addShard(Economy)} pauses account operations, waits for the running ones, then moves every account the
+ * new shard now owns, found through {@link Economy#applyToAccounts(Predicate, BalanceFunction)}. The old shards
+ * keep an emptied copy of each moved account, which is never routed to again.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class ShardedEconomy implements Economy {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final String name;
+    private final Money money;
+    private final AtomicLong running = new AtomicLong();
+    private final Set<ShardedSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private volatile ShardRing ring;
+    private volatile CompletableFuture<Void> drained;
+    private volatile CompletableFuture<Void> rebalancing;
+
+    /**
+     * Creates a sharded economy.
+     *
+     * @param name the name of the economy
+     * @param shards the economies to spread accounts across, at least one
+     */
+    public ShardedEconomy(String name, List<? extends Economy> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.name = name;
+        this.money = shards.get(0).getMoney();
+        for (Economy shard : shards) {
+            checkMoney(shard);
+        }
+        this.ring = new ShardRing(shards.toArray(new Economy[0]), VIRTUAL_NODES);
+    }
+
+    /**
+     * Gets the shards, in the order they were added.
+     *
+     * @return the shards
+     */
+    public List<Economy> getShards() {
+        List<Economy> shards = new ArrayList<>();
+        for (Economy shard : ring.shards()) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Gets the shard owning the account of a player.
+     *
+     * @param playerId the player
+     * @return the shard
+     */
+    public Economy getShard(UUID playerId) {
+        return ring.shardFor(playerId);
+    }
+
+    /**
+     * Adds a shard and moves the accounts it now owns to it.
+     * <p>
+     * Account operations called while the accounts move wait for it to finish. The current shards must support
+     * bulk operations, and the new shard must support every feature the current ones do. If moving an account
+     * fails the returned future fails, the other accounts are still moved.
+     *
+     * @param shard the economy to add
+     * @return a future completing with the number of accounts moved
+     */
+    public CompletableFuture<Integer> addShard(Economy shard) {
+        checkMoney(shard);
+        ShardRing current = ring;
+        for (Economy existing : current.shards()) {
+            if (existing == shard) {
+                throw new IllegalArgumentException(shard.getName() + " is already a shard");
+            }
+        }
+        if (!implementationSupportsBulkOperations()) {
+            return Futures.unsupported("Cannot move accounts, not every shard supports bulk operations");
+        }
+        if (implementationSupportsEvents() && !shard.implementationSupportsEvents()
+                || implementationSupportsCurrencies() && !shard.implementationSupportsCurrencies()
+                || !shard.implementationSupportsBulkOperations()) {
+            throw new IllegalArgumentException(shard.getName() + " does not support every feature of the current shards");
+        }
+
+        CompletableFuture<Void> paused = new CompletableFuture<>();
+        synchronized (this) {
+            if (rebalancing != null) {
+                return Futures.failed(new IllegalStateException("Another shard is being added"));
+            }
+            // publish drained before rebalancing, so whoever sees the pause also sees what to complete
+            drained = new CompletableFuture<>();
+            rebalancing = paused;
+        }
+        if (running.get() == 0) {
+            drained.complete(null);
+        }
+
+        CompletableFuture<Integer> moved = drained.thenCompose(ignored -> {
+            ShardRing previous = ring;
+            ShardRing updated = previous.with(shard);
+            ring = updated;
+            for (ShardedSubscription subscription : subscriptions) {
+                subscription.attach(shard, updated.shards().length - 1);
+            }
+            return moveAccounts(previous, updated);
+        });
+        moved.whenComplete((count, error) -> {
+            synchronized (this) {
+                rebalancing = null;
+            }
+            paused.complete(null);
+        });
+        return moved;
+    }
+
+    @Override
+    public String format(double amount) {
+        return ring.shards()[0].format(amount);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        for (Economy shard : ring.shards()) {
+            if (!shard.isEnabled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Money getMoney() {
+        return money;
+    }
+
+    @Override
+    public String formatMinor(long minor) {
+        return ring.shards()[0].formatMinor(minor);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        return route(() -> ring.shardFor(playerId).getBalance(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player) {
+        return getBalance(player.getUniqueId());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        return route(() -> {
+            ShardRing current = ring;
+            Economy[] shards = current.shards();
+            List<UUID>[] groups = new List[shards.length];
+            for (UUID playerId : playerIds) {
+                int index = current.indexOf(playerId);
+                if (groups[index] == null) {
+                    groups[index] = new ArrayList<>();
+                }
+                groups[index].add(playerId);
+            }
+
+            List<CompletableFuture<Balances>> lookups = new ArrayList<>();
+            for (int i = 0; i < shards.length; i++) {
+                if (groups[i] != null) {
+                    lookups.add(shards[i].getBalances(groups[i]));
+                }
+            }
+            return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                Balances.Builder builder = Balances.builder(playerIds.size());
+                for (CompletableFuture<Balances> lookup : lookups) {
+                    lookup.join().forEach(builder::put);
+                }
+                return builder.build();
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getBalanceMinor(UUID playerId) {
+        return route(() -> ring.shardFor(playerId).getBalanceMinor(playerId));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, double amount) {
+        return send(player.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        return route(() -> ring.shardFor(playerId).send(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+        return route(() -> ring.shardFor(playerId).sendMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, double amount) {
+        return take(player.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        return route(() -> ring.shardFor(playerId).take(playerId, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+        return route(() -> ring.shardFor(playerId).takeMinor(playerId, minor));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        return route(() -> {
+            Economy source = ring.shardFor(from), target = ring.shardFor(to);
+            if (source == target) {
+                return source.transfer(from, to, amount);
+            }
+            return Transfers.takeThenSend(() -> source.take(from, amount), () -> target.send(to, amount),
+                    () -> source.send(from, amount), amount);
+        });
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+        return route(() -> {
+            Economy source = ring.shardFor(from), target = ring.shardFor(to);
+            if (source == target) {
+                return source.transferMinor(from, to, minor);
+            }
+            return Transfers.takeThenSend(() -> source.takeMinor(from, minor), () -> target.sendMinor(to, minor),
+                    () -> source.sendMinor(from, minor), money.toMajor(minor));
+        });
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return route(() -> ring.shardFor(playerId).checkFunds(playerId));
+    }
+
+    @Override
+    public FundsCheck getCachedFunds(UUID playerId) {
+        // while accounts move the old shard may hold an emptied copy, so only answer outside a rebalance
+        if (rebalancing != null) {
+            return null;
+        }
+        FundsCheck funds = ring.shardFor(playerId).getCachedFunds(playerId);
+        return rebalancing == null ? funds : null;
+    }
+
+    @Override
+    public boolean implementationSupportsCurrencies() {
+        for (Economy shard : ring.shards()) {
+            if (!shard.implementationSupportsCurrencies()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<Currency> getCurrencies() {
+        return ring.shards()[0].getCurrencies();
+    }
+
+    @Override
+    public Currency getCurrency(String name) {
+        return ring.shards()[0].getCurrency(name);
+    }
+
+    @Override
+    public String format(double amount, Currency currency) {
+        return ring.shards()[0].format(amount, currency);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, Currency currency) {
+        return route(() -> ring.shardFor(playerId).getBalance(playerId, currency));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player, Currency currency) {
+        return getBalance(player.getUniqueId(), currency);
+    }
+
+    @Override
+    public CompletableFuture<double[]> getBalancesByCurrency(UUID playerId) {
+        return route(() -> ring.shardFor(playerId).getBalancesByCurrency(playerId));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, Currency currency, double amount) {
+        return route(() -> ring.shardFor(playerId).send(playerId, currency, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, Currency currency, double amount) {
+        return send(player.getUniqueId(), currency, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, Currency currency, double amount) {
+        return route(() -> ring.shardFor(playerId).take(playerId, currency, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, Currency currency, double amount) {
+        return take(player.getUniqueId(), currency, amount);
+    }
+
+    @Override
+    public boolean implementationSupportsEvents() {
+        for (Economy shard : ring.shards()) {
+            if (!shard.implementationSupportsEvents()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public BalanceSubscription subscribe(BalanceListener listener) {
+        if (!implementationSupportsEvents()) {
+            throw new UnsupportedOperationException(getName() + " does not support events");
+        }
+        ShardedSubscription subscription = new ShardedSubscription(listener);
+        subscriptions.add(subscription);
+        Economy[] shards = ring.shards();
+        for (int i = 0; i < shards.length; i++) {
+            subscription.attach(shards[i], i);
+        }
+        return subscription;
+    }
+
+    @Override
+    public boolean implementationSupportsBulkOperations() {
+        for (Economy shard : ring.shards()) {
+            if (!shard.implementationSupportsBulkOperations()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Integer> applyToAccounts(Predicate<UUID> filter, BalanceFunction function) {
+        return route(() -> {
+            ShardRing current = ring;
+            Economy[] shards = current.shards();
+            List<CompletableFuture<Integer>> parts = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                int index = i;
+                // skip the emptied copies of moved accounts, they belong to another shard now
+                parts.add(shards[i].applyToAccounts(id -> current.indexOf(id) == index && filter.test(id), function));
+            }
+            return sum(parts);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return route(() -> ring.shardFor(playerId).hasAccount(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player) {
+        return hasAccount(player.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        return route(() -> ring.shardFor(playerId).createAccount(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(OfflinePlayer playerId) {
+        return createAccount(playerId.getUniqueId());
+    }
+
+    @Override
+    public boolean implementationSupportsBanks() {
+        return banks().implementationSupportsBanks();
+    }
+
+    @Override
+    public CompletableFuture<Bank> createBank(UUID playerId, String bankName) {
+        return banks().createBank(playerId, bankName);
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        return banks().checkBankFunds(playerId);
+    }
+
+    @Override
+    public FundsCheck getCachedBankFunds(UUID playerId) {
+        return banks().getCachedBankFunds(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(UUID playerId) {
+        return banks().bankHasAccount(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(OfflinePlayer playerId) {
+        return bankHasAccount(playerId.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        return banks().bankWire(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(OfflinePlayer playerId, double amount) {
+        return bankWire(playerId.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        return banks().bankWithdraw(playerId, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(OfflinePlayer playerId, double amount) {
+        return bankWithdraw(playerId.getUniqueId(), amount);
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(UUID playerId) {
+        return banks().bankBalance(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(OfflinePlayer playerId) {
+        return bankBalance(playerId.getUniqueId());
+    }
+
+    @Override
+    public Set<Bank> getBanks() {
+        return banks().getBanks();
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBank(UUID bankId) {
+        return banks().getBank(bankId);
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBankByName(String name) {
+        return banks().getBankByName(name);
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        return banks().getBanksOwnedBy(ownerId);
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        return banks().getBanks(after, limit);
+    }
+
+    @Override
+    public void forEachBank(Consumer<? super Bank> action) {
+        banks().forEachBank(action);
+    }
+
+    private Economy banks() {
+        return ring.shards()[0];
+    }
+
+    /**
+     * Runs an account operation, or queues it behind the shard being added.
+     * <p>
+     * The operation counts as running until its future completes, so {@link #addShard(Economy)} only moves
+     * accounts once no operation still uses the old ring. It must call the shards directly, never this economy,
+     * as a nested call would wait for a pause that waits for the outer call.
+     */
+    private <T> CompletableFuture<T> route(Supplier<CompletableFuture<T>> operation) {
+        running.incrementAndGet();
+        CompletableFuture<Void> paused = rebalancing;
+        if (paused != null) {
+            finished();
+            return paused.thenCompose(ignored -> route(operation));
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            finished();
+            throw e;
+        }
+        result.whenComplete((value, error) -> finished());
+        return result;
+    }
+
+    private void finished() {
+        if (running.decrementAndGet() == 0 && rebalancing != null) {
+            drained.complete(null);
+        }
+    }
+
+    /**
+     * Moves every account whose shard changed between two rings, called while account operations are paused.
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Integer> moveAccounts(ShardRing previous, ShardRing updated) {
+        Economy[] shards = previous.shards();
+        Economy target = updated.shards()[shards.length];
+        List<CompletableFuture<Integer>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            int index = i;
+            Economy source = shards[i];
+            Map<UUID, Long> moving = new ConcurrentHashMap<>();
+            // the function only records the accounts, it keeps every balance so no event is published
+            CompletableFuture<Integer> found = source.applyToAccounts(
+                    id -> previous.indexOf(id) == index && updated.indexOf(id) != index,
+                    (playerId, balance) -> {
+                        moving.put(playerId, balance);
+                        return balance;
+                    });
+            parts.add(found.thenCompose(ignored -> {
+                List<CompletableFuture<Void>> moves = new ArrayList<>(moving.size());
+                for (Map.Entry<UUID, Long> account : moving.entrySet()) {
+                    moves.add(moveAccount(source, target, account.getKey(), account.getValue()));
+                }
+                return CompletableFuture.allOf(moves.toArray(new CompletableFuture[0])).thenApply(done -> moves.size());
+            }));
+        }
+        return sum(parts);
+    }
+
+    private CompletableFuture<Void> moveAccount(Economy source, Economy target, UUID playerId, long balance) {
+        CompletableFuture<Void> moved = target.createAccount(playerId)
+                .thenCompose(created -> target.getBalanceMinor(playerId))
+                .thenCompose(starting -> adjust(target, playerId, balance - starting))
+                .thenCompose(done -> adjust(source, playerId, -balance));
+        if (!target.implementationSupportsCurrencies()) {
+            return moved;
+        }
+
+        return moved.thenCompose(done -> source.getBalancesByCurrency(playerId)
+                .thenCombine(target.getBalancesByCurrency(playerId), (from, to) -> {
+                    List<CompletableFuture<Void>> moves = new ArrayList<>();
+                    for (Currency currency : target.getCurrencies()) {
+                        if (currency.isPrimary()) {
+                            continue;
+                        }
+                        double amount = from[currency.getId()];
+                        moves.add(adjust(target, playerId, currency, amount - to[currency.getId()])
+                                .thenCompose(ignored -> adjust(source, playerId, currency, -amount)));
+                    }
+                    return CompletableFuture.allOf(moves.toArray(new CompletableFuture[0]));
+                }).thenCompose(moves -> moves));
+    }
+
+    private static CompletableFuture<Void> adjust(Economy shard, UUID playerId, long minor) {
+        if (minor == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<EconomyResponse> write = minor > 0
+                ? shard.sendMinor(playerId, minor)
+                : shard.takeMinor(playerId, -minor);
+        return write.thenAccept(response -> checkMoved(shard, playerId, response));
+    }
+
+    private static CompletableFuture<Void> adjust(Economy shard, UUID playerId, Currency currency, double amount) {
+        if (amount == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<EconomyResponse> write = amount > 0
+                ? shard.send(playerId, currency, amount)
+                : shard.take(playerId, currency, -amount);
+        return write.thenAccept(response -> checkMoved(shard, playerId, response));
+    }
+
+    private static void checkMoved(Economy shard, UUID playerId, EconomyResponse response) {
+        if (!response.transactionSuccess()) {
+            throw new IllegalStateException("Could not move the account of " + playerId + " on "
+                    + shard.getName() + ": " + response.errorMessage);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Integer> sum(List<CompletableFuture<Integer>> parts) {
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            int total = 0;
+            for (CompletableFuture<Integer> part : parts) {
+                total += part.join();
+            }
+            return total;
+        });
+    }
+
+    private void checkMoney(Economy shard) {
+        if (shard.getMoney() != money) {
+            throw new IllegalArgumentException(shard.getName() + " uses " + shard.getMoney()
+                    + " but the other shards use " + money);
+        }
+    }
+
+    /**
+     * A listener subscribed to every shard, only told about accounts the shard still owns.
+     */
+    private final class ShardedSubscription implements BalanceSubscription {
+        private final BalanceListener listener;
+        private final List<BalanceSubscription> parts = new ArrayList<>();
+        private boolean unsubscribed;
+
+        ShardedSubscription(BalanceListener listener) {
+            this.listener = listener;
+        }
+
+        synchronized void attach(Economy shard, int index) {
+            if (unsubscribed) {
+                return;
+            }
+            parts.add(shard.subscribe((playerId, balance) -> {
+                if (ring.indexOf(playerId) == index) {
+                    listener.onBalanceChange(playerId, balance);
+                }
+            }));
+        }
+
+        @Override
+        public synchronized void unsubscribe() {
+            if (unsubscribed) {
+                return;
+            }
+            unsubscribed = true;
+            subscriptions.remove(this);
+            for (BalanceSubscription part : parts) {
+                part.unsubscribe();
+            }
+        }
+    }
+}
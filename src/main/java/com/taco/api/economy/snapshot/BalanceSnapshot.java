@@ -0,0 +1,396 @@
+package com.taco.api.economy.snapshot;
+
+import com.taco.api.economy.Money;
+import com.taco.api.economy.journal.EconomyJournal;
+import com.taco.api.economy.memory.MemoryBank;
+import com.taco.api.economy.memory.MemoryEconomy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * A point-in-time copy of every balance and bank of a {@link MemoryEconomy}, and its compact binary file format.
+ * <p>
+ * Capturing only copies the balances, so it is cheap enough to run while writes are paused; sorting and writing
+ * the file can then happen in the background. The file is a header followed by fixed-width records sorted by UUID,
+ * which {@link #load} maps into memory and restores in parallel chunks, and then by the banks. Once the file is
+ * written, the journal records it covers can be dropped with {@link EconomyJournal#compact(long)}.
+ *
+ * <pre>
+ * header: long magic, int version, int fractionalDigits, long count, long sequence, int crc, int bankCount
+ * record: long msb, long lsb, long balance
+ * bank:   long ownerMsb, long ownerLsb, long idMsb, long idLsb, long balance, int nameLength, byte[] name
+ * </pre>
+ * The checksum is a CRC32 over every record and bank.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class BalanceSnapshot {
+    private static final long MAGIC = 0x5441434F534E4150L; // TACOSNAP
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int RECORD_SIZE = 24;
+    private static final int BANK_SIZE = 44;
+    private static final long MAX_CHUNK_BYTES = (Integer.MAX_VALUE / RECORD_SIZE) * (long) RECORD_SIZE;
+    private static final int WRITE_BUFFER_RECORDS = 8192;
+
+    private final long[] entries;
+    private final long[] banks;
+    private final String[] bankNames;
+    private final Money money;
+    private final long sequence;
+
+    private BalanceSnapshot(long[] entries, long[] banks, String[] bankNames, Money money, long sequence) {
+        this.entries = entries;
+        this.banks = banks;
+        this.bankNames = bankNames;
+        this.money = money;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Captures the balances of an economy.
+     *
+     * @param economy the economy
+     * @param sequence the journal sequence the balances reflect, 0 if no journal is used
+     * @return the snapshot
+     */
+    public static BalanceSnapshot capture(MemoryEconomy economy, long sequence) {
+        List<MemoryBank> copied = new ArrayList<>();
+        economy.forEachBank(bank -> copied.add((MemoryBank) bank));
+        long[] banks = new long[copied.size() * 5];
+        String[] bankNames = new String[copied.size()];
+        for (int i = 0; i < bankNames.length; i++) {
+            MemoryBank bank = copied.get(i);
+            banks[i * 5] = bank.getOwnerId().getMostSignificantBits();
+            banks[i * 5 + 1] = bank.getOwnerId().getLeastSignificantBits();
+            banks[i * 5 + 2] = bank.getUniqueId().getMostSignificantBits();
+            banks[i * 5 + 3] = bank.getUniqueId().getLeastSignificantBits();
+            banks[i * 5 + 4] = bank.getBalanceMinor();
+            bankNames[i] = bank.getName();
+        }
+        return new BalanceSnapshot(economy.copyBalances(), banks, bankNames, economy.getMoney(), sequence);
+    }
+
+    /**
+     * Gets the number of balances in this snapshot.
+     *
+     * @return the number of accounts
+     */
+    public int size() {
+        return entries.length / 3;
+    }
+
+    /**
+     * Gets the number of banks in this snapshot.
+     *
+     * @return the number of banks
+     */
+    public int bankCount() {
+        return bankNames.length;
+    }
+
+    /**
+     * Gets the journal sequence the balances reflect.
+     *
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Sorts and writes the snapshot. The file is written beside the target and moved into place,
+     * so a crash while writing never leaves a half-written snapshot behind.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path file) throws IOException {
+        sort(entries, 0, size() - 1);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * WRITE_BUFFER_RECORDS);
+            channel.position(HEADER_SIZE);
+            for (int i = 0; i < entries.length; i += 3) {
+                buffer.putLong(entries[i]).putLong(entries[i + 1]).putLong(entries[i + 2]);
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer, crc);
+                }
+            }
+            drain(channel, buffer, crc);
+            for (int i = 0; i < bankNames.length; i++) {
+                byte[] name = bankNames[i].getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < BANK_SIZE + name.length) {
+                    drain(channel, buffer, crc);
+                    if (buffer.capacity() < BANK_SIZE + name.length) {
+                        buffer = ByteBuffer.allocate(BANK_SIZE + name.length);
+                    }
+                }
+                buffer.putLong(banks[i * 5]).putLong(banks[i * 5 + 1]).putLong(banks[i * 5 + 2])
+                        .putLong(banks[i * 5 + 3]).putLong(banks[i * 5 + 4]).putInt(name.length).put(name);
+            }
+            drain(channel, buffer, crc);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putInt(money.getFractionalDigits())
+                    .putLong(size()).putLong(sequence).putInt((int) crc.getValue()).putInt(bankCount()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sorts and writes the snapshot on the given executor.
+     *
+     * @param file the file to write
+     * @param executor the executor to write on
+     * @return a future completing once the file is in place
+     */
+    public CompletableFuture<Path> writeToAsync(Path file, Executor executor) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                writeTo(file);
+                future.complete(file);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Verifies a snapshot file and restores its balances into an economy, in parallel chunks
+     * on the common fork-join pool.
+     *
+     * @param file the snapshot file
+     * @param economy the economy to restore into, using the same scale the snapshot was written with
+     * @return the journal sequence the snapshot reflects, to pass to the journal's replay
+     * @throws IOException if the file cannot be read, is corrupt or uses a different scale
+     */
+    public static long load(Path file, MemoryEconomy economy) throws IOException {
+        return load(file, economy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Verifies a snapshot file and restores its balances into an economy, in parallel chunks.
+     *
+     * @param file the snapshot file
+     * @param economy the economy to restore into, using the same scale the snapshot was written with
+     * @param pool the pool to load on
+     * @return the journal sequence the snapshot reflects, to pass to the journal's replay
+     * @throws IOException if the file cannot be read, is corrupt or uses a different scale
+     */
+    public static long load(Path file, MemoryEconomy economy, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC) {
+                throw new IOException("Not a balance snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int fractionalDigits = header.getInt();
+            if (fractionalDigits != economy.getMoney().getFractionalDigits()) {
+                throw new IOException("Snapshot has " + fractionalDigits + " fractional digits but the economy has "
+                        + economy.getMoney().getFractionalDigits() + ": " + file);
+            }
+            long count = header.getLong();
+            long sequence = header.getLong();
+            int expectedCrc = header.getInt();
+            int bankCount = header.getInt();
+
+            long bodySize = count * RECORD_SIZE;
+            long bankBytes = channel.size() - HEADER_SIZE - bodySize;
+            if (count < 0 || bankCount < 0 || bankBytes < (long) bankCount * BANK_SIZE
+                    || bankBytes > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is truncated: " + file);
+            }
+
+            int chunkCount = (int) Math.max(1, (bodySize + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < chunkCount; i++) {
+                long start = i * MAX_CHUNK_BYTES;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                        Math.min(MAX_CHUNK_BYTES, bodySize - start));
+                crc.update(chunks[i].duplicate());
+            }
+            ByteBuffer banks = ByteBuffer.allocate((int) bankBytes);
+            while (banks.hasRemaining() && channel.read(banks, HEADER_SIZE + bodySize + banks.position()) > 0) {
+                // read every bank
+            }
+            banks.flip();
+            crc.update(banks.array(), 0, banks.limit());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+
+            int splitRecords = (int) Math.max(4096, count / (pool.getParallelism() * 4L));
+            LoadTask[] tasks = new LoadTask[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                MappedByteBuffer chunk = chunks[i];
+                tasks[i] = new LoadTask(chunk, economy, 0, chunk.capacity() / RECORD_SIZE, splitRecords);
+            }
+            pool.invoke(new LoadAll(tasks));
+            restoreBanks(banks, bankCount, economy, file);
+            return sequence;
+        }
+    }
+
+    private static void restoreBanks(ByteBuffer banks, int bankCount, MemoryEconomy economy, Path file)
+            throws IOException {
+        for (int i = 0; i < bankCount; i++) {
+            if (banks.remaining() < BANK_SIZE) {
+                throw new IOException("Snapshot is truncated: " + file);
+            }
+            UUID ownerId = new UUID(banks.getLong(), banks.getLong());
+            UUID bankId = new UUID(banks.getLong(), banks.getLong());
+            long balance = banks.getLong();
+            int nameLength = banks.getInt();
+            if (nameLength < 0 || nameLength > banks.remaining()) {
+                throw new IOException("Snapshot is truncated: " + file);
+            }
+            String name = new String(banks.array(), banks.position(), nameLength, StandardCharsets.UTF_8);
+            banks.position(banks.position() + nameLength);
+            economy.restoreBank(bankId, ownerId, name, balance);
+        }
+        if (banks.hasRemaining()) {
+            throw new IOException("Snapshot has trailing bytes: " + file);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Sorts (msb, lsb, value) triples by UUID, in the order of {@link java.util.UUID#compareTo}.
+     */
+    private static void sort(long[] entries, int low, int high) {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            if (compare(entries, middle, low) < 0) swap(entries, middle, low);
+            if (compare(entries, high, low) < 0) swap(entries, high, low);
+            if (compare(entries, high, middle) < 0) swap(entries, high, middle);
+            long pivotMsb = entries[middle * 3], pivotLsb = entries[middle * 3 + 1];
+
+            int i = low, j = high;
+            while (i <= j) {
+                while (compare(entries, i, pivotMsb, pivotLsb) < 0) i++;
+                while (compare(entries, j, pivotMsb, pivotLsb) > 0) j--;
+                if (i <= j) swap(entries, i++, j--);
+            }
+            if (j - low < high - i) {
+                sort(entries, low, j);
+                low = i;
+            } else {
+                sort(entries, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(entries, j, j - 1) < 0; j--) {
+                swap(entries, j, j - 1);
+            }
+        }
+    }
+
+    private static int compare(long[] entries, int a, int b) {
+        return compare(entries, a, entries[b * 3], entries[b * 3 + 1]);
+    }
+
+    private static int compare(long[] entries, int a, long msb, long lsb) {
+        int result = Long.compare(entries[a * 3], msb);
+        return result != 0 ? result : Long.compare(entries[a * 3 + 1], lsb);
+    }
+
+    private static void swap(long[] entries, int a, int b) {
+        for (int k = 0; k < 3; k++) {
+            long value = entries[a * 3 + k];
+            entries[a * 3 + k] = entries[b * 3 + k];
+            entries[b * 3 + k] = value;
+        }
+    }
+
+    /**
+     * Loads every chunk in parallel, waiting for all of them.
+     */
+    private static final class LoadAll extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final LoadTask[] tasks;
+
+        LoadAll(LoadTask[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+
+    private static final class LoadTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ByteBuffer chunk;
+        private final transient MemoryEconomy economy;
+        private final int from;
+        private final int to;
+        private final int splitRecords;
+
+        LoadTask(ByteBuffer chunk, MemoryEconomy economy, int from, int to, int splitRecords) {
+            this.chunk = chunk;
+            this.economy = economy;
+            this.from = from;
+            this.to = to;
+            this.splitRecords = splitRecords;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > splitRecords) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LoadTask(chunk, economy, from, middle, splitRecords),
+                        new LoadTask(chunk, economy, middle, to, splitRecords));
+                return;
+            }
+            for (int record = from; record < to; record++) {
+                int offset = record * RECORD_SIZE;
+                economy.restoreBalance(chunk.getLong(offset), chunk.getLong(offset + 8), chunk.getLong(offset + 16));
+            }
+        }
+    }
+}
@@ -0,0 +1,620 @@
+package com.taco.api.economy.vault;
+
+import com.taco.api.economy.Balances;
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.FundsCheck;
+import com.taco.api.economy.Money;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Exposes a synchronous Vault {@link net.milkbowl.vault.economy.Economy} through the asynchronous Taco
+ * {@link Economy}, so consumers can move to Taco before the economy they run on does.
+ * <p>
+ * Every Vault call runs on a dedicated, bounded pool: when its queue is full new calls fail at once with a
+ * {@link RejectedExecutionException} instead of piling up, and the pool's queue depth and rejections are exposed
+ * for monitoring. Operations needing several Vault calls, such as transfers, funds checks and
+ * {@link #getBalances(Collection)}, run as a single task. Many Vault economies are not thread-safe, so the pool
+ * has one thread unless told otherwise, which also keeps calls in submission order. The {@link Bank} methods of the
+ * banks handed out are synchronous, they run as one task on the same pool and wait for it, so with one thread
+ * {@link Bank#withdrawIfAtLeast} and {@link Bank#compareAndSet} are atomic towards every other call of the adapter.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class TacoEconomyAdapter implements Economy, AutoCloseable {
+
+    private final net.milkbowl.vault.economy.Economy vault;
+    private final Money money;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final ThreadLocal<Boolean> onWorker = new ThreadLocal<>();
+    private final Map<String, VaultBank> banks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an adapter calling Vault from one thread, queueing up to 1024 calls.
+     *
+     * @param vault the economy to wrap
+     */
+    public TacoEconomyAdapter(net.milkbowl.vault.economy.Economy vault) {
+        this(vault, 1, 1024);
+    }
+
+    /**
+     * Creates an adapter.
+     *
+     * @param vault the economy to wrap
+     * @param threads the number of threads calling Vault, only more than 1 if the economy is thread-safe
+     * @param queueLimit the maximum number of calls waiting for a thread
+     */
+    public TacoEconomyAdapter(net.milkbowl.vault.economy.Economy vault, int threads, int queueLimit) {
+        this.vault = vault;
+        int digits = vault.fractionalDigits();
+        // Vault uses -1 for economies that do not round.
+        this.money = digits < 0 ? Money.CENTS : Money.of(Math.min(digits, 9));
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueLimit), runnable -> {
+            Thread thread = new Thread(() -> {
+                onWorker.set(Boolean.TRUE);
+                runnable.run();
+            }, "Taco Vault Worker #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the wrapped economy.
+     *
+     * @return the Vault economy
+     */
+    public net.milkbowl.vault.economy.Economy getVault() {
+        return vault;
+    }
+
+    /**
+     * Gets the number of calls waiting for a thread.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the highest queue depth seen so far.
+     *
+     * @return the peak queue depth
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    /**
+     * Gets the number of calls rejected because the queue was full.
+     *
+     * @return the number of rejected calls
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of threads currently calling Vault.
+     *
+     * @return the number of active threads
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Gets the number of calls completed so far.
+     *
+     * @return the number of completed calls
+     */
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Stops accepting calls and lets the queued ones finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String format(double amount) {
+        return vault.format(amount);
+    }
+
+    @Override
+    public String getName() {
+        return vault.getName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return vault.isEnabled();
+    }
+
+    @Override
+    public Money getMoney() {
+        return money;
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId) {
+        return getBalance(Bukkit.getOfflinePlayer(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player) {
+        return submit(() -> vault.getBalance(player));
+    }
+
+    @Override
+    public CompletableFuture<Balances> getBalances(Collection<UUID> playerIds) {
+        UUID[] ids = playerIds.toArray(new UUID[0]);
+        return submit(() -> {
+            Balances.Builder builder = Balances.builder(ids.length);
+            for (UUID playerId : ids) {
+                builder.put(playerId, vault.getBalance(Bukkit.getOfflinePlayer(playerId)));
+            }
+            return builder.build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, double amount) {
+        return submit(() -> vault.depositPlayer(player, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+        return send(Bukkit.getOfflinePlayer(playerId), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, double amount) {
+        return submit(() -> vault.withdrawPlayer(player, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+        return take(Bukkit.getOfflinePlayer(playerId), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+        return transfer(Bukkit.getOfflinePlayer(from), Bukkit.getOfflinePlayer(to), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        return submit(() -> {
+            if (!vault.has(from, amount)) {
+                return new EconomyResponse(amount, vault.getBalance(from), Reason.INSUFFICIENT_FUNDS);
+            }
+            EconomyResponse taken = vault.withdrawPlayer(from, amount);
+            if (!taken.transactionSuccess()) {
+                return taken;
+            }
+            EconomyResponse sent = vault.depositPlayer(to, amount);
+            if (sent.transactionSuccess()) {
+                return taken;
+            }
+            EconomyResponse refunded = vault.depositPlayer(from, amount);
+            return refunded.transactionSuccess()
+                    ? new EconomyResponse(amount, refunded.balance, sent.reason,
+                            "Transfer failed and was refunded: " + sent.errorMessage)
+                    : new EconomyResponse(amount, taken.balance, sent.reason,
+                            "Transfer failed and could not be refunded: " + sent.errorMessage);
+        });
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+        return checkFunds(Bukkit.getOfflinePlayer(playerId));
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkFunds(OfflinePlayer player) {
+        return submit(() -> vault.hasAccount(player) ? FundsCheck.of(vault.getBalance(player)) : FundsCheck.NO_ACCOUNT);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId) {
+        return hasAccount(Bukkit.getOfflinePlayer(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player) {
+        return submit(() -> vault.hasAccount(player));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId) {
+        return createAccount(Bukkit.getOfflinePlayer(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(OfflinePlayer playerId) {
+        return submit(() -> !vault.hasAccount(playerId) && vault.createPlayerAccount(playerId));
+    }
+
+    /**
+     * Vault economies take a world name on every call and fall back to global balances themselves
+     * when they have none, so the world overloads are always passed on.
+     *
+     * @return true
+     */
+    @Override
+    public boolean implementationSupportsWorlds() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerId, World world) {
+        return getBalance(Bukkit.getOfflinePlayer(playerId), world);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player, World world) {
+        return submit(() -> vault.getBalance(player, world.getName()));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(UUID playerId, World world, double amount) {
+        return send(Bukkit.getOfflinePlayer(playerId), world, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> send(OfflinePlayer player, World world, double amount) {
+        return submit(() -> vault.depositPlayer(player, world.getName(), amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(UUID playerId, World world, double amount) {
+        return take(Bukkit.getOfflinePlayer(playerId), world, amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> take(OfflinePlayer player, World world, double amount) {
+        return submit(() -> vault.withdrawPlayer(player, world.getName(), amount));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(UUID playerId, World world) {
+        return hasAccount(Bukkit.getOfflinePlayer(playerId), world);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player, World world) {
+        return submit(() -> vault.hasAccount(player, world.getName()));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(UUID playerId, World world) {
+        return createAccount(Bukkit.getOfflinePlayer(playerId), world);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createAccount(OfflinePlayer player, World world) {
+        return submit(() -> !vault.hasAccount(player, world.getName()) && vault.createPlayerAccount(player, world.getName()));
+    }
+
+    @Override
+    public boolean implementationSupportsBanks() {
+        return vault.hasBankSupport();
+    }
+
+    @Override
+    public CompletableFuture<Bank> createBank(UUID playerId, String bankName) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(playerId);
+        return submit(() -> {
+            EconomyResponse response = vault.createBank(bankName, player);
+            if (!response.transactionSuccess()) {
+                throw new IllegalStateException("Could not create bank " + bankName + ": " + response.errorMessage);
+            }
+            return bank(bankName);
+        });
+    }
+
+    @Override
+    public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(playerId);
+        return submit(() -> {
+            String bank = bankOf(player);
+            return bank == null ? FundsCheck.NO_ACCOUNT : FundsCheck.of(vault.bankBalance(bank).balance);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(UUID playerId) {
+        return bankHasAccount(Bukkit.getOfflinePlayer(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bankHasAccount(OfflinePlayer playerId) {
+        return submit(() -> bankOf(playerId) != null);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(UUID playerId, double amount) {
+        return bankWire(Bukkit.getOfflinePlayer(playerId), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWire(OfflinePlayer playerId, double amount) {
+        return submit(() -> {
+            String bank = bankOf(playerId);
+            return bank == null ? EconomyResponse.of(Reason.NO_BANK)
+                    : vault.bankDeposit(bank, amount);
+        });
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(UUID playerId, double amount) {
+        return bankWithdraw(Bukkit.getOfflinePlayer(playerId), amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(OfflinePlayer playerId, double amount) {
+        return submit(() -> {
+            String bank = bankOf(playerId);
+            return bank == null ? EconomyResponse.of(Reason.NO_BANK)
+                    : vault.bankWithdraw(bank, amount);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(UUID playerId) {
+        return bankBalance(Bukkit.getOfflinePlayer(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Double> bankBalance(OfflinePlayer playerId) {
+        return submit(() -> {
+            String bank = bankOf(playerId);
+            return bank == null ? 0 : vault.bankBalance(bank).balance;
+        });
+    }
+
+    /**
+     * Gets every bank. The names are read on the pool, and as the set is returned synchronously
+     * this waits for it, as do the balance methods of the returned banks.
+     *
+     * @return the banks
+     */
+    @Override
+    public Set<Bank> getBanks() {
+        return call(() -> {
+            List<String> names = vault.getBanks();
+            Set<Bank> banks = new HashSet<>(names.size() * 2);
+            for (String name : names) {
+                banks.add(bank(name));
+            }
+            return banks;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBank(UUID bankId) {
+        return submit(() -> {
+            for (String name : vault.getBanks()) {
+                VaultBank bank = bank(name);
+                if (bank.getUniqueId().equals(bankId)) {
+                    return bank;
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanks(UUID after, int limit) {
+        return submit(() -> Economy.super.getBanks(after, limit).join());
+    }
+
+    @Override
+    public CompletableFuture<Bank> getBankByName(String name) {
+        return submit(() -> {
+            for (String bank : vault.getBanks()) {
+                if (bank.equalsIgnoreCase(name)) {
+                    return bank(bank);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Bank>> getBanksOwnedBy(UUID ownerId) {
+        OfflinePlayer owner = Bukkit.getOfflinePlayer(ownerId);
+        return submit(() -> {
+            List<Bank> owned = new ArrayList<>();
+            for (String bank : vault.getBanks()) {
+                if (vault.isBankOwner(bank, owner).transactionSuccess()) {
+                    owned.add(bank(bank));
+                }
+            }
+            return owned;
+        });
+    }
+
+    /**
+     * Finds the bank owned by a player, as Taco keys banks by owner while Vault keys them by name.
+     *
+     * @return the name of the bank, or null if the player owns none
+     */
+    private String bankOf(OfflinePlayer player) {
+        for (String name : vault.getBanks()) {
+            if (vault.isBankOwner(name, player).transactionSuccess()) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private VaultBank bank(String name) {
+        return banks.computeIfAbsent(name, VaultBank::new);
+    }
+
+    /**
+     * Runs a Vault call on the pool and waits for it, for the synchronous {@link Bank} methods.
+     * A call made from the pool itself runs at once, as waiting for the pool there could deadlock.
+     */
+    private <T> T call(Supplier<T> call) {
+        if (onWorker.get() != null) {
+            return call.get();
+        }
+        try {
+            return submit(call).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(e);
+            return future;
+        }
+        peakQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+        return future;
+    }
+
+    /**
+     * A Vault bank, identified by its name. Every method runs as one task on the adapter's pool.
+     */
+    private final class VaultBank implements Bank {
+        private final String name;
+
+        VaultBank(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public double getBalance() {
+            return call(() -> vault.bankBalance(name).balance);
+        }
+
+        @Override
+        public void setBalance(double balance) {
+            call(() -> {
+                double difference = balance - vault.bankBalance(name).balance;
+                if (difference != 0) {
+                    adjust(difference);
+                }
+                return null;
+            });
+        }
+
+        @Override
+        public double addAndGet(double delta) {
+            return call(() -> adjust(delta).balance);
+        }
+
+        @Override
+        public boolean compareAndSet(double expected, double update) {
+            return call(() -> {
+                double balance = vault.bankBalance(name).balance;
+                if (balance != expected) {
+                    return false;
+                }
+                if (update != balance) {
+                    adjust(update - balance);
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public boolean withdrawIfAtLeast(double amount) {
+            if (!(amount >= 0)) {
+                throw new IllegalArgumentException("Amount must be a positive number: " + amount);
+            }
+            return call(() -> vault.bankHas(name, amount).transactionSuccess()
+                    && vault.bankWithdraw(name, amount).transactionSuccess());
+        }
+
+        /**
+         * Deposits or withdraws the difference, on the pool.
+         */
+        private EconomyResponse adjust(double delta) {
+            EconomyResponse response = delta < 0 ? vault.bankWithdraw(name, -delta) : vault.bankDeposit(name, delta);
+            if (!response.transactionSuccess()) {
+                throw new IllegalStateException("Could not update bank " + name + ": " + response.errorMessage);
+            }
+            return response;
+        }
+
+        @Override
+        public UUID getUniqueId() {
+            return UUID.nameUUIDFromBytes(("VaultBank:" + name).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException("Vault banks cannot be renamed");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof VaultBank && ((VaultBank) other).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+}
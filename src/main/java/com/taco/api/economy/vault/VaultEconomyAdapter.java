@@ -0,0 +1,790 @@
+package com.taco.api.economy.vault;
+
+import com.taco.api.economy.BalanceSubscription;
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.FundsCheck;
+import com.taco.api.economy.Money;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves a Taco {@link Economy} to plugins written against the synchronous Vault
+ * {@link net.milkbowl.vault.economy.Economy}, without blocking the calling thread on every call.
+ * <p>
+ * Player names are resolved to {@link UUID}s through a bounded cache, fed by {@link #rememberName} on join, and
+ * through the online players; offline players are never looked up by name, as that may block on a web request.
+ * Names matching nobody are remembered as misses for the refresh interval, in a cache of the same bound.
+ * Balances are answered from a local cache kept fresh in the background and, when the economy
+ * {@linkplain Economy#implementationSupportsEvents() publishes events}, by its balance changes until
+ * {@link #close()}.
+ * Deposits and withdrawals are checked against the cache, applied to it at once and sent to the economy without
+ * waiting: the returned response is optimistic, and a write the economy later rejects is rolled back in the cache
+ * and logged. Only a cache miss waits for the economy, and never longer than the configured bound.
+ * <p>
+ * When the economy {@linkplain Economy#implementationSupportsWorlds() keeps per-world balances}, calls naming a loaded
+ * world are scoped to it; they are not cached and wait a bounded time for the economy. Other world names are
+ * ignored. Vault's bank membership is not supported.
+ * Bank ownership is only known for banks implementing {@link Bank#getOwnerId()}, and bank deposits and withdrawals go
+ * through the economy's {@link Economy#bankWire} and {@link Economy#bankWithdraw} of the owner; only banks without a
+ * known owner are written directly.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class VaultEconomyAdapter implements net.milkbowl.vault.economy.Economy, AutoCloseable {
+    private static final EconomyResponse NOT_IMPLEMENTED =
+            new EconomyResponse(0, 0, Reason.NOT_IMPLEMENTED, "Not supported by Taco economies");
+
+    private final Economy economy;
+    private final Money money;
+    private final Logger logger;
+    private final long refreshNanos;
+    private final long maxWaitNanos;
+    private final Map<String, UUID> names;
+    private final Map<String, Long> misses;
+    private final Map<UUID, Account> accounts;
+    private final BalanceSubscription subscription;
+
+    /**
+     * Creates an adapter caching up to 4096 names and balances, refreshing balances after 30 seconds
+     * and waiting at most 50 milliseconds on a cache miss.
+     *
+     * @param economy the economy to serve
+     * @param logger the logger rejected writes are reported to
+     */
+    public VaultEconomyAdapter(Economy economy, Logger logger) {
+        this(economy, logger, 4096, 30, TimeUnit.SECONDS, 50, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates an adapter.
+     *
+     * @param economy the economy to serve
+     * @param logger the logger rejected writes are reported to
+     * @param capacity the maximum number of names and of balances cached
+     * @param refreshAfter how long a balance is served before it is refreshed in the background
+     * @param refreshUnit the unit of refreshAfter
+     * @param maxWait the longest a cache miss waits for the economy
+     * @param waitUnit the unit of maxWait
+     */
+    public VaultEconomyAdapter(Economy economy, Logger logger, int capacity, long refreshAfter, TimeUnit refreshUnit,
+                               long maxWait, TimeUnit waitUnit) {
+        this.economy = economy;
+        this.money = economy.getMoney();
+        this.logger = logger;
+        this.refreshNanos = refreshUnit.toNanos(refreshAfter);
+        this.maxWaitNanos = waitUnit.toNanos(maxWait);
+        this.names = new LinkedHashMap<String, UUID>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.misses = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.accounts = new LinkedHashMap<UUID, Account>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Account> eldest) {
+                // An account with writes in flight must stay, or rolling them back would be lost.
+                return size() > capacity && eldest.getValue().inFlight == 0;
+            }
+        };
+        this.subscription = economy.implementationSupportsEvents() ? economy.subscribe(this::onBalanceChange) : null;
+    }
+
+    /**
+     * Caches the UUID of a player name, for example when the player joins.
+     *
+     * @param name the name of the player
+     * @param playerId the UUID of the player
+     */
+    public void rememberName(String name, UUID playerId) {
+        String key = name.toLowerCase(Locale.ROOT);
+        synchronized (names) {
+            names.put(key, playerId);
+            misses.remove(key);
+        }
+    }
+
+    /**
+     * Drops the cached balance of a player, so the next read loads it again.
+     *
+     * @param playerId the player
+     */
+    public void invalidate(UUID playerId) {
+        synchronized (accounts) {
+            Account account = accounts.get(playerId);
+            if (account != null && account.inFlight == 0) {
+                accounts.remove(playerId);
+            }
+        }
+    }
+
+    /**
+     * Stops listening to the economy's balance changes, for example when the adapter is unregistered from Vault.
+     * Cached balances are still refreshed in the background if the adapter keeps being used.
+     */
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.unsubscribe();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return economy.isEnabled();
+    }
+
+    @Override
+    public String getName() {
+        return economy.getName();
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return economy.implementationSupportsBanks();
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return money.getFractionalDigits();
+    }
+
+    @Override
+    public String format(double amount) {
+        return economy.format(amount);
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return "";
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return "";
+    }
+
+    @Override
+    @Deprecated
+    public boolean hasAccount(String playerName) {
+        UUID playerId = resolve(playerName);
+        return playerId != null && hasAccount(playerId);
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return hasAccount(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public boolean hasAccount(String playerName, String worldName) {
+        UUID playerId = resolve(playerName);
+        return playerId != null && hasAccount(playerId, worldName);
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return hasAccount(player.getUniqueId(), worldName);
+    }
+
+    @Override
+    @Deprecated
+    public double getBalance(String playerName) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? 0 : getBalance(playerId);
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        return getBalance(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public double getBalance(String playerName, String world) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? 0 : getBalance(playerId, world);
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        return getBalance(player.getUniqueId(), world);
+    }
+
+    @Override
+    @Deprecated
+    public boolean has(String playerName, double amount) {
+        UUID playerId = resolve(playerName);
+        return playerId != null && has(playerId, amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return has(player.getUniqueId(), amount);
+    }
+
+    @Override
+    @Deprecated
+    public boolean has(String playerName, String worldName, double amount) {
+        UUID playerId = resolve(playerName);
+        return playerId != null && has(playerId, worldName, amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        return has(player.getUniqueId(), worldName, amount);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? EconomyResponse.of(Reason.NO_ACCOUNT) : write(playerId, amount, true);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return write(player.getUniqueId(), amount, true);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? EconomyResponse.of(Reason.NO_ACCOUNT) : write(playerId, worldName, amount, true);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return write(player.getUniqueId(), worldName, amount, true);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? EconomyResponse.of(Reason.NO_ACCOUNT) : write(playerId, amount, false);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return write(player.getUniqueId(), amount, false);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? EconomyResponse.of(Reason.NO_ACCOUNT) : write(playerId, worldName, amount, false);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return write(player.getUniqueId(), worldName, amount, false);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse createBank(String name, String player) {
+        UUID playerId = resolve(player);
+        return playerId == null ? EconomyResponse.of(Reason.NO_ACCOUNT) : createBank(name, playerId);
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return createBank(name, player.getUniqueId());
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return NOT_IMPLEMENTED;
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        Bank bank = findBank(name);
+        return bank == null ? EconomyResponse.of(Reason.NO_BANK) : success(0, bank.getBalance());
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        Bank bank = findBank(name);
+        if (bank == null) {
+            return EconomyResponse.of(Reason.NO_BANK);
+        }
+        double balance = bank.getBalance();
+        return balance >= amount ? success(amount, balance) : failure(amount, balance, Reason.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return bankWrite(name, amount, true);
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return bankWrite(name, amount, false);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        UUID playerId = resolve(playerName);
+        return playerId == null ? EconomyResponse.of(Reason.NO_ACCOUNT) : isBankOwner(name, playerId);
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return isBankOwner(name, player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return NOT_IMPLEMENTED;
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return NOT_IMPLEMENTED;
+    }
+
+    @Override
+    public List<String> getBanks() {
+        List<String> banks = new ArrayList<>();
+        economy.forEachBank(bank -> banks.add(bank.getName()));
+        return banks;
+    }
+
+    @Override
+    @Deprecated
+    public boolean createPlayerAccount(String playerName) {
+        UUID playerId = resolve(playerName);
+        return playerId != null && createPlayerAccount(playerId);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return createPlayerAccount(player.getUniqueId());
+    }
+
+    @Override
+    @Deprecated
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        UUID playerId = resolve(playerName);
+        return playerId != null && createPlayerAccount(playerId, worldName);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return createPlayerAccount(player.getUniqueId(), worldName);
+    }
+
+    private boolean hasAccount(UUID playerId) {
+        FundsCheck funds = funds(playerId);
+        return funds != null && funds.hasAccount();
+    }
+
+    private double getBalance(UUID playerId) {
+        FundsCheck funds = funds(playerId);
+        return funds == null ? 0 : funds.getBalance();
+    }
+
+    private boolean has(UUID playerId, double amount) {
+        FundsCheck funds = funds(playerId);
+        return funds != null && funds.has(amount);
+    }
+
+    private boolean createPlayerAccount(UUID playerId) {
+        Boolean created = await(economy.createAccount(playerId));
+        invalidate(playerId);
+        return created != null && created;
+    }
+
+    private boolean hasAccount(UUID playerId, String worldName) {
+        World world = world(worldName);
+        if (world == null) {
+            return hasAccount(playerId);
+        }
+        Boolean exists = await(economy.hasAccount(playerId, world));
+        return exists != null && exists;
+    }
+
+    private double getBalance(UUID playerId, String worldName) {
+        World world = world(worldName);
+        if (world == null) {
+            return getBalance(playerId);
+        }
+        Double balance = await(economy.getBalance(playerId, world));
+        return balance == null ? 0 : balance;
+    }
+
+    private boolean has(UUID playerId, String worldName, double amount) {
+        World world = world(worldName);
+        if (world == null) {
+            return has(playerId, amount);
+        }
+        Double balance = await(economy.getBalance(playerId, world));
+        return balance != null && balance >= amount;
+    }
+
+    private boolean createPlayerAccount(UUID playerId, String worldName) {
+        World world = world(worldName);
+        if (world == null) {
+            return createPlayerAccount(playerId);
+        }
+        Boolean created = await(economy.createAccount(playerId, world));
+        return created != null && created;
+    }
+
+    /**
+     * Writes a world balance, waiting a bounded time for the economy, as world balances are not cached.
+     */
+    private EconomyResponse write(UUID playerId, String worldName, double amount, boolean withdraw) {
+        World world = world(worldName);
+        if (world == null) {
+            return write(playerId, amount, withdraw);
+        }
+        EconomyResponse response = await(withdraw ? economy.take(playerId, world, amount) : economy.send(playerId, world, amount));
+        return response == null ? EconomyResponse.of(Reason.TIMED_OUT) : response;
+    }
+
+    /**
+     * Looks up the world a Vault call is scoped to.
+     *
+     * @return the world, or null if the economy has no per-world balances or the world is not loaded
+     */
+    private World world(String worldName) {
+        return worldName == null || !economy.implementationSupportsWorlds() ? null : Bukkit.getWorld(worldName);
+    }
+
+    private EconomyResponse createBank(String name, UUID playerId) {
+        CompletableFuture<Bank> created = economy.createBank(playerId, name);
+        if (created.isCompletedExceptionally()) {
+            // rejected at once, for example as another bank has the name
+            Throwable cause = created.handle((bank, error) -> error).join();
+            cause = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+            return new EconomyResponse(0, 0, Reason.OTHER, cause.getMessage());
+        }
+        Bank bank = await(created);
+        return bank == null ? EconomyResponse.of(Reason.TIMED_OUT) : success(0, bank.getBalance());
+    }
+
+    private EconomyResponse bankWrite(String name, double amount, boolean withdraw) {
+        if (!(amount >= 0)) {
+            return EconomyResponse.of(Reason.INVALID_AMOUNT);
+        }
+        Bank bank = findBank(name);
+        if (bank == null) {
+            return EconomyResponse.of(Reason.NO_BANK);
+        }
+        UUID ownerId = bank.getOwnerId();
+        if (ownerId != null) {
+            EconomyResponse response = await(withdraw ? economy.bankWithdraw(ownerId, amount)
+                    : economy.bankWire(ownerId, amount));
+            return response == null ? EconomyResponse.of(Reason.TIMED_OUT) : response;
+        }
+        if (withdraw) {
+            return bank.withdrawIfAtLeast(amount) ? success(amount, bank.getBalance())
+                    : failure(amount, bank.getBalance(), Reason.INSUFFICIENT_FUNDS);
+        }
+        try {
+            return success(amount, bank.addAndGet(amount));
+        } catch (ArithmeticException e) {
+            return new EconomyResponse(amount, bank.getBalance(), Reason.BALANCE_LIMIT, e.getMessage());
+        }
+    }
+
+    private Bank findBank(String name) {
+        return await(economy.getBankByName(name));
+    }
+
+    private EconomyResponse isBankOwner(String name, UUID playerId) {
+        Bank bank = findBank(name);
+        if (bank == null) {
+            return EconomyResponse.of(Reason.NO_BANK);
+        }
+        UUID ownerId = bank.getOwnerId();
+        if (ownerId == null) {
+            return NOT_IMPLEMENTED;
+        }
+        return ownerId.equals(playerId) ? success(0, 0) : EconomyResponse.of(Reason.NOT_BANK_OWNER);
+    }
+
+    /**
+     * Gets the funds of a player, from the economy's own cache, this adapter's cache,
+     * or by waiting a bounded time for the economy.
+     *
+     * @return the funds, or null if they could not be loaded in time
+     */
+    private FundsCheck funds(UUID playerId) {
+        Account account;
+        synchronized (accounts) {
+            account = accounts.get(playerId);
+        }
+        if (account == null || account.inFlight == 0) {
+            FundsCheck provided = economy.getCachedFunds(playerId);
+            if (provided != null) {
+                return provided;
+            }
+        }
+
+        account = load(playerId);
+        if (account == null) {
+            return null;
+        }
+        synchronized (account) {
+            return account.exists ? FundsCheck.of(money.toMajor(account.confirmed + account.pending)) : FundsCheck.NO_ACCOUNT;
+        }
+    }
+
+    /**
+     * Applies a deposit or withdrawal to the cache and sends it to the economy without waiting for it.
+     */
+    private EconomyResponse write(UUID playerId, double amount, boolean withdraw) {
+        long minor = money.toMinorAmount(amount);
+        if (minor < 0) {
+            return EconomyResponse.of(Reason.INVALID_AMOUNT);
+        }
+        Account account = load(playerId);
+        if (account == null) {
+            return EconomyResponse.of(Reason.TIMED_OUT);
+        }
+
+        long delta = withdraw ? -minor : minor;
+        long balance;
+        synchronized (account) {
+            if (!account.exists) {
+                return EconomyResponse.of(Reason.NO_ACCOUNT);
+            }
+            balance = account.confirmed + account.pending;
+            if (withdraw && balance < minor) {
+                return failure(amount, money.toMajor(balance), Reason.INSUFFICIENT_FUNDS);
+            }
+            balance += delta;
+            account.pending += delta;
+            account.inFlight++;
+            account.version++;
+        }
+
+        CompletableFuture<EconomyResponse> sent = withdraw ? economy.takeMinor(playerId, minor) : economy.sendMinor(playerId, minor);
+        sent.whenComplete((response, error) -> settle(playerId, account, delta, response, error));
+        return success(amount, money.toMajor(balance));
+    }
+
+    /**
+     * Moves a completed write from the pending to the confirmed balance, or rolls it back.
+     */
+    private void settle(UUID playerId, Account account, long delta, EconomyResponse response, Throwable error) {
+        boolean succeeded = error == null && response.transactionSuccess();
+        synchronized (account) {
+            account.pending -= delta;
+            account.inFlight--;
+            if (!succeeded) {
+                // The cached balance may be wrong in ways the rollback cannot tell, so load it again.
+                account.stale = true;
+            } else if (account.inFlight == 0 && money.toMinorAmount(response.balance) >= 0) {
+                account.confirmed = money.toMinorAmount(response.balance);
+            } else {
+                account.confirmed += delta;
+            }
+        }
+        if (!succeeded) {
+            String reason = error != null ? String.valueOf(error.getMessage()) : response.errorMessage;
+            logger.log(Level.WARNING, "Taco economy " + economy.getName() + " rejected a Vault "
+                    + (delta < 0 ? "withdrawal" : "deposit") + " of " + money.toPlainString(Math.abs(delta))
+                    + " for " + playerId + ": " + reason, error);
+        }
+    }
+
+    /**
+     * Gets the cached account, loading it if it is missing and refreshing it in the background if it is stale.
+     *
+     * @return the account, or null if it could not be loaded in time
+     */
+    private Account load(UUID playerId) {
+        Account account;
+        synchronized (accounts) {
+            account = accounts.get(playerId);
+            if (account == null) {
+                account = new Account();
+                accounts.put(playerId, account);
+            }
+        }
+
+        CompletableFuture<FundsCheck> loading;
+        boolean start = false;
+        synchronized (account) {
+            if (account.loading == null && account.inFlight == 0
+                    && (!account.loaded || account.stale || System.nanoTime() - account.loadedAt >= refreshNanos)) {
+                account.loading = new CompletableFuture<>();
+                start = true;
+            }
+            if (account.loaded) {
+                loading = null;
+            } else {
+                loading = account.loading;
+            }
+        }
+
+        if (start) {
+            refresh(playerId, account);
+        }
+        if (loading != null) {
+            await(loading);
+        }
+        synchronized (account) {
+            return account.loaded ? account : null;
+        }
+    }
+
+    private void refresh(UUID playerId, Account account) {
+        long version;
+        CompletableFuture<FundsCheck> loading;
+        synchronized (account) {
+            version = account.version;
+            loading = account.loading;
+        }
+        economy.checkFunds(playerId).whenComplete((funds, error) -> {
+            synchronized (account) {
+                account.loading = null;
+                // A write started since the load began makes its result outdated.
+                if (error == null && account.version == version && account.inFlight == 0) {
+                    account.exists = funds.hasAccount();
+                    account.confirmed = funds.hasAccount() ? Math.max(money.toMinorAmount(funds.getBalance()), 0) : 0;
+                    account.loaded = true;
+                    account.stale = false;
+                    account.loadedAt = System.nanoTime();
+                }
+            }
+            if (error != null) {
+                loading.completeExceptionally(error);
+            } else {
+                loading.complete(funds);
+            }
+        });
+    }
+
+    private void onBalanceChange(UUID playerId, double balance) {
+        Account account;
+        synchronized (accounts) {
+            account = accounts.get(playerId);
+        }
+        long minor = money.toMinorAmount(balance);
+        if (account == null || minor < 0) {
+            return;
+        }
+        synchronized (account) {
+            if (account.inFlight == 0) {
+                account.exists = true;
+                account.confirmed = minor;
+                account.loaded = true;
+                account.stale = false;
+                account.loadedAt = System.nanoTime();
+                account.version++;
+            }
+        }
+    }
+
+    private UUID resolve(String playerName) {
+        if (playerName == null) {
+            return null;
+        }
+        String key = playerName.toLowerCase(Locale.ROOT);
+        synchronized (names) {
+            UUID cached = names.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            Long missedAt = misses.get(key);
+            if (missedAt != null && System.nanoTime() - missedAt < refreshNanos) {
+                return null;
+            }
+        }
+
+        Player online = Bukkit.getPlayerExact(playerName);
+        if (online == null) {
+            synchronized (names) {
+                misses.put(key, System.nanoTime());
+            }
+            return null;
+        }
+        rememberName(playerName, online.getUniqueId());
+        return online.getUniqueId();
+    }
+
+    /**
+     * Waits for a future no longer than the configured bound.
+     *
+     * @return the result, or null if the future failed or did not complete in time
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.log(Level.WARNING, "Taco economy " + economy.getName() + " failed a Vault request", e.getCause());
+            return null;
+        }
+    }
+
+    private static EconomyResponse success(double amount, double balance) {
+        return new EconomyResponse(amount, balance, Reason.NONE);
+    }
+
+    private static EconomyResponse failure(double amount, double balance, Reason reason) {
+        return new EconomyResponse(amount, balance, reason);
+    }
+
+    /**
+     * The cached balance of a player, guarded by its own monitor.
+     * The balance is the confirmed balance plus the writes still in flight.
+     */
+    private static final class Account {
+        boolean loaded;
+        boolean exists;
+        boolean stale;
+        long confirmed;
+        long pending;
+        volatile int inFlight;
+        long version;
+        long loadedAt;
+        CompletableFuture<FundsCheck> loading;
+    }
+}
@@ -0,0 +1,72 @@
+package com.taco.api.metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The call count, error count and latency of one method, see {@link MetricsRegistry}.
+ * <p>
+ * A call counts as an error when it throws, or when its future completes exceptionally. Recording allocates
+ * nothing, except for a future that is still running, which needs a callback to record it once it completes.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class CallMetrics {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    CallMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the method.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a call that has returned.
+     *
+     * @param startNanos the {@link System#nanoTime()} the call started at
+     * @param failed whether the call threw
+     */
+    public void record(long startNanos, boolean failed) {
+        latency.record(System.nanoTime() - startNanos);
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Records a call returning a future, once the future completes.
+     *
+     * @param startNanos the {@link System#nanoTime()} the call started at
+     * @param result the returned future, null if the call threw
+     */
+    public void record(long startNanos, CompletableFuture<?> result) {
+        if (result == null) {
+            record(startNanos, true);
+        } else if (result.isDone()) {
+            record(startNanos, result.isCompletedExceptionally());
+        } else {
+            result.whenComplete((value, error) -> record(startNanos, error != null));
+        }
+    }
+
+    /**
+     * Copies the current counts.
+     *
+     * @return the snapshot
+     */
+    public CallSnapshot snapshot() {
+        return new CallSnapshot(name, calls.sum(), errors.sum(), latency.snapshot());
+    }
+}
@@ -0,0 +1,72 @@
+package com.taco.api.metrics;
+
+import java.util.Locale;
+
+/**
+ * The counts of a {@link CallMetrics} at one point in time.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class CallSnapshot {
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final LatencyHistogram.Snapshot latency;
+
+    CallSnapshot(String name, long calls, long errors, LatencyHistogram.Snapshot latency) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.latency = latency;
+    }
+
+    /**
+     * Gets the name of the method.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of calls.
+     *
+     * @return the number of calls
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Gets the number of calls that threw or completed exceptionally.
+     *
+     * @return the number of errors
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets the latency of the calls.
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * Formats the snapshot as a single line, for example for a command or a metrics file.
+     *
+     * @return the line, with latencies in microseconds
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s calls=%d errors=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, calls, errors, latency.getMean() / 1000, latency.getPercentile(50) / 1000.0,
+                latency.getPercentile(99) / 1000.0, latency.getPercentile(99.9) / 1000.0, latency.getMax() / 1000.0);
+    }
+}
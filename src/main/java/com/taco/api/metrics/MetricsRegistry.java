@@ -0,0 +1,59 @@
+package com.taco.api.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link CallMetrics} of every instrumented method of a provider, keyed by method name.
+ * <p>
+ * Decorators look their metrics up once when created, so recording a call never touches the registry.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public final class MetricsRegistry {
+    private final Map<String, CallMetrics> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the metrics of a method, creating them the first time.
+     *
+     * @param name the name of the method
+     * @return the metrics
+     */
+    public CallMetrics get(String name) {
+        return methods.computeIfAbsent(name, CallMetrics::new);
+    }
+
+    /**
+     * Copies the current counts of every method that was called at least once.
+     *
+     * @return the snapshots, ordered by method name
+     */
+    public List<CallSnapshot> snapshot() {
+        List<CallSnapshot> snapshots = new ArrayList<>();
+        for (CallMetrics metrics : methods.values()) {
+            CallSnapshot snapshot = metrics.snapshot();
+            if (snapshot.getCalls() > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparing(CallSnapshot::getName));
+        return snapshots;
+    }
+
+    /**
+     * Writes a snapshot, one line per method.
+     *
+     * @param out where to write the lines
+     * @throws IOException if writing fails
+     */
+    public void export(Appendable out) throws IOException {
+        for (CallSnapshot snapshot : snapshot()) {
+            out.append(snapshot.toString()).append('\n');
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.taco.api.perms;
+
+import com.taco.api.metrics.CallMetrics;
+import com.taco.api.metrics.MetricsRegistry;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Records the call count, error count and latency of every method of any {@link Permissions}.
+ * <p>
+ * Every method is forwarded to the wrapped permissions as it is called, so methods it overrides keep working, and
+ * overloads are recorded together under the method's name. Read the numbers through {@link #getMetrics()}.
+ *
+ * @author FlameyosFlow
+ * @since 1.2.0
+ */
+public class MetricsPermissions extends Permissions {
+    private final Permissions delegate;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final CallMetrics has = metrics.get("has");
+    private final CallMetrics playerAdd = metrics.get("playerAdd");
+    private final CallMetrics playerAddTransient = metrics.get("playerAddTransient");
+    private final CallMetrics playerRemove = metrics.get("playerRemove");
+    private final CallMetrics playerRemoveTransient = metrics.get("playerRemoveTransient");
+    private final CallMetrics groupHas = metrics.get("groupHas");
+    private final CallMetrics groupAdd = metrics.get("groupAdd");
+    private final CallMetrics groupRemove = metrics.get("groupRemove");
+    private final CallMetrics playerInGroup = metrics.get("playerInGroup");
+    private final CallMetrics playerAddGroup = metrics.get("playerAddGroup");
+    private final CallMetrics playerRemoveGroup = metrics.get("playerRemoveGroup");
+    private final CallMetrics getPlayerGroups = metrics.get("getPlayerGroups");
+    private final CallMetrics getPrimaryGroup = metrics.get("getPrimaryGroup");
+    private final CallMetrics getGroups = metrics.get("getGroups");
+
+    /**
+     * Creates permissions recording the calls to another permissions provider.
+     *
+     * @param delegate the permissions to record calls to
+     */
+    public MetricsPermissions(Permissions delegate) {
+        super(delegate.plugin);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the recorded metrics.
+     *
+     * @return the metrics, one entry per method
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public boolean hasSuperPermsCompat() {
+        return delegate.hasSuperPermsCompat();
+    }
+
+    @Override
+    public boolean has(CommandSender sender, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.has(sender, permission);
+            failed = false;
+            return result;
+        } finally {
+            has.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean has(Player player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.has(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            has.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAdd(World world, UUID player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAdd(world, player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerAdd.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAdd(World world, OfflinePlayer player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAdd(world, player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerAdd.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAdd(Player player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAdd(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerAdd.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAddTransient(OfflinePlayer player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAddTransient(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerAddTransient.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAddTransient(Player player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAddTransient(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerAddTransient.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemove(World world, UUID player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemove(world, player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerRemove.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemove(World world, OfflinePlayer player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemove(world, player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerRemove.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemove(Player player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemove(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerRemove.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemoveTransient(OfflinePlayer player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemoveTransient(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerRemoveTransient.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemoveTransient(Player player, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemoveTransient(player, permission);
+            failed = false;
+            return result;
+        } finally {
+            playerRemoveTransient.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean groupHas(World world, String group, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.groupHas(world, group, permission);
+            failed = false;
+            return result;
+        } finally {
+            groupHas.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean groupAdd(World world, String group, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.groupAdd(world, group, permission);
+            failed = false;
+            return result;
+        } finally {
+            groupAdd.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean groupRemove(World world, String group, String permission) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.groupRemove(world, group, permission);
+            failed = false;
+            return result;
+        } finally {
+            groupRemove.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerInGroup(World world, UUID player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerInGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerInGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerInGroup(World world, OfflinePlayer player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerInGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerInGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerInGroup(Player player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerInGroup(player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerInGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAddGroup(World world, UUID player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAddGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerAddGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAddGroup(World world, OfflinePlayer player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAddGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerAddGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerAddGroup(Player player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerAddGroup(player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerAddGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemoveGroup(World world, UUID player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemoveGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerRemoveGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemoveGroup(World world, OfflinePlayer player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemoveGroup(world, player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerRemoveGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean playerRemoveGroup(Player player, String group) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = delegate.playerRemoveGroup(player, group);
+            failed = false;
+            return result;
+        } finally {
+            playerRemoveGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(World world, UUID player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(World world, OfflinePlayer player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getPlayerGroups(Player player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getPlayerGroups(player);
+            failed = false;
+            return result;
+        } finally {
+            getPlayerGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPrimaryGroup(World world, OfflinePlayer player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPrimaryGroup(world, player);
+            failed = false;
+            return result;
+        } finally {
+            getPrimaryGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPrimaryGroup(World world, UUID uniqueId) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPrimaryGroup(world, uniqueId);
+            failed = false;
+            return result;
+        } finally {
+            getPrimaryGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String getPrimaryGroup(Player player) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = delegate.getPrimaryGroup(player);
+            failed = false;
+            return result;
+        } finally {
+            getPrimaryGroup.record(start, failed);
+        }
+    }
+
+    @Override
+    public String[] getGroups() {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String[] result = delegate.getGroups();
+            failed = false;
+            return result;
+        } finally {
+            getGroups.record(start, failed);
+        }
+    }
+
+    @Override
+    public boolean hasGroupSupport() {
+        return delegate.hasGroupSupport();
+    }
+}
@@ -42,6 +42,58 @@ public class EconomyResponse {
         }
     }
 
+    /**
+     * Enum of the reasons an operation ended the way it did, so callers do not have to parse error messages.
+     */
+    public static enum Reason {
+        NONE(ResponseType.SUCCESS, null),
+        NO_ACCOUNT(ResponseType.FAILURE, "Account does not exist"),
+        NO_BANK(ResponseType.FAILURE, "Bank does not exist"),
+        NOT_BANK_OWNER(ResponseType.FAILURE, "Player does not own the bank"),
+        INSUFFICIENT_FUNDS(ResponseType.FAILURE, "Insufficient funds"),
+        INVALID_AMOUNT(ResponseType.FAILURE, "Amount must be a positive number"),
+        BALANCE_LIMIT(ResponseType.FAILURE, "Balance limit reached"),
+        TIMED_OUT(ResponseType.FAILURE, "The economy did not answer in time"),
+        ERROR(ResponseType.FAILURE, "The economy failed the request"),
+        CLOSED(ResponseType.FAILURE, "The economy is closed"),
+        NOT_IMPLEMENTED(ResponseType.NOT_IMPLEMENTED, "Not implemented"),
+        OTHER(ResponseType.FAILURE, null);
+
+        private final ResponseType type;
+        private final String message;
+
+        Reason(ResponseType type, String message) {
+            this.type = type;
+            this.message = message;
+        }
+
+        /**
+         * Gets the response type operations ending for this reason have.
+         * @return the response type
+         */
+        public ResponseType getType() {
+            return type;
+        }
+
+        /**
+         * Gets the default error message of this reason.
+         * @return the message, null for {@link #NONE} and {@link #OTHER}
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private static final EconomyResponse[] SHARED;
+
+    static {
+        Reason[] reasons = Reason.values();
+        SHARED = new EconomyResponse[reasons.length];
+        for (Reason reason : reasons) {
+            SHARED[reason.ordinal()] = new EconomyResponse(0, 0, reason);
+        }
+    }
+
     /**
      * Amount modified by calling method
      */
@@ -59,6 +111,10 @@ public class EconomyResponse {
      * Error message if the variable 'type' is ResponseType.FAILURE
      */
     public final String errorMessage;
+    /**
+     * Reason of the outcome, {@link Reason#NONE} on success and {@link Reason#OTHER} if the economy did not say
+     */
+    public final Reason reason;
 
     /**
      * Constructor for EconomyResponse
@@ -72,6 +128,43 @@ public class EconomyResponse {
         this.balance = balance;
         this.type = type;
         this.errorMessage = errorMessage;
+        this.reason = type == ResponseType.SUCCESS ? Reason.NONE
+                : type == ResponseType.NOT_IMPLEMENTED ? Reason.NOT_IMPLEMENTED : Reason.OTHER;
+    }
+
+    /**
+     * Constructor for EconomyResponse using the default message of the reason
+     * @param amount Amount modified during operation
+     * @param balance New balance of account
+     * @param reason Reason of the outcome, which also decides the type
+     */
+    public EconomyResponse(double amount, double balance, Reason reason) {
+        this(amount, balance, reason, reason.message);
+    }
+
+    /**
+     * Constructor for EconomyResponse
+     * @param amount Amount modified during operation
+     * @param balance New balance of account
+     * @param reason Reason of the outcome, which also decides the type
+     * @param errorMessage Error message if necessary (commonly null)
+     */
+    public EconomyResponse(double amount, double balance, Reason reason, String errorMessage) {
+        this.amount = amount;
+        this.balance = balance;
+        this.type = reason.type;
+        this.errorMessage = errorMessage;
+        this.reason = reason;
+    }
+
+    /**
+     * Gets the shared response for an outcome that moved no money and reports no balance, such as a missing
+     * account. The amount and balance of the response are 0, and the same instance is returned every time.
+     * @param reason Reason of the outcome
+     * @return the shared response
+     */
+    public static EconomyResponse of(Reason reason) {
+        return SHARED[reason.ordinal()];
     }
 
     /**
@@ -0,0 +1,19 @@
+package com.taco.api.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executor used when no {@link ExecutorProvider} is installed.
+ * <p>
+ * On Java 21 and newer every task runs on its own virtual thread, so blocking backends such as JDBC scale to
+ * thousands of concurrent requests without exhausting a pool.
+ */
+final class DefaultExecutors {
+    private DefaultExecutors() {
+    }
+
+    static Executor create() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Taco Worker #", 1).factory());
+    }
+}
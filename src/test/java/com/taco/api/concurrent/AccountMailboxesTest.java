@@ -0,0 +1,147 @@
+package com.taco.api.concurrent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AccountMailboxesTest {
+    private static final UUID FIRST = new UUID(1, 2);
+    private static final UUID SECOND = new UUID(3, 4);
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void runsAQueuedOperationOnlyOnceThePreviousCompleted() {
+        AccountMailboxes mailboxes = new AccountMailboxes(pool);
+        CompletableFuture<String> held = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<String> first = mailboxes.submit(FIRST, () -> {
+            started.incrementAndGet();
+            return held;
+        });
+        CompletableFuture<String> second = mailboxes.submit(FIRST, () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        });
+        CompletableFuture<String> other = mailboxes.submit(SECOND, () -> CompletableFuture.completedFuture("other"));
+
+        assertEquals("other", other.join());
+        assertEquals(1, started.get());
+        assertFalse(second.isDone());
+
+        held.complete("first");
+        assertEquals("first", first.join());
+        assertEquals("second", second.join());
+        assertEquals(2, started.get());
+    }
+
+    @Test
+    public void keepsEachSubmittersOrderUnderConcurrentSubmits() throws Exception {
+        AccountMailboxes mailboxes = new AccountMailboxes(pool);
+        int submitters = 4;
+        int operations = 2_000;
+        List<int[]> ran = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(submitters);
+        try {
+            List<Future<List<CompletableFuture<Void>>>> submitted = new ArrayList<>();
+            for (int s = 0; s < submitters; s++) {
+                int submitter = s;
+                submitted.add(threads.submit(() -> {
+                    start.await();
+                    List<CompletableFuture<Void>> results = new ArrayList<>(operations);
+                    for (int i = 0; i < operations; i++) {
+                        int sequence = i;
+                        results.add(mailboxes.submit(FIRST, () -> {
+                            if (running.incrementAndGet() > 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            synchronized (ran) {
+                                ran.add(new int[]{submitter, sequence});
+                            }
+                            // completes later on another thread, like a real asynchronous write
+                            return CompletableFuture.runAsync(running::decrementAndGet, pool);
+                        }));
+                    }
+                    return results;
+                }));
+            }
+            start.countDown();
+            for (Future<List<CompletableFuture<Void>>> results : submitted) {
+                CompletableFuture.allOf(results.get(10, TimeUnit.SECONDS).toArray(new CompletableFuture[0]))
+                        .get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(0, overlaps.get());
+        assertEquals(submitters * operations, ran.size());
+        int[] next = new int[submitters];
+        for (int[] operation : ran) {
+            assertEquals(next[operation[0]]++, operation[1]);
+        }
+        // the mailbox is removed just after the last result completes, possibly on another thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mailboxes.getActiveMailboxes() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, mailboxes.getActiveMailboxes());
+    }
+
+    @Test
+    public void aTwoAccountOperationWaitsForBothMailboxes() {
+        AccountMailboxes mailboxes = new AccountMailboxes(pool);
+        CompletableFuture<Void> firstHeld = new CompletableFuture<>();
+        CompletableFuture<Void> secondHeld = new CompletableFuture<>();
+        mailboxes.submit(FIRST, () -> firstHeld);
+        mailboxes.submit(SECOND, () -> secondHeld);
+
+        CompletableFuture<String> both = mailboxes.submit(FIRST, SECOND, () -> CompletableFuture.completedFuture("both"));
+        firstHeld.complete(null);
+        assertFalse(both.isDone());
+        secondHeld.complete(null);
+        assertEquals("both", both.join());
+    }
+
+    @Test
+    public void runsAQueuedOperationTheExecutorRejects() {
+        AccountMailboxes mailboxes = new AccountMailboxes(command -> {
+            throw new RejectedExecutionException("shut down");
+        });
+        CompletableFuture<String> held = new CompletableFuture<>();
+        mailboxes.submit(FIRST, () -> held);
+        CompletableFuture<String> queued = mailboxes.submit(FIRST, () -> CompletableFuture.completedFuture("queued"));
+        CompletableFuture<String> last = mailboxes.submit(FIRST, () -> CompletableFuture.completedFuture("last"));
+
+        // runs on the completing thread instead, so the mailbox keeps draining
+        held.complete("held");
+        assertTrue(queued.isDone());
+        assertEquals("queued", queued.join());
+        assertEquals("last", last.join());
+        assertEquals(0, mailboxes.getActiveMailboxes());
+    }
+}
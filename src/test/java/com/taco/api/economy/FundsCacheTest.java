@@ -0,0 +1,149 @@
+package com.taco.api.economy;
+
+import com.taco.api.economy.memory.MemoryEconomy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FundsCacheTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+
+    @Test
+    public void loadsAMissOnceInTheBackground() {
+        RemoteEconomy economy = new RemoteEconomy();
+        FundsCache cache = new FundsCache(economy, 1, TimeUnit.MINUTES);
+
+        assertNull(cache.get(PLAYER));
+        assertFalse(cache.hasEnough(PLAYER, 1));
+        assertEquals(1, economy.loads.size());
+
+        economy.loads.get(0).complete(FundsCheck.of(10));
+        assertEquals(10, cache.get(PLAYER).getBalance(), 0);
+        assertTrue(cache.hasEnough(PLAYER, 10));
+        assertEquals(1, economy.loads.size());
+    }
+
+    @Test
+    public void refreshesAStaleEntryWhileServingIt() {
+        RemoteEconomy economy = new RemoteEconomy();
+        FundsCache cache = new FundsCache(economy, 0, TimeUnit.NANOSECONDS);
+        cache.get(PLAYER);
+        economy.loads.get(0).complete(FundsCheck.of(10));
+
+        assertEquals(10, cache.get(PLAYER).getBalance(), 0);
+        assertEquals(2, economy.loads.size());
+        economy.loads.get(1).complete(FundsCheck.of(4));
+        assertEquals(4, cache.get(PLAYER).getBalance(), 0);
+    }
+
+    @Test
+    public void aRefreshStartedBeforeAPutDoesNotOverwriteIt() {
+        RemoteEconomy economy = new RemoteEconomy();
+        FundsCache cache = new FundsCache(economy, 1, TimeUnit.MINUTES);
+        cache.get(PLAYER);
+
+        FundsCheck afterTransaction = FundsCheck.of(3);
+        cache.put(PLAYER, afterTransaction);
+        economy.loads.get(0).complete(FundsCheck.of(10));
+
+        assertSame(afterTransaction, cache.get(PLAYER));
+    }
+
+    @Test
+    public void retriesAFailedRefresh() {
+        RemoteEconomy economy = new RemoteEconomy();
+        FundsCache cache = new FundsCache(economy, 1, TimeUnit.MINUTES);
+        cache.get(PLAYER);
+        economy.loads.get(0).completeExceptionally(new IllegalStateException("storage is down"));
+
+        assertNull(cache.get(PLAYER));
+        assertEquals(2, economy.loads.size());
+    }
+
+    @Test
+    public void retriesARefreshThatThrew() {
+        RemoteEconomy economy = new RemoteEconomy();
+        economy.throwing = true;
+        FundsCache cache = new FundsCache(economy, 1, TimeUnit.MINUTES);
+        try {
+            cache.get(PLAYER);
+            fail("Expected the economy's exception");
+        } catch (IllegalStateException expected) {
+            // the entry must not stay marked as loading
+        }
+
+        economy.throwing = false;
+        assertNull(cache.get(PLAYER));
+        assertEquals(1, economy.loads.size());
+    }
+
+    @Test
+    public void dropsEntriesNobodyReads() throws InterruptedException {
+        RemoteEconomy economy = new RemoteEconomy();
+        FundsCache cache = new FundsCache(economy, 1, 1, TimeUnit.MILLISECONDS);
+        cache.get(PLAYER);
+        economy.loads.get(0).complete(FundsCheck.of(10));
+        Thread.sleep(5);
+
+        // the lookup sweeps the idle entry first, so it has to load again
+        assertNull(cache.get(PLAYER));
+        assertEquals(2, economy.loads.size());
+    }
+
+    @Test
+    public void economyHasEnoughNeverCallsTheBackend() {
+        RemoteEconomy economy = new RemoteEconomy();
+
+        assertFalse(economy.hasEnough(PLAYER, 1));
+        assertFalse(economy.bankHasEnough(PLAYER, 1));
+        assertEquals(0, economy.loads.size());
+    }
+
+    /**
+     * An economy with nothing cached locally, whose funds checks complete when the test completes them.
+     */
+    private static final class RemoteEconomy extends MemoryEconomy {
+        final List<CompletableFuture<FundsCheck>> loads = new ArrayList<>();
+        boolean throwing;
+
+        RemoteEconomy() {
+            super("Remote");
+        }
+
+        @Override
+        public FundsCheck getCachedFunds(UUID playerId) {
+            return null;
+        }
+
+        @Override
+        public FundsCheck getCachedBankFunds(UUID playerId) {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+            if (throwing) {
+                throw new IllegalStateException("storage is down");
+            }
+            CompletableFuture<FundsCheck> load = new CompletableFuture<>();
+            loads.add(load);
+            return load;
+        }
+
+        @Override
+        public CompletableFuture<FundsCheck> checkBankFunds(UUID playerId) {
+            return checkFunds(playerId);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.taco.api.economy;
+
+import com.taco.api.economy.memory.MemoryEconomy;
+import com.taco.api.metrics.CallSnapshot;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MetricsEconomyTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final UUID OTHER = new UUID(3, 4);
+    private static final CompletableFuture<EconomyResponse> DONE = CompletableFuture.completedFuture(
+            new EconomyResponse(1, 1, EconomyResponse.ResponseType.SUCCESS, null));
+
+    @Test
+    public void recordsCallsAndErrors() {
+        MetricsEconomy economy = new MetricsEconomy(new MemoryEconomy("Memory") {
+            @Override
+            public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+                throw new IllegalStateException("storage is down");
+            }
+        });
+        economy.createAccount(PLAYER).join();
+        economy.send(PLAYER, 5).join();
+        economy.send(PLAYER, 5).join();
+        try {
+            economy.take(PLAYER, 1);
+            fail("Expected the failing take to throw");
+        } catch (IllegalStateException expected) {
+            // counted as an error below
+        }
+
+        CallSnapshot send = find(economy, "send");
+        assertEquals(2, send.getCalls());
+        assertEquals(0, send.getErrors());
+        CallSnapshot take = find(economy, "take");
+        assertEquals(1, take.getCalls());
+        assertEquals(1, take.getErrors());
+    }
+
+    @Test
+    public void writesWithPrimitiveAmountsAllocateNothing() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+
+        MetricsEconomy economy = new MetricsEconomy(new ConstantEconomy());
+        long thread = Thread.currentThread().getId();
+        long fewest = Long.MAX_VALUE;
+        // the first rounds run interpreted, only a compiled round shows what the hot path allocates
+        for (int round = 0; round < 10; round++) {
+            long before = allocations.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 100_000; i++) {
+                economy.send(PLAYER, 12.5 + i);
+                economy.take(PLAYER, 0.25 * i);
+                economy.transfer(PLAYER, OTHER, 99.99 + i);
+                economy.sendMinor(PLAYER, 1_000_000L + i);
+                economy.takeMinor(PLAYER, 5_000_000L + i);
+                economy.transferMinor(PLAYER, OTHER, 7_000_000L + i);
+            }
+            fewest = Math.min(fewest, allocations.getThreadAllocatedBytes(thread) - before);
+        }
+
+        // boxing a single argument of the 600,000 calls would allocate megabytes
+        assertTrue("allocated " + fewest + " bytes", fewest < 16_384);
+    }
+
+    private static CallSnapshot find(MetricsEconomy economy, String name) {
+        for (CallSnapshot snapshot : economy.getMetrics().snapshot()) {
+            if (snapshot.getName().equals(name)) {
+                return snapshot;
+            }
+        }
+        throw new AssertionError("No metrics for " + name);
+    }
+
+    /**
+     * Completes every write with the same future, so only the decorator can allocate.
+     */
+    private static final class ConstantEconomy extends MemoryEconomy {
+        ConstantEconomy() {
+            super("Constant");
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> send(UUID playerId, double amount) {
+            return DONE;
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> take(UUID playerId, double amount) {
+            return DONE;
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> transfer(UUID from, UUID to, double amount) {
+            return DONE;
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+            return DONE;
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+            return DONE;
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> transferMinor(UUID from, UUID to, long minor) {
+            return DONE;
+        }
+    }
+}
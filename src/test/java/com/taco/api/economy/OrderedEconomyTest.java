@@ -0,0 +1,82 @@
+package com.taco.api.economy;
+
+import com.taco.api.concurrent.AccountMailboxes;
+import com.taco.api.economy.memory.MemoryEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OrderedEconomyTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final UUID OTHER = new UUID(3, 4);
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void aReadSeesTheWritesCalledBeforeIt() {
+        HeldEconomy delegate = new HeldEconomy();
+        OrderedEconomy economy = new OrderedEconomy(delegate, new AccountMailboxes(pool));
+
+        CompletableFuture<EconomyResponse> sent = economy.sendMinor(PLAYER, 100);
+        CompletableFuture<Long> balance = economy.getBalanceMinor(PLAYER);
+        CompletableFuture<Long> other = economy.getBalanceMinor(OTHER);
+        assertEquals(0, other.join().longValue());
+        assertFalse(balance.isDone());
+
+        delegate.release();
+        assertTrue(sent.join().transactionSuccess());
+        assertEquals(100, balance.join().longValue());
+    }
+
+    @Test
+    public void aTransferWaitsForWritesToEitherAccount() {
+        HeldEconomy delegate = new HeldEconomy();
+        OrderedEconomy economy = new OrderedEconomy(delegate, new AccountMailboxes(pool));
+
+        economy.sendMinor(OTHER, 100);
+        // would fail for lack of funds if it ran before the deposit
+        CompletableFuture<EconomyResponse> transfer = economy.transferMinor(OTHER, PLAYER, 60);
+        assertFalse(transfer.isDone());
+
+        delegate.release();
+        assertTrue(transfer.join().transactionSuccess());
+        assertEquals(60, economy.getBalanceMinor(PLAYER).join().longValue());
+        assertEquals(40, economy.getBalanceMinor(OTHER).join().longValue());
+    }
+
+    /**
+     * Holds every deposit until {@link #release()}, like a slow remote write.
+     */
+    private static final class HeldEconomy extends MemoryEconomy {
+        private final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+        HeldEconomy() {
+            super("Held");
+            createAccount(PLAYER).join();
+            createAccount(OTHER).join();
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+            return gate.thenCompose(ignored -> super.sendMinor(playerId, minor));
+        }
+
+        void release() {
+            gate.complete(null);
+        }
+    }
+}
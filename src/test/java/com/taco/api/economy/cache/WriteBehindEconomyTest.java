@@ -0,0 +1,145 @@
+package com.taco.api.economy.cache;
+
+import com.taco.api.economy.memory.MemoryEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindEconomyTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final UUID OTHER = new UUID(3, 4);
+
+    private ScheduledExecutorService scheduler;
+    private CountingEconomy backend;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        backend = new CountingEconomy();
+        backend.createAccount(PLAYER).join();
+        backend.createAccount(OTHER).join();
+        backend.sendMinor(PLAYER, 1_000).join();
+        backend.writes.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void coalescesWritesIntoOneDeltaPerAccount() {
+        WriteBehindEconomy economy = new WriteBehindEconomy(backend, scheduler, 1, TimeUnit.HOURS, 100);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(economy.sendMinor(PLAYER, 50).join().transactionSuccess());
+        }
+        assertTrue(economy.takeMinor(PLAYER, 200).join().transactionSuccess());
+
+        assertEquals(1_300, economy.getBalanceMinor(PLAYER).join().longValue());
+        assertEquals(1_000, backend.getCachedBalanceMinor(PLAYER, -1));
+        assertEquals(1, economy.getDirtyCount());
+
+        economy.flush().join();
+        assertEquals(1_300, backend.getCachedBalanceMinor(PLAYER, -1));
+        assertEquals(1, backend.writes.get());
+        assertEquals(0, economy.getDirtyCount());
+    }
+
+    @Test
+    public void flushesEarlyOnceEnoughAccountsAreDirty() throws InterruptedException {
+        WriteBehindEconomy economy = new WriteBehindEconomy(backend, scheduler, 1, TimeUnit.HOURS, 2);
+        economy.sendMinor(PLAYER, 5).join();
+        economy.transferMinor(PLAYER, OTHER, 5).join();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (backend.getCachedBalanceMinor(OTHER, -1) != 5 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(5, backend.getCachedBalanceMinor(OTHER, -1));
+        assertEquals(1_000, backend.getCachedBalanceMinor(PLAYER, -1));
+    }
+
+    @Test
+    public void rebasesAnAccountWhoseDeltaWasRejected() {
+        WriteBehindEconomy economy = new WriteBehindEconomy(backend, scheduler, 1, TimeUnit.HOURS, 100);
+        economy.getBalanceMinor(PLAYER).join();
+        // another server spends most of the balance behind the cache's back
+        backend.takeMinor(PLAYER, 900).join();
+
+        assertTrue(economy.takeMinor(PLAYER, 500).join().transactionSuccess());
+        economy.flush().join();
+
+        assertEquals(1, economy.getRejectedFlushes());
+        assertEquals(100, economy.getBalanceMinor(PLAYER).join().longValue());
+        assertEquals(100, backend.getCachedBalanceMinor(PLAYER, -1));
+    }
+
+    @Test
+    public void rebasesEveryAccountAfterABulkOperation() {
+        WriteBehindEconomy economy = new WriteBehindEconomy(backend, scheduler, 1, TimeUnit.HOURS, 100);
+        economy.sendMinor(PLAYER, 200).join();
+
+        assertEquals(2, economy.applyToAll((playerId, balance) -> balance * 2 + 1).join().intValue());
+        assertEquals(2_401, economy.getBalanceMinor(PLAYER).join().longValue());
+        assertEquals(2_401, backend.getCachedBalanceMinor(PLAYER, -1));
+        assertEquals(1, economy.getBalanceMinor(OTHER).join().longValue());
+    }
+
+    @Test
+    public void closeWritesPendingDeltasAndRejectsLaterWrites() {
+        WriteBehindEconomy economy = new WriteBehindEconomy(backend, scheduler, 1, TimeUnit.HOURS, 100);
+        economy.transferMinor(PLAYER, OTHER, 300).join();
+        economy.close();
+
+        assertEquals(700, backend.getCachedBalanceMinor(PLAYER, -1));
+        assertEquals(300, backend.getCachedBalanceMinor(OTHER, -1));
+        assertClosed(economy.sendMinor(PLAYER, 1));
+        assertClosed(economy.takeMinor(PLAYER, 1));
+        assertClosed(economy.transferMinor(PLAYER, OTHER, 1));
+        assertEquals(700, economy.getBalanceMinor(PLAYER).join().longValue());
+        assertEquals(0, economy.getDirtyCount());
+        assertFalse(scheduler.isShutdown());
+    }
+
+    private static void assertClosed(CompletableFuture<EconomyResponse> write) {
+        EconomyResponse response = write.join();
+        assertFalse(response.transactionSuccess());
+        assertSame(EconomyResponse.Reason.CLOSED, response.reason);
+    }
+
+    /**
+     * Counts the writes a flush makes to the wrapped economy.
+     */
+    private static final class CountingEconomy extends MemoryEconomy {
+        final AtomicInteger writes = new AtomicInteger();
+
+        CountingEconomy() {
+            super("Counting");
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+            writes.incrementAndGet();
+            return super.sendMinor(playerId, minor);
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+            writes.incrementAndGet();
+            return super.takeMinor(playerId, minor);
+        }
+    }
+}
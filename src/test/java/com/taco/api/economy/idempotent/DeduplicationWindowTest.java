@@ -0,0 +1,112 @@
+package com.taco.api.economy.idempotent;
+
+import com.taco.api.economy.idempotent.DeduplicationWindow.Operation;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeduplicationWindowTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final UUID OTHER = new UUID(3, 4);
+
+    @Test
+    public void retryGetsTheOriginalOutcome() {
+        DeduplicationWindow window = new DeduplicationWindow(16, 1, TimeUnit.MINUTES);
+        UUID id = UUID.randomUUID();
+        CompletableFuture<EconomyResponse> first = new CompletableFuture<>();
+
+        assertNull(window.claim(id, Operation.TRANSFER, PLAYER, OTHER, 5, first));
+        assertSame(first, window.claim(id, Operation.TRANSFER, PLAYER, OTHER, 5, new CompletableFuture<>()));
+    }
+
+    @Test
+    public void rejectsAnIdReusedForADifferentWrite() {
+        DeduplicationWindow window = new DeduplicationWindow(16, 1, TimeUnit.MINUTES);
+        UUID id = UUID.randomUUID();
+        window.claim(id, Operation.SEND, PLAYER, null, 5, new CompletableFuture<>());
+
+        assertMismatch(window.claim(id, Operation.TAKE, PLAYER, null, 5, new CompletableFuture<>()));
+        assertMismatch(window.claim(id, Operation.SEND, OTHER, null, 5, new CompletableFuture<>()));
+        assertMismatch(window.claim(id, Operation.SEND, PLAYER, null, 6, new CompletableFuture<>()));
+        assertMismatch(window.claim(id, Operation.SEND, PLAYER, OTHER, 5, new CompletableFuture<>()));
+    }
+
+    @Test
+    public void forgetsAFailedWrite() {
+        DeduplicationWindow window = new DeduplicationWindow(16, 1, TimeUnit.MINUTES);
+        UUID id = UUID.randomUUID();
+        CompletableFuture<EconomyResponse> first = new CompletableFuture<>();
+        window.claim(id, Operation.SEND, PLAYER, null, 5, first);
+        first.completeExceptionally(new IllegalStateException("storage is down"));
+
+        assertNull(window.claim(id, Operation.SEND, PLAYER, null, 5, new CompletableFuture<>()));
+    }
+
+    @Test
+    public void evictsTheOldestWriteWhenFull() {
+        DeduplicationWindow window = new DeduplicationWindow(4, 1, TimeUnit.MINUTES);
+        UUID[] ids = new UUID[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            assertNull(window.claim(ids[i], Operation.SEND, PLAYER, null, i, completed()));
+        }
+
+        assertEquals(4, window.size());
+        assertNull(window.claim(ids[0], Operation.SEND, PLAYER, null, 0, completed()));
+        for (int i = 2; i < ids.length; i++) {
+            assertNotNull(window.claim(ids[i], Operation.SEND, PLAYER, null, i, completed()));
+        }
+    }
+
+    @Test
+    public void keepsTheNewestWritesThroughManyEvictions() {
+        DeduplicationWindow window = new DeduplicationWindow(64, 1, TimeUnit.MINUTES);
+        Random random = new Random(11);
+        UUID[] ids = new UUID[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+            assertNull(window.claim(ids[i], Operation.SEND, PLAYER, null, i, completed()));
+        }
+
+        for (int i = ids.length - 64; i < ids.length; i++) {
+            assertNotNull(window.claim(ids[i], Operation.SEND, PLAYER, null, i, completed()));
+        }
+    }
+
+    @Test
+    public void forgetsWritesOlderThanTheWindow() throws InterruptedException {
+        DeduplicationWindow window = new DeduplicationWindow(16, 1, TimeUnit.MILLISECONDS);
+        UUID id = UUID.randomUUID();
+        window.claim(id, Operation.SEND, PLAYER, null, 5, completed());
+        Thread.sleep(5);
+
+        assertNull(window.claim(id, Operation.SEND, PLAYER, null, 5, completed()));
+        assertEquals(1, window.size());
+    }
+
+    private static CompletableFuture<EconomyResponse> completed() {
+        return CompletableFuture.completedFuture(
+                new EconomyResponse(0, 0, EconomyResponse.ResponseType.SUCCESS, null));
+    }
+
+    private static void assertMismatch(CompletableFuture<EconomyResponse> result) {
+        try {
+            result.join();
+            fail("Expected the reused transaction id to be rejected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+}
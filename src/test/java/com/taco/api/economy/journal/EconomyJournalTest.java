@@ -0,0 +1,143 @@
+package com.taco.api.economy.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class EconomyJournalTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final UUID OTHER = new UUID(3, 4);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysEveryRecordInOrder() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("journal.bin");
+        try (EconomyJournal journal = open(file)) {
+            journal.replay(0, (sequence, operation, playerId, target, amount, bankName) -> { });
+            journal.append(JournalOperation.CREATE_ACCOUNT, PLAYER, 0).join();
+            journal.append(JournalOperation.SEND, PLAYER, 500).join();
+            journal.appendTransfer(PLAYER, OTHER, 200).join();
+            journal.appendBank(PLAYER, "A bank with a name longer than one forty byte chunk").join();
+            journal.append(JournalOperation.BANK_WIRE, PLAYER, 50).join();
+        }
+
+        List<String> records = replay(file, 0);
+        assertEquals(Arrays.asList(
+                "1 CREATE_ACCOUNT 0",
+                "2 SEND 500",
+                "3 TRANSFER 200 " + OTHER,
+                "6 CREATE_BANK 51 A bank with a name longer than one forty byte chunk",
+                "7 BANK_WIRE 50"), records);
+        assertEquals(Arrays.asList("6 CREATE_BANK 51 A bank with a name longer than one forty byte chunk",
+                "7 BANK_WIRE 50"), replay(file, 3));
+    }
+
+    @Test
+    public void stopsAtACorruptRecordAndOverwritesTheTail() throws IOException {
+        Path file = writeSends(5);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // flips a byte of the third record's amount, so its checksum no longer matches
+            channel.write(ByteBuffer.wrap(new byte[]{9}), offsetOf(2) + 30);
+        }
+
+        try (EconomyJournal journal = open(file)) {
+            List<String> records = new ArrayList<>();
+            long last = journal.replay(0, (sequence, operation, playerId, target, amount, bankName) ->
+                    records.add(sequence + " " + operation + " " + amount));
+            assertEquals(2, last);
+            assertEquals(Arrays.asList("1 SEND 1", "2 SEND 2"), records);
+            journal.append(JournalOperation.TAKE, PLAYER, 100).join();
+        }
+
+        assertEquals(Arrays.asList("1 SEND 1", "2 SEND 2", "3 TAKE 100"), replay(file, 0));
+    }
+
+    @Test
+    public void dropsAPartiallyWrittenRecord() throws IOException {
+        Path file = writeSends(3);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(offsetOf(2) + 20);
+        }
+
+        assertEquals(Arrays.asList("1 SEND 1", "2 SEND 2"), replay(file, 0));
+    }
+
+    @Test
+    public void dropsABankWhoseCreationWasTorn() throws IOException {
+        Path file = writeSends(1);
+        try (EconomyJournal journal = open(file)) {
+            journal.replay(0, (sequence, operation, playerId, target, amount, bankName) -> { });
+            journal.appendBank(PLAYER, "Torn").join();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // keeps the send and the name record but loses the creation record that follows them
+            channel.truncate(offsetOf(2));
+        }
+
+        assertEquals(Arrays.asList("1 SEND 1"), replay(file, 0));
+    }
+
+    @Test
+    public void compactionKeepsOnlyLaterRecords() throws IOException {
+        Path file = writeSends(5);
+        try (EconomyJournal journal = open(file)) {
+            journal.replay(0, (sequence, operation, playerId, target, amount, bankName) -> { });
+            journal.compact(3);
+            journal.append(JournalOperation.SEND, PLAYER, 6).join();
+        }
+
+        assertEquals(Arrays.asList("4 SEND 4", "5 SEND 5", "6 SEND 6"), replay(file, 0));
+    }
+
+    private Path writeSends(int count) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("journal.bin");
+        try (EconomyJournal journal = open(file)) {
+            journal.replay(0, (sequence, operation, playerId, target, amount, bankName) -> { });
+            for (int i = 1; i <= count; i++) {
+                journal.append(JournalOperation.SEND, PLAYER, i).join();
+            }
+        }
+        return file;
+    }
+
+    private static List<String> replay(Path file, long afterSequence) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (EconomyJournal journal = open(file)) {
+            journal.replay(afterSequence, (sequence, operation, playerId, target, amount, bankName) -> {
+                StringBuilder record = new StringBuilder().append(sequence).append(' ').append(operation)
+                        .append(' ').append(amount);
+                if (target != null) {
+                    record.append(' ').append(target);
+                }
+                if (bankName != null) {
+                    record.append(' ').append(bankName);
+                }
+                records.add(record.toString());
+            });
+        }
+        return records;
+    }
+
+    private static long offsetOf(int record) {
+        return EconomyJournal.HEADER_SIZE + (long) record * EconomyJournal.RECORD_SIZE;
+    }
+
+    private static EconomyJournal open(Path file) throws IOException {
+        return new EconomyJournal(file, 1 << 16, 1, TimeUnit.MILLISECONDS, 16);
+    }
+}
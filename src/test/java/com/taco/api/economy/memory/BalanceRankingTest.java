@@ -0,0 +1,119 @@
+package com.taco.api.economy.memory;
+
+import com.taco.api.economy.BalanceEntry;
+import com.taco.api.economy.Money;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BalanceRankingTest {
+    private static final Money MONEY = Money.of(2);
+    private static final Comparator<long[]> RICHEST_FIRST = (a, b) -> a[2] != b[2] ? Long.compare(b[2], a[2])
+            : a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]);
+
+    @Test
+    public void ranksTiesByUuid() {
+        UuidLongMap balances = new UuidLongMap();
+        UUID low = new UUID(-5, 0);
+        UUID high = new UUID(5, 0);
+        UUID rich = new UUID(0, 0);
+        balances.put(high, 100);
+        balances.put(low, 100);
+        balances.put(rich, 200);
+        BalanceRanking ranking = new BalanceRanking(balances);
+        ranking.build();
+
+        assertEquals(1, ranking.rank(rich));
+        assertEquals(2, ranking.rank(low));
+        assertEquals(3, ranking.rank(high));
+        assertEquals(0, ranking.rank(new UUID(1, 1)));
+    }
+
+    @Test
+    public void matchesASortedListThroughRandomUpdates() {
+        Random random = new Random(17);
+        UuidLongMap balances = new UuidLongMap();
+        BalanceRanking ranking = new BalanceRanking(balances);
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            UUID player = new UUID(random.nextLong(), random.nextLong());
+            players.add(player);
+            // few distinct balances, so most keys tie and are ordered by UUID
+            balances.put(player, random.nextInt(50));
+        }
+        ranking.build();
+
+        for (int step = 0; step < 5_000; step++) {
+            UUID player = players.get(random.nextInt(players.size()));
+            if (random.nextInt(10) == 0) {
+                balances.remove(player);
+            } else {
+                balances.put(player, random.nextInt(50));
+            }
+            ranking.refresh(player);
+            if (step % 500 == 0) {
+                assertMatches(balances, ranking);
+            }
+        }
+        assertMatches(balances, ranking);
+    }
+
+    @Test
+    public void pagesStartAtAnyOffset() {
+        Random random = new Random(23);
+        UuidLongMap balances = new UuidLongMap();
+        for (int i = 0; i < 200; i++) {
+            balances.put(new UUID(random.nextLong(), random.nextLong()), random.nextInt(1_000));
+        }
+        BalanceRanking ranking = new BalanceRanking(balances);
+        ranking.build();
+        List<long[]> expected = sorted(balances);
+
+        for (int offset = 0; offset < 200; offset += 7) {
+            for (int count : new int[]{1, 10, 64, 300}) {
+                List<BalanceEntry> page = ranking.page(count, offset, MONEY);
+                assertEquals(Math.min(count, 200 - offset), page.size());
+                for (int i = 0; i < page.size(); i++) {
+                    assertEntry(expected.get(offset + i), offset + i + 1, page.get(i));
+                }
+            }
+        }
+        assertTrue(ranking.page(10, 200, MONEY).isEmpty());
+        assertTrue(ranking.page(0, 0, MONEY).isEmpty());
+        assertTrue(ranking.page(10, -1, MONEY).isEmpty());
+    }
+
+    private static void assertMatches(UuidLongMap balances, BalanceRanking ranking) {
+        List<long[]> expected = sorted(balances);
+        assertEquals(expected.size(), ranking.size());
+        List<BalanceEntry> page = ranking.page(expected.size(), 0, MONEY);
+        for (int i = 0; i < expected.size(); i++) {
+            long[] account = expected.get(i);
+            assertEntry(account, i + 1, page.get(i));
+            assertEquals(i + 1, ranking.rank(new UUID(account[0], account[1])));
+        }
+    }
+
+    private static void assertEntry(long[] account, int rank, BalanceEntry entry) {
+        assertEquals(new UUID(account[0], account[1]), entry.getPlayerId());
+        assertEquals(MONEY.toMajor(account[2]), entry.getBalance(), 0);
+        assertEquals(rank, entry.getRank());
+    }
+
+    private static List<long[]> sorted(UuidLongMap balances) {
+        long[] entries = balances.toArray();
+        List<long[]> accounts = new ArrayList<>();
+        for (int i = 0; i < entries.length; i += 3) {
+            accounts.add(new long[]{entries[i], entries[i + 1], entries[i + 2]});
+        }
+        accounts.sort(RICHEST_FIRST);
+        return accounts;
+    }
+}
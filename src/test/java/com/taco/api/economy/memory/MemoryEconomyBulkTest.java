@@ -0,0 +1,91 @@
+package com.taco.api.economy.memory;
+
+import com.taco.api.economy.BalanceEntry;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryEconomyBulkTest {
+    private static final int ACCOUNTS = 2_000;
+
+    @Test
+    public void appliesToEveryAccountAndStoresNegativeBalancesAsZero() {
+        MemoryEconomy economy = new MemoryEconomy("Memory");
+        UUID[] players = fill(economy);
+
+        // the account holding 250 keeps its balance, so it does not count as changed
+        assertEquals(ACCOUNTS - 1, economy.applyToAll((playerId, balance) -> 500 - balance).join().intValue());
+        for (int i = 0; i < players.length; i++) {
+            assertEquals(Math.max(500 - i, 0), economy.getCachedBalanceMinor(players[i], -1));
+        }
+    }
+
+    @Test
+    public void onlyUpdatesTheAccountsTheFilterAccepts() {
+        MemoryEconomy economy = new MemoryEconomy("Memory");
+        UUID[] players = fill(economy);
+
+        int changed = economy.applyToAccounts(playerId -> playerId.getLeastSignificantBits() % 2 == 0,
+                (playerId, balance) -> balance + 7).join();
+        assertEquals(ACCOUNTS / 2, changed);
+        for (int i = 0; i < players.length; i++) {
+            assertEquals(i % 2 == 0 ? i + 7 : i, economy.getCachedBalanceMinor(players[i], -1));
+        }
+    }
+
+    @Test
+    public void theFilterMayReadTheEconomy() throws Exception {
+        MemoryEconomy economy = new MemoryEconomy("Memory");
+        UUID[] players = fill(economy);
+
+        // reading a balance from inside the filter used to wait on the stripe's write lock forever
+        int changed = economy.applyToAccounts(playerId -> economy.getBalanceMinor(playerId).join() >= 1_000,
+                (playerId, balance) -> 0).get(10, TimeUnit.SECONDS);
+        assertEquals(ACCOUNTS - 1_000, changed);
+        assertEquals(999, economy.getCachedBalanceMinor(players[999], -1));
+        assertEquals(0, economy.getCachedBalanceMinor(players[1_000], -1));
+    }
+
+    @Test
+    public void publishesChangedBalancesAndReranksOnce() {
+        MemoryEconomy economy = new MemoryEconomy("Memory");
+        UUID[] players = fill(economy);
+        economy.enableRanking();
+        Map<UUID, Double> published = new ConcurrentHashMap<>();
+        economy.subscribe(published::put);
+
+        // lifts the poorer half above the richer half, which stays unchanged
+        economy.applyToAll((playerId, balance) -> balance < ACCOUNTS / 2 ? balance + 10_000 : balance).join();
+
+        assertEquals(ACCOUNTS / 2, published.size());
+        assertFalse(published.containsKey(players[ACCOUNTS / 2]));
+        assertEquals(economy.getMoney().toMajor(10_000), published.get(players[0]), 0);
+        List<BalanceEntry> top = economy.getTopBalances(2, 0).join();
+        assertEquals(players[ACCOUNTS / 2 - 1], top.get(0).getPlayerId());
+        assertEquals(players[ACCOUNTS / 2 - 2], top.get(1).getPlayerId());
+        assertEquals(ACCOUNTS / 2, economy.getRank(players[0]).join().intValue());
+        assertEquals(ACCOUNTS / 2 + 1, economy.getRank(players[ACCOUNTS - 1]).join().intValue());
+        assertTrue(economy.implementationSupportsRanking());
+    }
+
+    /**
+     * Creates accounts whose balance is their index, with keys that alternate between even and odd.
+     */
+    private static UUID[] fill(MemoryEconomy economy) {
+        UUID[] players = new UUID[ACCOUNTS];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(i * 31L + 1, i);
+            economy.createAccount(players[i]).join();
+            economy.sendMinor(players[i], i).join();
+        }
+        return players;
+    }
+}
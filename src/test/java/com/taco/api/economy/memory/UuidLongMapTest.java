@@ -0,0 +1,126 @@
+package com.taco.api.economy.memory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UuidLongMapTest {
+
+    @Test
+    public void putOverwritesAndGetReturnsMissingForAbsentKeys() {
+        UuidLongMap map = new UuidLongMap();
+        UUID key = UUID.randomUUID();
+
+        assertEquals(-1, map.get(key, -1));
+        map.put(key, 5);
+        map.put(key, 7);
+        assertEquals(7, map.get(key, -1));
+        assertEquals(1, map.size());
+        assertFalse(map.putIfAbsent(key, 9));
+        assertEquals(7, map.get(key, -1));
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        // one small stripe, so keys share probe chains and every removal has to shift its cluster back
+        UuidLongMap map = new UuidLongMap(1, 2);
+        Map<UUID, Long> expected = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int round = 0; round < 20_000; round++) {
+            if (keys.isEmpty() || random.nextInt(3) != 0) {
+                UUID key = new UUID(random.nextLong(), random.nextLong());
+                long value = random.nextLong() >>> 1;
+                map.put(key, value);
+                expected.put(key, value);
+                keys.add(key);
+            } else {
+                UUID key = keys.remove(random.nextInt(keys.size()));
+                assertTrue(map.remove(key));
+                assertFalse(map.remove(key));
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<UUID, Long> entry : expected.entrySet()) {
+            assertEquals((long) entry.getValue(), map.get(entry.getKey(), -1));
+        }
+        for (UUID key : expected.keySet()) {
+            assertTrue(map.remove(key));
+        }
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void addAndGetRespectsTheFloor() {
+        UuidLongMap map = new UuidLongMap();
+        UUID key = UUID.randomUUID();
+
+        assertEquals(UuidLongMap.NO_KEY, map.addAndGet(key, 5, 0));
+        map.put(key, 10);
+        assertEquals(UuidLongMap.REJECTED, map.addAndGet(key, -11, 0));
+        assertEquals(0, map.addAndGet(key, -10, 0));
+
+        map.put(key, Long.MAX_VALUE - 1);
+        assertEquals(UuidLongMap.REJECTED, map.addAndGet(key, 5, Long.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE - 1, map.get(key, -1));
+    }
+
+    @Test
+    public void concurrentTransfersKeepTheTotal() throws Exception {
+        UuidLongMap map = new UuidLongMap(4, 4);
+        UUID[] accounts = new UUID[64];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = UUID.randomUUID();
+            map.put(accounts[i], 1_000);
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    UUID from = accounts[random.nextInt(accounts.length)];
+                    UUID to = accounts[random.nextInt(accounts.length)];
+                    long result = map.transfer(from, to, random.nextInt(100), 0);
+                    assertTrue(result == UuidLongMap.REJECTED || result >= 0);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (UUID account : accounts) {
+            long balance = map.get(account, -1);
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(accounts.length * 1_000L, total);
+    }
+}
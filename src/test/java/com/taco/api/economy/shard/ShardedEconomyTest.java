@@ -0,0 +1,151 @@
+package com.taco.api.economy.shard;
+
+import com.taco.api.economy.Economy;
+import com.taco.api.economy.memory.MemoryEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedEconomyTest {
+    private static final int ACCOUNTS = 5_000;
+
+    @Test
+    public void addingAShardMovesAccountsAndKeepsTheTotal() {
+        List<MemoryEconomy> shards = new ArrayList<>(Arrays.asList(
+                new MemoryEconomy("First"), new MemoryEconomy("Second"), new MemoryEconomy("Third")));
+        ShardedEconomy economy = new ShardedEconomy("Sharded", shards);
+        UUID[] players = fill(economy);
+        long before = total(economy, players);
+
+        MemoryEconomy added = new MemoryEconomy("Fourth");
+        CompletableFuture<Integer> moving = economy.addShard(added);
+        // writes made while the accounts move wait for the move and then apply once
+        List<CompletableFuture<EconomyResponse>> writes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            writes.add(economy.sendMinor(players[i], 1));
+        }
+        int moved = moving.join();
+        for (CompletableFuture<EconomyResponse> write : writes) {
+            assertTrue(write.join().transactionSuccess());
+        }
+        shards.add(added);
+
+        assertTrue(moved > 0);
+        assertEquals(before + 500, total(economy, players));
+        int onAdded = 0;
+        for (UUID player : players) {
+            Economy owner = economy.getShard(player);
+            long balance = economy.getBalanceMinor(player).join();
+            long held = 0;
+            for (MemoryEconomy shard : shards) {
+                held += shard.getCachedBalanceMinor(player, 0);
+            }
+            // the old shard keeps an emptied copy, so the money exists exactly once
+            assertEquals(balance, held);
+            assertEquals(balance, owner.getBalanceMinor(player).join().longValue());
+            if (owner == added) {
+                onAdded++;
+            }
+        }
+        assertEquals(moved, onAdded);
+    }
+
+    @Test
+    public void transfersAcrossShards() {
+        ShardedEconomy economy = new ShardedEconomy("Sharded",
+                Arrays.asList(new MemoryEconomy("First"), new MemoryEconomy("Second")));
+        UUID[] players = fill(economy);
+        UUID from = players[0];
+        UUID to = players[1];
+        for (int i = 2; economy.getShard(to) == economy.getShard(from); i++) {
+            to = players[i];
+        }
+        assertNotSame(economy.getShard(from), economy.getShard(to));
+        long fromBefore = economy.getBalanceMinor(from).join();
+        long toBefore = economy.getBalanceMinor(to).join();
+
+        assertTrue(economy.transferMinor(from, to, 100).join().transactionSuccess());
+        assertEquals(fromBefore - 100, economy.getBalanceMinor(from).join().longValue());
+        assertEquals(toBefore + 100, economy.getBalanceMinor(to).join().longValue());
+
+        UUID missing = UUID.randomUUID();
+        while (economy.getShard(missing) == economy.getShard(from)) {
+            missing = UUID.randomUUID();
+        }
+        assertFalse(economy.transferMinor(from, missing, 50).join().transactionSuccess());
+        assertEquals(fromBefore - 100, economy.getBalanceMinor(from).join().longValue());
+    }
+
+    @Test
+    public void answersNoCachedFundsWhileAccountsMove() {
+        HeldEconomy held = new HeldEconomy();
+        ShardedEconomy economy = new ShardedEconomy("Sharded", Arrays.asList(held, new MemoryEconomy("Second")));
+        UUID player = new UUID(1, 2);
+        for (long i = 3; economy.getShard(player) != held; i++) {
+            player = new UUID(1, i);
+        }
+        economy.createAccount(player).join();
+        assertEquals(0, economy.getCachedFunds(player).getBalance(), 0);
+
+        // the held write keeps the rebalance waiting for in-flight operations to drain
+        CompletableFuture<EconomyResponse> write = economy.sendMinor(player, 100);
+        CompletableFuture<Integer> moving = economy.addShard(new MemoryEconomy("Third"));
+        assertNull(economy.getCachedFunds(player));
+
+        held.release();
+        assertTrue(write.join().transactionSuccess());
+        moving.join();
+        assertEquals(1, economy.getCachedFunds(player).getBalance(), 0);
+    }
+
+    private static UUID[] fill(Economy economy) {
+        Random random = new Random(3);
+        UUID[] players = new UUID[ACCOUNTS];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+            economy.createAccount(players[i]).join();
+            economy.sendMinor(players[i], 1_000 + random.nextInt(100_000)).join();
+        }
+        return players;
+    }
+
+    private static long total(Economy economy, UUID[] players) {
+        long total = 0;
+        for (UUID player : players) {
+            total += economy.getBalanceMinor(player).join();
+        }
+        return total;
+    }
+
+    /**
+     * Holds every deposit until {@link #release()}, like a slow remote write.
+     */
+    private static final class HeldEconomy extends MemoryEconomy {
+        private final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+        HeldEconomy() {
+            super("Held");
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+            return gate.thenCompose(ignored -> super.sendMinor(playerId, minor));
+        }
+
+        void release() {
+            gate.complete(null);
+        }
+    }
+}
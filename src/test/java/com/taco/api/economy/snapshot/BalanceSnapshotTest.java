@@ -0,0 +1,89 @@
+package com.taco.api.economy.snapshot;
+
+import com.taco.api.economy.Bank;
+import com.taco.api.economy.memory.MemoryEconomy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BalanceSnapshotTest {
+    private static final int ACCOUNTS = 20_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoresEveryBalanceAndBank() throws IOException {
+        MemoryEconomy economy = new MemoryEconomy("Source");
+        UUID[] players = fill(economy);
+        Bank first = economy.createBank(players[0], "Über bank").join();
+        economy.bankWire(players[0], 12.34).join();
+        Bank second = economy.createBank(players[1], "Second").join();
+
+        Path file = folder.getRoot().toPath().resolve("balances.snap");
+        BalanceSnapshot snapshot = BalanceSnapshot.capture(economy, 42);
+        assertEquals(ACCOUNTS, snapshot.size());
+        assertEquals(2, snapshot.bankCount());
+        snapshot.writeTo(file);
+
+        MemoryEconomy restored = new MemoryEconomy("Restored");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(42, BalanceSnapshot.load(file, restored, pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(ACCOUNTS, restored.getAccountCount());
+        for (UUID player : players) {
+            assertEquals(economy.getCachedBalanceMinor(player, -1), restored.getCachedBalanceMinor(player, -1));
+        }
+        Bank restoredFirst = restored.getBankByName("über BANK").join();
+        assertEquals(first.getUniqueId(), restoredFirst.getUniqueId());
+        assertEquals(players[0], restoredFirst.getOwnerId());
+        assertEquals(12.34, restoredFirst.getBalance(), 0);
+        assertEquals(second.getUniqueId(), restored.getBank(second.getUniqueId()).join().getUniqueId());
+        assertNull(restored.getBankByName("Third").join());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsACorruptSnapshot() throws IOException {
+        MemoryEconomy economy = new MemoryEconomy("Source");
+        fill(economy);
+        Path file = folder.getRoot().toPath().resolve("balances.snap");
+        BalanceSnapshot.capture(economy, 1).writeTo(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            long offset = channel.size() / 2;
+            channel.read(value, offset);
+            value.put(0, (byte) ~value.get(0));
+            value.rewind();
+            channel.write(value, offset);
+        }
+
+        BalanceSnapshot.load(file, new MemoryEconomy("Restored"));
+    }
+
+    private static UUID[] fill(MemoryEconomy economy) {
+        Random random = new Random(7);
+        UUID[] players = new UUID[ACCOUNTS];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+            economy.createAccount(players[i]).join();
+            economy.sendMinor(players[i], random.nextInt(1_000_000)).join();
+        }
+        return players;
+    }
+}
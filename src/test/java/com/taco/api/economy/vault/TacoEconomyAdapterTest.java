@@ -0,0 +1,270 @@
+package com.taco.api.economy.vault;
+
+import com.taco.api.economy.Bank;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.bukkit.OfflinePlayer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TacoEconomyAdapterTest {
+    private static final OfflinePlayer PAYER = player(new UUID(1, 2));
+    private static final OfflinePlayer PAYEE = player(new UUID(3, 4));
+
+    private final StubVault stub = new StubVault();
+    private TacoEconomyAdapter adapter;
+
+    @After
+    public void tearDown() {
+        stub.release();
+        if (adapter != null) {
+            adapter.close();
+        }
+    }
+
+    @Test
+    public void rejectsCallsOnceTheQueueIsFullAndCountsThem() throws Exception {
+        adapter = adapter(1, 2);
+        stub.balances.put(PAYER.getUniqueId(), 10.0);
+        CompletableFuture<Double> blocked = stub.blockOnBalance(() -> adapter.getBalance(PAYER));
+        CompletableFuture<Double> first = adapter.getBalance(PAYER);
+        CompletableFuture<Double> second = adapter.getBalance(PAYER);
+        assertEquals(2, adapter.getQueueDepth());
+
+        CompletableFuture<Double> rejected = adapter.getBalance(PAYER);
+        try {
+            rejected.join();
+            fail("Expected the call to be rejected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, adapter.getRejectedCount());
+
+        stub.release();
+        assertEquals(10, blocked.get(5, TimeUnit.SECONDS), 0);
+        assertEquals(10, first.get(5, TimeUnit.SECONDS), 0);
+        assertEquals(10, second.get(5, TimeUnit.SECONDS), 0);
+        assertEquals(0, adapter.getQueueDepth());
+        assertEquals(2, adapter.getPeakQueueDepth());
+    }
+
+    @Test
+    public void refundsATransferTheRecipientCannotReceive() {
+        adapter = adapter(1, 1024);
+        stub.balances.put(PAYER.getUniqueId(), 10.0);
+
+        EconomyResponse response = adapter.transfer(PAYER, PAYEE, 4).join();
+        assertFalse(response.transactionSuccess());
+        assertSame(Reason.NO_ACCOUNT, response.reason);
+        assertTrue(response.errorMessage.startsWith("Transfer failed and was refunded"));
+        assertEquals(10, response.balance, 0);
+        assertEquals(10, stub.balances.get(PAYER.getUniqueId()), 0);
+        // every step ran in the one task, on the same worker
+        assertEquals(Arrays.asList("has", "withdrawPlayer", "depositPlayer", "depositPlayer"), stub.calls());
+        assertEquals(1, stub.threads().size());
+    }
+
+    @Test
+    public void reportsATransferThatCouldNotBeRefunded() {
+        adapter = adapter(1, 1024);
+        stub.balances.put(PAYER.getUniqueId(), 10.0);
+        stub.depositsFail = true;
+
+        EconomyResponse response = adapter.transfer(PAYER, PAYEE, 4).join();
+        assertFalse(response.transactionSuccess());
+        assertTrue(response.errorMessage.startsWith("Transfer failed and could not be refunded"));
+        assertEquals(6, stub.balances.get(PAYER.getUniqueId()), 0);
+    }
+
+    @Test
+    public void runsBankCallsOnTheWorker() throws Exception {
+        adapter = adapter(1, 1024);
+        stub.banks.put("Vault", 50.0);
+        Bank bank = adapter.getBankByName("vault").join();
+
+        assertEquals(50, bank.getBalance(), 0);
+        assertTrue(bank.withdrawIfAtLeast(20));
+        assertFalse(bank.withdrawIfAtLeast(40));
+        assertTrue(bank.compareAndSet(30, 45));
+        assertEquals(45, stub.banks.get("Vault"), 0);
+        for (String thread : stub.threads()) {
+            assertTrue(thread, thread.startsWith("Taco Vault Worker"));
+        }
+    }
+
+    @Test
+    public void runsABankCallMadeOnTheWorkerInline() throws Exception {
+        adapter = adapter(1, 1024);
+        stub.banks.put("Vault", 50.0);
+        stub.balances.put(PAYER.getUniqueId(), 1.0);
+        stub.blockOnBalance(() -> adapter.getBalance(PAYER));
+
+        // the lookup completes on the only worker, where waiting for the pool again would never return
+        CompletableFuture<Double> balance = adapter.getBankByName("Vault").thenApply(Bank::getBalance);
+        stub.release();
+        assertEquals(50, balance.get(5, TimeUnit.SECONDS), 0);
+    }
+
+    private TacoEconomyAdapter adapter(int threads, int queueLimit) {
+        TacoEconomyAdapter adapter = new TacoEconomyAdapter(stub.vault, threads, queueLimit);
+        // the constructor reads the fractional digits on the calling thread
+        stub.calls.clear();
+        return adapter;
+    }
+
+    private static OfflinePlayer player(UUID playerId) {
+        return (OfflinePlayer) Proxy.newProxyInstance(OfflinePlayer.class.getClassLoader(),
+                new Class<?>[]{OfflinePlayer.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUniqueId":
+                            return playerId;
+                        case "hashCode":
+                            return playerId.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return playerId.toString();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * A Vault economy answering only the calls the adapter makes in these tests, and recording each of them.
+     */
+    private static final class StubVault {
+        final Map<UUID, Double> balances = new ConcurrentHashMap<>();
+        final Map<String, Double> banks = new ConcurrentHashMap<>();
+        final List<String[]> calls = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean depositsFail;
+        volatile CountDownLatch gate;
+        volatile CountDownLatch entered;
+        final Economy vault = (Economy) Proxy.newProxyInstance(Economy.class.getClassLoader(),
+                new Class<?>[]{Economy.class}, (proxy, method, args) -> {
+                    calls.add(new String[]{method.getName(), Thread.currentThread().getName()});
+                    return answer(method.getName(), args);
+                });
+
+        /**
+         * Starts a balance read that holds the adapter's only worker until {@link #release()}.
+         */
+        <T> CompletableFuture<T> blockOnBalance(Supplier<CompletableFuture<T>> read)
+                throws InterruptedException {
+            gate = new CountDownLatch(1);
+            entered = new CountDownLatch(1);
+            CompletableFuture<T> blocked = read.get();
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            calls.clear();
+            return blocked;
+        }
+
+        void release() {
+            CountDownLatch gate = this.gate;
+            this.gate = null;
+            if (gate != null) {
+                gate.countDown();
+            }
+        }
+
+        List<String> calls() {
+            List<String> names = new ArrayList<>();
+            synchronized (calls) {
+                for (String[] call : calls) {
+                    names.add(call[0]);
+                }
+            }
+            return names;
+        }
+
+        List<String> threads() {
+            List<String> threads = new ArrayList<>();
+            synchronized (calls) {
+                for (String[] call : calls) {
+                    if (!threads.contains(call[1])) {
+                        threads.add(call[1]);
+                    }
+                }
+            }
+            return threads;
+        }
+
+        private Object answer(String name, Object[] args) throws InterruptedException {
+            switch (name) {
+                case "fractionalDigits":
+                    return 2;
+                case "getName":
+                    return "Stub";
+                case "hasAccount":
+                    return balances.containsKey(id(args[0]));
+                case "getBalance": {
+                    CountDownLatch gate = this.gate;
+                    if (gate != null) {
+                        entered.countDown();
+                        gate.await();
+                    }
+                    return balances.getOrDefault(id(args[0]), 0.0);
+                }
+                case "has":
+                    return balances.getOrDefault(id(args[0]), 0.0) >= (double) args[1];
+                case "withdrawPlayer":
+                    return add(id(args[0]), -(double) args[1]);
+                case "depositPlayer":
+                    return depositsFail ? new EconomyResponse((double) args[1], 0, Reason.ERROR)
+                            : add(id(args[0]), (double) args[1]);
+                case "getBanks":
+                    return new ArrayList<>(banks.keySet());
+                case "bankBalance":
+                    return new EconomyResponse(0, banks.get((String) args[0]), Reason.NONE);
+                case "bankHas": {
+                    double balance = banks.get((String) args[0]);
+                    return new EconomyResponse((double) args[1], balance,
+                            balance >= (double) args[1] ? Reason.NONE : Reason.INSUFFICIENT_FUNDS);
+                }
+                case "bankWithdraw":
+                    return new EconomyResponse((double) args[1],
+                            banks.merge((String) args[0], -(double) args[1], Double::sum), Reason.NONE);
+                case "bankDeposit":
+                    return new EconomyResponse((double) args[1],
+                            banks.merge((String) args[0], (double) args[1], Double::sum), Reason.NONE);
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        }
+
+        private EconomyResponse add(UUID playerId, double delta) {
+            Double balance = balances.get(playerId);
+            if (balance == null) {
+                return new EconomyResponse(Math.abs(delta), 0, Reason.NO_ACCOUNT);
+            }
+            balances.put(playerId, balance + delta);
+            return new EconomyResponse(Math.abs(delta), balance + delta, Reason.NONE);
+        }
+
+        private static UUID id(Object player) {
+            return ((OfflinePlayer) player).getUniqueId();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.taco.api.economy.vault;
+
+import com.taco.api.economy.FundsCheck;
+import com.taco.api.economy.memory.MemoryEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.Reason;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VaultEconomyAdapterTest {
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final String NAME = "Steve";
+
+    private RemoteEconomy economy;
+    private Logger logger;
+    private List<LogRecord> logged;
+
+    @Before
+    public void setUp() {
+        economy = new RemoteEconomy();
+        economy.createAccount(PLAYER).join();
+        economy.send(PLAYER, 100).join();
+        logged = new ArrayList<>();
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                logged.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    @Test
+    public void rollsBackAWriteTheEconomyRejects() {
+        VaultEconomyAdapter adapter = adapter(30, TimeUnit.SECONDS, 1, TimeUnit.SECONDS);
+        assertEquals(100, adapter.getBalance(NAME), 0);
+
+        economy.holdWrites = true;
+        EconomyResponse response = adapter.withdrawPlayer(NAME, 30);
+        assertTrue(response.transactionSuccess());
+        assertEquals(70, response.balance, 0);
+        assertEquals(70, adapter.getBalance(NAME), 0);
+
+        // keeps the reload the rollback starts from answering, so only the rollback can restore the balance
+        economy.holdLoads = true;
+        economy.writes.get(0).complete(EconomyResponse.of(Reason.INSUFFICIENT_FUNDS));
+        assertEquals(100, adapter.getBalance(NAME), 0);
+        assertEquals(1, logged.size());
+        assertSame(Level.WARNING, logged.get(0).getLevel());
+    }
+
+    @Test
+    public void aRefreshStartedBeforeAWriteDoesNotOverwriteIt() {
+        VaultEconomyAdapter adapter = adapter(0, TimeUnit.NANOSECONDS, 1, TimeUnit.SECONDS);
+        assertEquals(100, adapter.getBalance(NAME), 0);
+
+        economy.holdLoads = true;
+        economy.holdWrites = true;
+        // the cache is always stale here, so this read starts a background refresh
+        assertEquals(100, adapter.getBalance(NAME), 0);
+        assertEquals(1, economy.loads.size());
+        assertEquals(150, adapter.depositPlayer(NAME, 50).balance, 0);
+
+        economy.writes.get(0).complete(new EconomyResponse(50, 150, EconomyResponse.ResponseType.SUCCESS, null));
+        economy.loads.get(0).complete(FundsCheck.of(100));
+        assertEquals(150, adapter.getBalance(NAME), 0);
+    }
+
+    @Test
+    public void aCacheMissWaitsOnlyUpToTheBound() {
+        VaultEconomyAdapter adapter = adapter(30, TimeUnit.SECONDS, 20, TimeUnit.MILLISECONDS);
+        economy.holdLoads = true;
+
+        long start = System.nanoTime();
+        assertEquals(0, adapter.getBalance(NAME), 0);
+        assertFalse(adapter.has(NAME, 1));
+        assertSame(Reason.TIMED_OUT, adapter.depositPlayer(NAME, 5).reason);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        // every call waited on the same load
+        assertEquals(1, economy.loads.size());
+
+        economy.loads.get(0).complete(FundsCheck.of(100));
+        assertEquals(100, adapter.getBalance(NAME), 0);
+    }
+
+    @Test
+    public void closeStopsFollowingBalanceChanges() {
+        VaultEconomyAdapter adapter = adapter(30, TimeUnit.SECONDS, 1, TimeUnit.SECONDS);
+        assertEquals(100, adapter.getBalance(NAME), 0);
+
+        economy.send(PLAYER, 5).join();
+        assertEquals(105, adapter.getBalance(NAME), 0);
+
+        adapter.close();
+        economy.send(PLAYER, 5).join();
+        assertEquals(105, adapter.getBalance(NAME), 0);
+    }
+
+    private VaultEconomyAdapter adapter(long refreshAfter, TimeUnit refreshUnit, long maxWait, TimeUnit waitUnit) {
+        VaultEconomyAdapter adapter = new VaultEconomyAdapter(economy, logger, 16, refreshAfter, refreshUnit,
+                maxWait, waitUnit);
+        adapter.rememberName(NAME, PLAYER);
+        return adapter;
+    }
+
+    /**
+     * An economy with nothing cached locally, whose loads and writes can be held until the test completes them.
+     */
+    private static final class RemoteEconomy extends MemoryEconomy {
+        final List<CompletableFuture<FundsCheck>> loads = new ArrayList<>();
+        final List<CompletableFuture<EconomyResponse>> writes = new ArrayList<>();
+        volatile boolean holdLoads;
+        volatile boolean holdWrites;
+
+        RemoteEconomy() {
+            super("Remote");
+        }
+
+        @Override
+        public FundsCheck getCachedFunds(UUID playerId) {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<FundsCheck> checkFunds(UUID playerId) {
+            if (!holdLoads) {
+                return CompletableFuture.completedFuture(super.getCachedFunds(playerId));
+            }
+            CompletableFuture<FundsCheck> load = new CompletableFuture<>();
+            loads.add(load);
+            return load;
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> sendMinor(UUID playerId, long minor) {
+            return holdWrites ? hold() : super.sendMinor(playerId, minor);
+        }
+
+        @Override
+        public CompletableFuture<EconomyResponse> takeMinor(UUID playerId, long minor) {
+            return holdWrites ? hold() : super.takeMinor(playerId, minor);
+        }
+
+        private CompletableFuture<EconomyResponse> hold() {
+            CompletableFuture<EconomyResponse> write = new CompletableFuture<>();
+            writes.add(write);
+            return write;
+        }
+    }
+}